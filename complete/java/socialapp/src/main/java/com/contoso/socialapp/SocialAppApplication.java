@@ -2,12 +2,14 @@ package com.contoso.socialapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Contoso Social App.
  * This Spring Boot application provides a social media platform backend.
  */
 @SpringBootApplication
+@EnableScheduling
 public class SocialAppApplication {
 
 	public static void main(String[] args) {
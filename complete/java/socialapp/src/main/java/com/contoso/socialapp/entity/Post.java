@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.GenericGenerator;
 
 import java.time.LocalDateTime;
@@ -34,6 +35,14 @@ public class Post {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
+    @Column(name = "likes_count", nullable = false)
+    @ColumnDefault("0")
+    private int likesCount;
+    
+    @Column(name = "comments_count", nullable = false)
+    @ColumnDefault("0")
+    private int commentsCount;
+    
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Comment> comments = new ArrayList<>();
     
@@ -50,13 +59,4 @@ public class Post {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
-    
-    // Helper methods for counts
-    public int getLikesCount() {
-        return likes != null ? likes.size() : 0;
-    }
-    
-    public int getCommentsCount() {
-        return comments != null ? comments.size() : 0;
-    }
 }
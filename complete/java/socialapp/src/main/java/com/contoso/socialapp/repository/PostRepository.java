@@ -2,7 +2,9 @@ package com.contoso.socialapp.repository;
 
 import com.contoso.socialapp.entity.Post;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +14,22 @@ public interface PostRepository extends JpaRepository<Post, String> {
     
     @Query("SELECT p FROM Post p ORDER BY p.createdAt DESC")
     List<Post> findAllOrderByCreatedAtDesc();
+    
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = p.likesCount + :delta WHERE p.id = :postId")
+    int adjustLikesCount(@Param("postId") String postId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = p.commentsCount + :delta WHERE p.id = :postId")
+    int adjustCommentsCount(@Param("postId") String postId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = (SELECT COUNT(l) FROM Like l WHERE l.post.id = p.id) " +
+           "WHERE p.likesCount <> (SELECT COUNT(l) FROM Like l WHERE l.post.id = p.id)")
+    int reconcileLikesCounts();
+    
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = (SELECT COUNT(c) FROM Comment c WHERE c.post.id = p.id) " +
+           "WHERE p.commentsCount <> (SELECT COUNT(c) FROM Comment c WHERE c.post.id = p.id)")
+    int reconcileCommentsCounts();
 }
@@ -42,6 +42,7 @@ public class CommentService {
                     comment.setContent(request.getContent());
                     
                     Comment savedComment = commentRepository.save(comment);
+                    postRepository.adjustCommentsCount(postId, 1);
                     log.info("Created comment with ID: {} for post ID: {}", savedComment.getId(), postId);
                     
                     return convertToResponse(savedComment);
@@ -73,6 +74,7 @@ public class CommentService {
         Optional<Comment> comment = commentRepository.findByIdAndPostId(commentId, postId);
         if (comment.isPresent()) {
             commentRepository.delete(comment.get());
+            postRepository.adjustCommentsCount(postId, -1);
             log.info("Deleted comment with ID: {} for post ID: {}", commentId, postId);
             return true;
         }
@@ -0,0 +1,30 @@
+package com.contoso.socialapp.service;
+
+import com.contoso.socialapp.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Scheduled job that keeps the denormalized like/comment counters on posts in sync.
+ * The first run at startup also backfills counters for posts created before the columns existed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CounterReconciliationJob {
+    
+    private final PostRepository postRepository;
+    
+    @Scheduled(fixedDelayString = "${app.counters.reconcile-interval:PT1H}")
+    @Transactional
+    public void reconcile() {
+        int likesRepaired = postRepository.reconcileLikesCounts();
+        int commentsRepaired = postRepository.reconcileCommentsCounts();
+        if (likesRepaired > 0 || commentsRepaired > 0) {
+            log.warn("Repaired counter drift: {} likes counts, {} comments counts", likesRepaired, commentsRepaired);
+        }
+    }
+}
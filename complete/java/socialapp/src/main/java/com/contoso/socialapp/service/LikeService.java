@@ -47,6 +47,7 @@ public class LikeService {
         like.setUsername(request.getUsername());
         
         Like savedLike = likeRepository.save(like);
+        postRepository.adjustLikesCount(postId, 1);
         log.info("Added like to post ID: {} by user: {}", postId, request.getUsername());
         
         return Optional.of(convertToResponse(savedLike));
@@ -58,6 +59,7 @@ public class LikeService {
         Optional<Like> like = likeRepository.findByPostIdAndUsername(postId, username);
         if (like.isPresent()) {
             likeRepository.delete(like.get());
+            postRepository.adjustLikesCount(postId, -1);
             log.info("Removed like from post ID: {} by user: {}", postId, username);
             return true;
         }
@@ -0,0 +1,24 @@
+package com.contoso.socialapp.cache;
+
+import com.contoso.socialapp.dto.PostDto;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A post held in the post cache together with the version read before it was loaded.
+ *
+ * <p>Puts made in a transaction only apply once it commits, so a read that loaded a post just
+ * before a write can still cache its copy after the write has evicted the entry. That copy carries
+ * a version older than the post's current one and is treated as a miss.</p>
+ */
+@Getter
+@RequiredArgsConstructor
+public class CachedPost {
+    
+    private final PostDto post;
+    private final ContentVersions.Version version;
+    
+    public boolean isCurrent(ContentVersions.Version current) {
+        return !version.isOlderThan(current);
+    }
+}
@@ -0,0 +1,120 @@
+package com.contoso.socialapp.cache;
+
+import com.contoso.socialapp.event.CommentChangedEvent;
+import com.contoso.socialapp.event.PostCountersChangedEvent;
+import com.contoso.socialapp.event.PostDeletedEvent;
+import com.contoso.socialapp.event.PostSavedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version counters used as validators for conditional GETs.
+ *
+ * <p>Versions are bumped after commit, so a validator read before loading data is never newer than
+ * that data. Every tag embeds the process start time: counters restart at zero on boot, and tags
+ * handed out by an earlier process must not match.</p>
+ *
+ * <p>Versions are kept in a size-bounded Caffeine map, and a deleted post's entries are dropped.
+ * Counters come from one sequence shared by all scopes, so a scope that has no entry, because it
+ * was evicted, deleted or never read, gets a fresh counter that no earlier tag carries and is
+ * treated as changed.</p>
+ */
+@Component
+public class ContentVersions {
+    
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentMap<String, Version> versions;
+    
+    public ContentVersions(@Value("${app.cache.versions.spec}") String spec) {
+        // Evictions run on the writing thread, so the map never holds more than the spec allows
+        Cache<String, Version> cache = Caffeine.from(spec).executor(Runnable::run).build();
+        this.versions = cache.asMap();
+    }
+    
+    public Version feed() {
+        return current("feed");
+    }
+    
+    public Version post(String postId) {
+        return current("post:" + postId);
+    }
+    
+    public Version comments(String postId) {
+        return current("comments:" + postId);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostSaved(PostSavedEvent event) {
+        bump("feed");
+        bump("post:" + event.getPost().getId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        bump("feed");
+        versions.remove("post:" + event.getPostId());
+        versions.remove("comments:" + event.getPostId());
+    }
+    
+    // Bumped after LikeCounters has applied the change, so a version read before a load is never
+    // newer than the likes count that load sees
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCountersChanged(PostCountersChangedEvent event) {
+        bump("feed");
+        bump("post:" + event.getPostId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentChanged(CommentChangedEvent event) {
+        bump("comments:" + event.getPostId());
+    }
+    
+    private Version current(String key) {
+        return versions.computeIfAbsent(key, k -> new Version(k, epoch, sequence.incrementAndGet(), System.currentTimeMillis()));
+    }
+    
+    private void bump(String key) {
+        long now = System.currentTimeMillis();
+        versions.compute(key, (k, previous) -> new Version(k, epoch, sequence.incrementAndGet(),
+                previous == null ? now : Math.max(now, previous.lastModified)));
+    }
+    
+    public static final class Version {
+        
+        private final String scope;
+        private final long epoch;
+        private final long counter;
+        private final long lastModified;
+        
+        Version(String scope, long epoch, long counter, long lastModified) {
+            this.scope = scope;
+            this.epoch = epoch;
+            this.counter = counter;
+            this.lastModified = lastModified;
+        }
+        
+        /** Strong entity tag, quoted as it appears on the wire. */
+        public String etag() {
+            return "\"" + Integer.toHexString(scope.hashCode()) + "-" + Long.toHexString(epoch) + "-" + counter + "\"";
+        }
+        
+        public long lastModified() {
+            return lastModified;
+        }
+        
+        /** Whether this version was handed out before {@code other}; counters share one sequence. */
+        public boolean isOlderThan(Version other) {
+            return counter < other.counter;
+        }
+    }
+}
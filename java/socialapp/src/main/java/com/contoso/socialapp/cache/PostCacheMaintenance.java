@@ -0,0 +1,62 @@
+package com.contoso.socialapp.cache;
+
+import com.contoso.socialapp.config.CacheConfig;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.event.PostCountersChangedEvent;
+import com.contoso.socialapp.event.PostDeletedEvent;
+import com.contoso.socialapp.service.PostService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Cache upkeep that does not fit a single {@code @CacheEvict}: warming the post cache at startup,
+ * dropping every cached comment of a deleted post, and evicting posts whose comments count was
+ * changed outside the comment service (likes counts are evicted by {@code LikeCounters}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostCacheMaintenance {
+    
+    private final CacheManager cacheManager;
+    private final PostService postService;
+    
+    @Value("${app.cache.posts.warm-size:100}")
+    private int warmSize;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmSize <= 0) {
+            return;
+        }
+        // Loaded again by id so that each copy is stamped with a version read before its load
+        List<String> hottest = postService.getMostLikedPosts(warmSize).stream().map(PostDto::getId).toList();
+        int cached = postService.cachePosts(hottest);
+        log.info("Warmed post cache with {} posts", cached);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCountersChanged(PostCountersChangedEvent event) {
+        if (event.getCommentsDelta() != 0) {
+            cacheManager.getCache(CacheConfig.POSTS).evict(event.getPostId());
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        Cache comments = cacheManager.getCache(CacheConfig.COMMENTS);
+        if (comments.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            String prefix = event.getPostId() + ":";
+            nativeCache.asMap().keySet().removeIf(key -> key.toString().startsWith(prefix));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.contoso.socialapp.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String POSTS = "posts";
+    public static final String COMMENTS = "comments";
+    
+    /**
+     * Caffeine caches (W-TinyLFU admission and eviction) for single post and comment lookups.
+     * Wrapped so that puts and evictions issued inside a transaction only apply after it commits.
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.posts.spec}") String postsSpec,
+            @Value("${app.cache.comments.spec}") String commentsSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(POSTS, Caffeine.from(postsSpec).build());
+        cacheManager.registerCustomCache(COMMENTS, Caffeine.from(commentsSpec).build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
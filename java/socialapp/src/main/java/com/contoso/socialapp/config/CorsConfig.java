@@ -17,6 +17,10 @@ public class CorsConfig {
         config.addAllowedOrigin("*");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader("X-Next-Cursor");
+        config.addExposedHeader("X-Total-Count");
+        config.addExposedHeader("ETag");
+        config.addExposedHeader("Last-Modified");
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
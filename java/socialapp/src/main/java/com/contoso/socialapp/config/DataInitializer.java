@@ -1,7 +1,7 @@
 package com.contoso.socialapp.config;
 
 import com.contoso.socialapp.entity.Post;
-import com.contoso.socialapp.repository.PostRepository;
+import com.contoso.socialapp.store.PostStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -12,11 +12,11 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
     
-    private final PostRepository postRepository;
+    private final PostStore postStore;
     
     @Override
     public void run(String... args) throws Exception {
-        if (postRepository.count() == 0) {
+        if (postStore.count() == 0) {
             log.info("Initializing database with mock data...");
             
             Post post1 = new Post();
@@ -34,9 +34,9 @@ public class DataInitializer implements CommandLineRunner {
             post3.setUsername("carol");
             post3.setContent("Excited to join this community!");
             
-            postRepository.save(post1);
-            postRepository.save(post2);
-            postRepository.save(post3);
+            postStore.insert(post1);
+            postStore.insert(post2);
+            postStore.insert(post3);
             
             log.info("Mock data initialized successfully.");
         }
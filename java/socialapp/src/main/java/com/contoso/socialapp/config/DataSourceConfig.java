@@ -0,0 +1,103 @@
+package com.contoso.socialapp.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * SQLite allows one writer at a time, so every write goes through a single connection and waits
+ * for it in the pool rather than failing with SQLITE_BUSY. With WAL journaling, readers do not
+ * block on that writer; read-only transactions ({@code @Transactional(readOnly = true)}) are
+ * routed to a separate pool of read-only connections.
+ *
+ * <p>The routing key is read when a statement first needs a connection, not when the transaction
+ * begins, because the read-only flag is only published after the transaction manager has started.</p>
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final String WRITER = "writer";
+    private static final String READER = "reader";
+
+    @Value("${app.sqlite.readers:4}")
+    private int readers;
+
+    @Value("${app.sqlite.journal-mode:WAL}")
+    private SQLiteConfig.JournalMode journalMode;
+
+    @Value("${app.sqlite.synchronous:NORMAL}")
+    private SQLiteConfig.SynchronousMode synchronous;
+
+    @Value("${app.sqlite.busy-timeout:5000}")
+    private int busyTimeout;
+
+    @Value("${app.sqlite.cache-size:-16000}")
+    private int cacheSize;
+
+    @Value("${app.sqlite.mmap-size:268435456}")
+    private long mmapSize;
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteWriter(DataSourceProperties properties) {
+        SQLiteConfig config = pragmas();
+        config.setJournalMode(journalMode);
+        config.setSynchronous(synchronous);
+        // Created first: the writer switches the file to WAL before any reader opens it
+        return pool("sqlite-writer", properties.determineUrl(), config, 1, false);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteReaders(DataSourceProperties properties, HikariDataSource sqliteWriter) {
+        SQLiteConfig config = pragmas();
+        config.setReadOnly(true);
+        return pool("sqlite-readers", properties.determineUrl(), config, Math.max(readers, 1), true);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource sqliteWriter, HikariDataSource sqliteReaders) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READER : WRITER;
+            }
+        };
+        routing.setTargetDataSources(Map.of(WRITER, sqliteWriter, READER, sqliteReaders));
+        routing.setDefaultTargetDataSource(sqliteWriter);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private SQLiteConfig pragmas() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(busyTimeout);
+        config.setCacheSize(cacheSize);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(mmapSize));
+        return config;
+    }
+
+    private static HikariDataSource pool(String name, String url, SQLiteConfig config, int size, boolean readOnly) {
+        SQLiteDataSource sqlite = new SQLiteDataSource(config);
+        sqlite.setUrl(url);
+
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName(name);
+        hikari.setDataSource(sqlite);
+        hikari.setMaximumPoolSize(size);
+        hikari.setMinimumIdle(size);
+        hikari.setReadOnly(readOnly);
+        return new HikariDataSource(hikari);
+    }
+}
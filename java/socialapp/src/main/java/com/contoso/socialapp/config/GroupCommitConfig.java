@@ -0,0 +1,60 @@
+package com.contoso.socialapp.config;
+
+import com.contoso.socialapp.write.GroupCommit;
+import com.contoso.socialapp.write.GroupCommitExecutor;
+import com.contoso.socialapp.write.GroupCommitTransactionManager;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Method;
+
+@Configuration(proxyBeanMethods = false)
+public class GroupCommitConfig {
+    
+    /**
+     * Wraps {@link GroupCommit} methods outside their transaction advice, so the whole
+     * transactional call, cache eviction included, runs on the writer thread. Methods whose
+     * {@link GroupCommit#inlineWhen} property is set are left unadvised.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor groupCommitAdvisor(ObjectProvider<GroupCommitExecutor> executor, Environment environment) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                GroupCommit groupCommit = AnnotatedElementUtils.findMergedAnnotation(
+                        AopUtils.getMostSpecificMethod(method, targetClass), GroupCommit.class);
+                return groupCommit != null && (groupCommit.inlineWhen().isEmpty()
+                        || !environment.getProperty(groupCommit.inlineWhen(), Boolean.class, false));
+            }
+        };
+        // Looked up on first use: advisors are created before the beans the executor depends on
+        MethodInterceptor interceptor = invocation -> executor.getObject().execute(invocation::proceed);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+    
+    /**
+     * Takes the place of Boot's JPA transaction manager, with the same customizations applied.
+     */
+    @Bean
+    PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        GroupCommitTransactionManager transactionManager = new GroupCommitTransactionManager();
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+}
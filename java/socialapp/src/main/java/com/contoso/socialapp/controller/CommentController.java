@@ -1,9 +1,12 @@
 package com.contoso.socialapp.controller;
 
+import com.contoso.socialapp.cache.ContentVersions;
 import com.contoso.socialapp.dto.*;
+import com.contoso.socialapp.pagination.CursorPage;
 import com.contoso.socialapp.service.CommentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -15,6 +18,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,22 +29,42 @@ import java.util.List;
 public class CommentController {
     
     private final CommentService commentService;
+    private final ContentVersions contentVersions;
     
     @GetMapping
     @Operation(
             summary = "List comments for a post",
-            description = "Retrieve all comments on a specific post",
+            description = "Retrieve comments on a specific post, oldest first, one page at a time. " +
+                    "Pass the X-Next-Cursor response header back as 'after' to fetch the following page.",
             operationId = "getCommentsByPostId"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Successfully retrieved comments",
+                    description = "Successfully retrieved comments (304 when the If-None-Match or If-Modified-Since validator still matches)",
+                    headers = {
+                            @Header(
+                                    name = "X-Next-Cursor",
+                                    description = "Cursor for the next page; absent on the last page"
+                            ),
+                            @Header(
+                                    name = "X-Total-Count",
+                                    description = "Total number of comments on the post; only sent when includeTotal=true"
+                            )
+                    },
                     content = @Content(
                             mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(implementation = CommentDto.class))
                     )
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - invalid limit or cursor",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Resource not found",
@@ -60,9 +84,27 @@ public class CommentController {
     })
     public ResponseEntity<List<CommentDto>> getCommentsByPostId(
             @Parameter(description = "Unique identifier of the post", example = "123e4567-e89b-12d3-a456-426614174000")
-            @PathVariable String postId) {
-        List<CommentDto> comments = commentService.getCommentsByPostId(postId);
-        return ResponseEntity.ok(comments);
+            @PathVariable String postId,
+            @Parameter(description = "Maximum number of comments to return (capped by the server)", example = "50")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Also return the total number of comments in X-Total-Count")
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest webRequest) {
+        ContentVersions.Version version = contentVersions.comments(postId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        CursorPage<CommentDto> page = commentService.getCommentsByPostId(postId, limit, after);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        if (includeTotal) {
+            response.header("X-Total-Count", String.valueOf(commentService.countCommentsByPostId(postId)));
+        }
+        return response.body(page.getItems());
     }
     
     @PostMapping
@@ -113,6 +155,55 @@ public class CommentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(comment);
     }
     
+    @PostMapping("/bulk")
+    @Operation(
+            summary = "Create many comments",
+            description = "Add up to app.bulk.max-items comments to a post in one transaction. Invalid items are skipped " +
+                    "and reported in the per-item results; the rest are inserted with JDBC batches.",
+            operationId = "createCommentsBulk"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Request processed; see the per-item results for rejected items",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkCreateResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - empty array or too many items",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Post not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<BulkCreateResponse> createCommentsBulk(
+            @Parameter(description = "Unique identifier of the post", example = "123e4567-e89b-12d3-a456-426614174000")
+            @PathVariable String postId,
+            @RequestBody List<NewCommentRequest> requests) {
+        BulkCreateResponse response = commentService.createComments(postId, requests);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/{commentId}")
     @Operation(
             summary = "Get a specific comment",
@@ -122,7 +213,7 @@ public class CommentController {
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Successfully retrieved the comment",
+                    description = "Successfully retrieved the comment (304 when the If-None-Match or If-Modified-Since validator still matches)",
                     content = @Content(
                             mediaType = "application/json",
                             schema = @Schema(implementation = CommentDto.class)
@@ -149,7 +240,12 @@ public class CommentController {
             @Parameter(description = "Unique identifier of the post", example = "123e4567-e89b-12d3-a456-426614174000")
             @PathVariable String postId,
             @Parameter(description = "Unique identifier of the comment", example = "987fcdeb-51a2-43d1-9f6b-123456789abc")
-            @PathVariable String commentId) {
+            @PathVariable String commentId,
+            WebRequest webRequest) {
+        ContentVersions.Version version = contentVersions.comments(postId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         CommentDto comment = commentService.getCommentById(postId, commentId);
         return ResponseEntity.ok(comment);
     }
@@ -0,0 +1,66 @@
+package com.contoso.socialapp.controller;
+
+import com.contoso.socialapp.dto.ErrorResponse;
+import com.contoso.socialapp.dto.TrendingHashtagsResponse;
+import com.contoso.socialapp.hashtag.TrendingHashtags;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/hashtags")
+@RequiredArgsConstructor
+@Tag(name = "Hashtags", description = "Operations related to hashtags in posts")
+public class HashtagController {
+    
+    private final TrendingHashtags trendingHashtags;
+    
+    @GetMapping("/trending")
+    @Operation(
+            summary = "Get trending hashtags",
+            description = "Return the hashtags mentioned in the most posts over a recent window, most mentioned first. " +
+                    "Counts come from time-bucketed Count-Min sketches, so they are estimates that may overcount slightly.",
+            operationId = "getTrendingHashtags"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved trending hashtags",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = TrendingHashtagsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - malformed window, window longer than the retention or invalid limit",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<TrendingHashtagsResponse> getTrendingHashtags(
+            @Parameter(description = "How far back to look, such as 15m, 1h or PT6H", example = "1h")
+            @RequestParam(defaultValue = "1h") String window,
+            @Parameter(description = "Maximum number of hashtags to return (capped by the server)", example = "10")
+            @RequestParam(required = false) Integer limit) {
+        TrendingHashtagsResponse trending = trendingHashtags.trending(window, limit);
+        return ResponseEntity.ok(trending);
+    }
+}
@@ -15,6 +15,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/posts/{postId}/likes")
 @RequiredArgsConstructor
@@ -23,6 +25,48 @@ public class LikeController {
     
     private final LikeService likeService;
     
+    @GetMapping
+    @Operation(
+            summary = "Check which users like a post",
+            description = "Given a list of usernames, return the ones that like the post. " +
+                    "Answered from the in-memory liker index without querying the likes table.",
+            operationId = "getLikers"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully checked the usernames",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = LikersResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - too many usernames",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<LikersResponse> getLikers(
+            @Parameter(description = "Unique identifier of the post", example = "123e4567-e89b-12d3-a456-426614174000")
+            @PathVariable String postId,
+            @Parameter(description = "Usernames to check; repeat the parameter for each user", example = "jane_smith")
+            @RequestParam(name = "username") List<String> usernames) {
+        LikersResponse likers = likeService.findLikers(postId, usernames);
+        return ResponseEntity.ok(likers);
+    }
+    
     @PostMapping
     @Operation(
             summary = "Like a post",
@@ -61,6 +105,14 @@ public class LikeController {
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponse.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Too many likes are waiting to be written (write-behind mode); retry shortly",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
             )
     })
     public ResponseEntity<LikeResponse> likePost(
@@ -97,6 +149,14 @@ public class LikeController {
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponse.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Too many likes are waiting to be written (write-behind mode); retry shortly",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
             )
     })
     public ResponseEntity<Void> unlikePost(
@@ -1,11 +1,15 @@
 package com.contoso.socialapp.controller;
 
+import com.contoso.socialapp.cache.ContentVersions;
 import com.contoso.socialapp.dto.*;
+import com.contoso.socialapp.pagination.CursorPage;
+import com.contoso.socialapp.service.PostExportService;
 import com.contoso.socialapp.service.PostService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -13,8 +17,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,17 +32,204 @@ import java.util.List;
 public class PostController {
     
     private final PostService postService;
+    private final PostExportService postExportService;
+    private final ContentVersions contentVersions;
     
     @GetMapping
     @Operation(
-            summary = "List all posts",
-            description = "Retrieve all recent posts to browse what others are sharing",
+            summary = "List posts",
+            description = "Retrieve recent posts, newest first, one page at a time. " +
+                    "Pass the X-Next-Cursor response header back as 'after' to fetch the following page.",
             operationId = "getPosts"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Successfully retrieved posts",
+                    description = "Successfully retrieved posts (304 when the If-None-Match or If-Modified-Since validator still matches)",
+                    headers = @Header(
+                            name = "X-Next-Cursor",
+                            description = "Cursor for the next page; absent on the last page"
+                    ),
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = PostDto.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - invalid limit or cursor",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<List<PostDto>> getPosts(
+            @Parameter(description = "Maximum number of posts to return (capped by the server)", example = "20")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String after,
+            WebRequest webRequest) {
+        ContentVersions.Version version = contentVersions.feed();
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        CursorPage<PostDto> page = postService.getPosts(limit, after);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+    
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search posts",
+            description = "Full-text search over posts and their comments, best match first (BM25). " +
+                    "Words are matched case-insensitively; a post matches if its text or one of its comments " +
+                    "contains any of them. Pass the X-Next-Cursor response header back as 'after' to fetch the following page.",
+            operationId = "searchPosts"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully searched posts",
+                    headers = @Header(
+                            name = "X-Next-Cursor",
+                            description = "Cursor for the next page; absent on the last page"
+                    ),
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = PostDto.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - query without words or with too many, invalid limit or cursor",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<List<PostDto>> searchPosts(
+            @Parameter(description = "Words to search for; a missing or blank query is rejected with 400", example = "hiking trail")
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Maximum number of posts to return (capped by the server)", example = "20")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String after) {
+        CursorPage<PostDto> page = postService.searchPosts(q, limit, after);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+    
+    @PostMapping("/bulk")
+    @Operation(
+            summary = "Create many posts",
+            description = "Create up to app.bulk.max-items posts in one transaction. Invalid items are skipped and reported " +
+                    "in the per-item results; the rest are inserted with JDBC batches.",
+            operationId = "createPostsBulk"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Request processed; see the per-item results for rejected items",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkCreateResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - empty array or too many items",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<BulkCreateResponse> createPostsBulk(@RequestBody List<NewPostRequest> requests) {
+        BulkCreateResponse response = postService.createPosts(requests);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/batch-get")
+    @Operation(
+            summary = "Get several posts by ID",
+            description = "Resolve a list of post IDs in one round trip. Results come back in request order, " +
+                    "with found=false for IDs that do not exist.",
+            operationId = "batchGetPosts"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully resolved the requested IDs",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchGetPostsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - empty list or too many IDs",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public ResponseEntity<BatchGetPostsResponse> batchGetPosts(@Valid @RequestBody BatchGetPostsRequest request) {
+        BatchGetPostsResponse response = postService.getPostsByIds(request.getIds());
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Export all posts",
+            description = "Stream every post, newest first, as one JSON array. " +
+                    "Rows are written as they are read, so the response size is not bounded by server memory.",
+            operationId = "exportPosts"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Streaming array of all posts",
                     content = @Content(
                             mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(implementation = PostDto.class))
@@ -50,9 +244,11 @@ public class PostController {
                     )
             )
     })
-    public ResponseEntity<List<PostDto>> getPosts() {
-        List<PostDto> posts = postService.getAllPosts();
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<StreamingResponseBody> exportPosts() {
+        StreamingResponseBody body = postExportService::exportPosts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
     
     @PostMapping
@@ -101,7 +297,7 @@ public class PostController {
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Successfully retrieved the post",
+                    description = "Successfully retrieved the post (304 when the If-None-Match or If-Modified-Since validator still matches)",
                     content = @Content(
                             mediaType = "application/json",
                             schema = @Schema(implementation = PostDto.class)
@@ -126,7 +322,12 @@ public class PostController {
     })
     public ResponseEntity<PostDto> getPostById(
             @Parameter(description = "Unique identifier of the post", example = "123e4567-e89b-12d3-a456-426614174000")
-            @PathVariable String postId) {
+            @PathVariable String postId,
+            WebRequest webRequest) {
+        ContentVersions.Version version = contentVersions.post(postId);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         PostDto post = postService.getPostById(postId);
         return ResponseEntity.ok(post);
     }
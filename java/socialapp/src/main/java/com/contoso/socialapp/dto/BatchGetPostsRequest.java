@@ -0,0 +1,31 @@
+package com.contoso.socialapp.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to fetch several posts by ID in one call")
+public class BatchGetPostsRequest {
+    
+    // Caps repeats too; the distinct IDs are capped by app.posts.batch-get.max-ids
+    public static final int MAX_IDS = 1000;
+    
+    @ArraySchema(
+            arraySchema = @Schema(description = "IDs of the posts to fetch; results come back in the same order", requiredMode = Schema.RequiredMode.REQUIRED),
+            maxItems = BatchGetPostsRequest.MAX_IDS,
+            schema = @Schema(example = "123e4567-e89b-12d3-a456-426614174000")
+    )
+    @NotEmpty(message = "ids must not be empty")
+    @Size(max = MAX_IDS, message = "ids must not hold more than " + MAX_IDS + " entries")
+    private List<@NotBlank(message = "ids must not contain blank values") String> ids;
+}
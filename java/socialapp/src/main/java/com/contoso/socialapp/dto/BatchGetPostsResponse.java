@@ -0,0 +1,18 @@
+package com.contoso.socialapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Posts fetched by ID, one result per requested ID in request order")
+public class BatchGetPostsResponse {
+    
+    @Schema(description = "Lookup results in the order the IDs were requested")
+    private List<PostLookupResult> results;
+}
@@ -0,0 +1,24 @@
+package com.contoso.socialapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Summary of a bulk create request")
+public class BulkCreateResponse {
+    
+    @Schema(description = "Number of items created", example = "98")
+    private int createdCount;
+    
+    @Schema(description = "Number of items rejected", example = "2")
+    private int failedCount;
+    
+    @Schema(description = "Per-item results in request order")
+    private List<BulkItemResult> results;
+}
@@ -0,0 +1,27 @@
+package com.contoso.socialapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of one item in a bulk create request")
+public class BulkItemResult {
+    
+    @Schema(description = "Position of the item in the request array", example = "0")
+    private int index;
+    
+    @Schema(description = "Whether the item was created", example = "true")
+    private boolean created;
+    
+    @Schema(description = "ID of the created resource; null when the item was rejected", example = "123e4567-e89b-12d3-a456-426614174000")
+    private String id;
+    
+    @Schema(description = "Validation errors that caused the item to be rejected")
+    private List<String> errors;
+}
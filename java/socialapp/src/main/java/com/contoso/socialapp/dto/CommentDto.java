@@ -1,12 +1,11 @@
 package com.contoso.socialapp.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 
 @Data
 @NoArgsConstructor
@@ -26,11 +25,9 @@ public class CommentDto {
     @Schema(description = "Content of the comment", example = "Great photo! Where was this taken?")
     private String content;
     
-    @Schema(description = "Timestamp when the comment was created", example = "2025-06-01T11:15:00")
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
-    private LocalDateTime createdAt;
+    @Schema(description = "Timestamp when the comment was created", example = "2025-06-01T11:15:00Z")
+    private Instant createdAt;
     
-    @Schema(description = "Timestamp when the comment was last updated", example = "2025-06-01T11:15:00")
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
-    private LocalDateTime updatedAt;
+    @Schema(description = "Timestamp when the comment was last updated", example = "2025-06-01T11:15:00Z")
+    private Instant updatedAt;
 }
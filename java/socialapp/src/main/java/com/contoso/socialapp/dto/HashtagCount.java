@@ -0,0 +1,20 @@
+package com.contoso.socialapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A hashtag and how many posts mentioned it")
+public class HashtagCount {
+    
+    @Schema(description = "The hashtag, lowercased and without the leading #", example = "outdoorlife")
+    private String tag;
+    
+    @Schema(description = "Posts that mentioned the tag in the window; an estimate that may overcount slightly but never undercounts",
+            example = "42")
+    private int count;
+}
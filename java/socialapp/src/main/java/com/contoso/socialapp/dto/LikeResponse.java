@@ -1,12 +1,11 @@
 package com.contoso.socialapp.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 
 @Data
 @NoArgsConstructor
@@ -20,7 +19,6 @@ public class LikeResponse {
     @Schema(description = "Username who liked the post", example = "mike_wilson")
     private String username;
     
-    @Schema(description = "Timestamp when the post was liked", example = "2025-06-01T12:00:00")
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
-    private LocalDateTime likedAt;
+    @Schema(description = "Timestamp when the post was liked", example = "2025-06-01T12:00:00Z")
+    private Instant likedAt;
 }
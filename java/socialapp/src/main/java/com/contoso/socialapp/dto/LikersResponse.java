@@ -0,0 +1,21 @@
+package com.contoso.socialapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Which of the requested users like a post")
+public class LikersResponse {
+    
+    @Schema(description = "ID of the post", example = "123e4567-e89b-12d3-a456-426614174000")
+    private String postId;
+    
+    @Schema(description = "Requested usernames that like the post, in request order", example = "[\"jane_smith\", \"mike_wilson\"]")
+    private List<String> likedBy;
+}
@@ -1,12 +1,11 @@
 package com.contoso.socialapp.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 
 @Data
 @NoArgsConstructor
@@ -23,13 +22,11 @@ public class PostDto {
     @Schema(description = "Content of the post", example = "Just had an amazing hike in the mountains! #outdoorlife")
     private String content;
     
-    @Schema(description = "Timestamp when the post was created", example = "2025-06-01T10:30:00")
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
-    private LocalDateTime createdAt;
+    @Schema(description = "Timestamp when the post was created", example = "2025-06-01T10:30:00Z")
+    private Instant createdAt;
     
-    @Schema(description = "Timestamp when the post was last updated", example = "2025-06-01T10:30:00")
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
-    private LocalDateTime updatedAt;
+    @Schema(description = "Timestamp when the post was last updated", example = "2025-06-01T10:30:00Z")
+    private Instant updatedAt;
     
     @Schema(description = "Number of likes on the post", example = "15", minimum = "0")
     private int likesCount;
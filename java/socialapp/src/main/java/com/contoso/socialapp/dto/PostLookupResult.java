@@ -0,0 +1,22 @@
+package com.contoso.socialapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of looking up one requested post ID")
+public class PostLookupResult {
+    
+    @Schema(description = "The requested post ID", example = "123e4567-e89b-12d3-a456-426614174000")
+    private String id;
+    
+    @Schema(description = "Whether a post with this ID exists", example = "true")
+    private boolean found;
+    
+    @Schema(description = "The post, or null when it was not found")
+    private PostDto post;
+}
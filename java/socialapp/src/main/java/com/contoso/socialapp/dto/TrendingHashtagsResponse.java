@@ -0,0 +1,22 @@
+package com.contoso.socialapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "The most mentioned hashtags over a recent window")
+public class TrendingHashtagsResponse {
+    
+    @Schema(description = "Window actually covered, as an ISO-8601 duration; the requested one rounded up to whole buckets",
+            example = "PT1H")
+    private String window;
+    
+    @Schema(description = "Hashtags, most mentioned first")
+    private List<HashtagCount> hashtags;
+}
@@ -5,8 +5,6 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 @Entity
 @Table(name = "comments")
@@ -15,25 +13,23 @@ import java.time.format.DateTimeFormatter;
 @AllArgsConstructor
 public class Comment {
     
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    
     @Id
     private String id;
     
     @Column(name = "postId", nullable = false)
     private String postId;
     
-    @Column(nullable = false)
-    private String username;
+    @Column(name = "userId", nullable = false)
+    private Integer userId;
     
     @Column(nullable = false, length = 1000)
     private String content;
     
     @Column(name = "createdAt", nullable = false, updatable = false)
-    private String createdAt;
+    private long createdAt;
     
     @Column(name = "updatedAt", nullable = false)
-    private String updatedAt;
+    private long updatedAt;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "postId", insertable = false, updatable = false)
@@ -41,13 +37,13 @@ public class Comment {
 
     @PrePersist
     protected void onCreate() {
-        String now = LocalDateTime.now().format(FORMATTER);
+        long now = System.currentTimeMillis();
         createdAt = now;
         updatedAt = now;
     }
     
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now().format(FORMATTER);
+        updatedAt = System.currentTimeMillis();
     }
 }
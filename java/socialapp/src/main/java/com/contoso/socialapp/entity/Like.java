@@ -5,8 +5,6 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 @Entity
 @Table(name = "likes")
@@ -16,18 +14,16 @@ import java.time.format.DateTimeFormatter;
 @IdClass(LikeId.class)
 public class Like {
     
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    
     @Id
     @Column(name = "postId", nullable = false)
     private String postId;
     
     @Id
-    @Column(nullable = false)
-    private String username;
+    @Column(name = "userId", nullable = false)
+    private Integer userId;
     
     @Column(name = "createdAt", nullable = false, updatable = false)
-    private String createdAt;
+    private long createdAt;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "postId", insertable = false, updatable = false)
@@ -35,6 +31,6 @@ public class Like {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now().format(FORMATTER);
+        createdAt = System.currentTimeMillis();
     }
 }
@@ -11,5 +11,5 @@ import java.io.Serializable;
 @AllArgsConstructor
 public class LikeId implements Serializable {
     private String postId;
-    private String username;
+    private Integer userId;
 }
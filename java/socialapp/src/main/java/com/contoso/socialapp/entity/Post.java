@@ -4,9 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Entity
@@ -16,8 +15,6 @@ import java.util.List;
 @AllArgsConstructor
 public class Post {
     
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    
     @Id
     private String id;
     
@@ -28,10 +25,18 @@ public class Post {
     private String content;
     
     @Column(name = "createdAt", nullable = false, updatable = false)
-    private String createdAt;
+    private long createdAt;
     
     @Column(name = "updatedAt", nullable = false)
-    private String updatedAt;
+    private long updatedAt;
+    
+    @Column(name = "likesCount", nullable = false)
+    @ColumnDefault("0")
+    private int likesCount;
+    
+    @Column(name = "commentsCount", nullable = false)
+    @ColumnDefault("0")
+    private int commentsCount;
     
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Comment> comments;
@@ -41,13 +46,13 @@ public class Post {
 
     @PrePersist
     protected void onCreate() {
-        String now = LocalDateTime.now().format(FORMATTER);
+        long now = System.currentTimeMillis();
         createdAt = now;
         updatedAt = now;
     }
     
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now().format(FORMATTER);
+        updatedAt = System.currentTimeMillis();
     }
 }
@@ -0,0 +1,12 @@
+package com.contoso.socialapp.event;
+
+import lombok.Value;
+
+/**
+ * Published when a comment is created, updated or deleted.
+ */
+@Value
+public class CommentChangedEvent {
+    String postId;
+    String commentId;
+}
@@ -0,0 +1,12 @@
+package com.contoso.socialapp.event;
+
+import lombok.Value;
+
+/**
+ * Published when a single comment is deleted.
+ */
+@Value
+public class CommentDeletedEvent {
+    String postId;
+    String commentId;
+}
@@ -0,0 +1,12 @@
+package com.contoso.socialapp.event;
+
+import com.contoso.socialapp.dto.CommentDto;
+import lombok.Value;
+
+/**
+ * Published for each comment created or updated, carrying its new content.
+ */
+@Value
+public class CommentSavedEvent {
+    CommentDto comment;
+}
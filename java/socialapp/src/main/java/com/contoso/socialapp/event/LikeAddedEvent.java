@@ -0,0 +1,12 @@
+package com.contoso.socialapp.event;
+
+import lombok.Value;
+
+/**
+ * Published when a like row is inserted.
+ */
+@Value
+public class LikeAddedEvent {
+    String postId;
+    int userId;
+}
@@ -0,0 +1,12 @@
+package com.contoso.socialapp.event;
+
+import lombok.Value;
+
+/**
+ * Published when a stored like row is deleted.
+ */
+@Value
+public class LikeRemovedEvent {
+    String postId;
+    int userId;
+}
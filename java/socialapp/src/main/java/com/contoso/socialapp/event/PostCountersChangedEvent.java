@@ -0,0 +1,14 @@
+package com.contoso.socialapp.event;
+
+import lombok.Value;
+
+/**
+ * Published when likes or comments are added to or removed from a post.
+ * Deltas rather than absolute values, so listeners can apply them in any order.
+ */
+@Value
+public class PostCountersChangedEvent {
+    String postId;
+    int likesDelta;
+    int commentsDelta;
+}
@@ -0,0 +1,11 @@
+package com.contoso.socialapp.event;
+
+import lombok.Value;
+
+/**
+ * Published when a post and everything attached to it has been deleted.
+ */
+@Value
+public class PostDeletedEvent {
+    String postId;
+}
@@ -0,0 +1,14 @@
+package com.contoso.socialapp.event;
+
+import com.contoso.socialapp.dto.PostDto;
+import lombok.Value;
+
+/**
+ * Published when a post is created or its content is updated. {@code previousContent} is the
+ * content before an update, and null for a new post.
+ */
+@Value
+public class PostSavedEvent {
+    PostDto post;
+    String previousContent;
+}
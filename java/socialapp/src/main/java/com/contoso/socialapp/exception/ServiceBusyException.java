@@ -0,0 +1,7 @@
+package com.contoso.socialapp.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,203 @@
+package com.contoso.socialapp.feed;
+
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.event.PostCountersChangedEvent;
+import com.contoso.socialapp.event.PostDeletedEvent;
+import com.contoso.socialapp.event.PostSavedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Newest posts kept in memory so the first page of the feed can be served without touching the database.
+ *
+ * <p>Readers take a volatile, immutable snapshot; writers (post events, applied after commit)
+ * serialize on a lock and publish a fresh copy. The buffer starts cold and is filled by
+ * {@link #refill} on the first miss.</p>
+ */
+@Component
+@Slf4j
+public class HotFeed {
+    
+    private static final Comparator<PostDto> NEWEST_FIRST = Comparator
+            .comparing(PostDto::getCreatedAt)
+            .thenComparing(PostDto::getId)
+            .reversed();
+    
+    private final int capacity;
+    private final Object writeLock = new Object();
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    private volatile Snapshot snapshot = Snapshot.COLD;
+    
+    public HotFeed(@Value("${app.feed.hot.size:200}") int capacity, MeterRegistry meterRegistry) {
+        this.capacity = Math.max(capacity, 0);
+        FunctionCounter.builder("feed.hot.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("First-page feed requests served from memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("feed.hot.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("First-page feed requests that went to the database")
+                .register(meterRegistry);
+        Gauge.builder("feed.hot.hit.ratio", this, HotFeed::hitRatio)
+                .description("Share of first-page feed requests served from memory")
+                .register(meterRegistry);
+        Gauge.builder("feed.hot.size", this, feed -> feed.snapshot.posts.size())
+                .description("Posts currently held in the hot feed")
+                .register(meterRegistry);
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Returns the newest {@code count} posts if the buffer can answer authoritatively: either it holds
+     * at least that many, or it holds every post there is.
+     */
+    public Optional<List<PostDto>> head(int count) {
+        Snapshot current = snapshot;
+        if (current.loaded && (current.posts.size() >= count || current.complete)) {
+            hits.increment();
+            return Optional.of(current.posts.subList(0, Math.min(count, current.posts.size())));
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+    
+    /**
+     * Version to pass to {@link #refill}; take it before reading the newest posts from the database.
+     */
+    public long stamp() {
+        return version.get();
+    }
+    
+    /**
+     * Replaces the buffer with the newest posts read from the database, unless a write was applied
+     * since {@code stamp} was taken, in which case the read may be stale and is discarded.
+     */
+    public void refill(List<PostDto> newest, long stamp) {
+        if (capacity == 0) {
+            return;
+        }
+        List<PostDto> posts = List.copyOf(newest.subList(0, Math.min(newest.size(), capacity)));
+        synchronized (writeLock) {
+            if (version.get() != stamp) {
+                return;
+            }
+            snapshot = new Snapshot(posts, newest.size() < capacity, true);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostSaved(PostSavedEvent event) {
+        PostDto post = event.getPost();
+        synchronized (writeLock) {
+            version.incrementAndGet();
+            Snapshot current = snapshot;
+            if (!current.loaded) {
+                return;
+            }
+            List<PostDto> posts = new ArrayList<>(current.posts);
+            int index = indexOf(posts, post.getId());
+            if (index >= 0) {
+                posts.set(index, copyOf(post, post.getLikesCount(), post.getCommentsCount()));
+            } else if (current.complete || posts.isEmpty()
+                    || NEWEST_FIRST.compare(post, posts.get(posts.size() - 1)) < 0) {
+                posts.add(copyOf(post, post.getLikesCount(), post.getCommentsCount()));
+                posts.sort(NEWEST_FIRST);
+            } else {
+                return;
+            }
+            boolean complete = current.complete;
+            if (posts.size() > capacity) {
+                posts = posts.subList(0, capacity);
+                complete = false;
+            }
+            snapshot = new Snapshot(List.copyOf(posts), complete, true);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        synchronized (writeLock) {
+            version.incrementAndGet();
+            Snapshot current = snapshot;
+            int index = indexOf(current.posts, event.getPostId());
+            if (index < 0) {
+                return;
+            }
+            List<PostDto> posts = new ArrayList<>(current.posts);
+            posts.remove(index);
+            snapshot = new Snapshot(List.copyOf(posts), current.complete, true);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCountersChanged(PostCountersChangedEvent event) {
+        synchronized (writeLock) {
+            version.incrementAndGet();
+            Snapshot current = snapshot;
+            int index = indexOf(current.posts, event.getPostId());
+            if (index < 0) {
+                return;
+            }
+            List<PostDto> posts = new ArrayList<>(current.posts);
+            PostDto post = posts.get(index);
+            posts.set(index, copyOf(post,
+                    post.getLikesCount() + event.getLikesDelta(),
+                    post.getCommentsCount() + event.getCommentsDelta()));
+            snapshot = new Snapshot(List.copyOf(posts), current.complete, true);
+        }
+    }
+    
+    private double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+    
+    private static int indexOf(List<PostDto> posts, String postId) {
+        for (int i = 0; i < posts.size(); i++) {
+            if (posts.get(i).getId().equals(postId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    // PostDto is mutable and the one in an event was also handed to the caller; keep a private copy
+    private static PostDto copyOf(PostDto post, int likesCount, int commentsCount) {
+        return new PostDto(post.getId(), post.getUsername(), post.getContent(),
+                post.getCreatedAt(), post.getUpdatedAt(), likesCount, commentsCount);
+    }
+    
+    private static final class Snapshot {
+        
+        static final Snapshot COLD = new Snapshot(List.of(), false, false);
+        
+        final List<PostDto> posts;
+        final boolean complete;
+        final boolean loaded;
+        
+        Snapshot(List<PostDto> posts, boolean complete, boolean loaded) {
+            this.posts = posts;
+            this.complete = complete;
+            this.loaded = loaded;
+        }
+    }
+}
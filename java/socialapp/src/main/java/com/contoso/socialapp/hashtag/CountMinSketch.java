@@ -0,0 +1,98 @@
+package com.contoso.socialapp.hashtag;
+
+/**
+ * Count-Min sketch of string frequencies: {@code depth} rows of {@code width} counters, one counter
+ * per row for each item. Estimates never undercount; with conservative update an item is only
+ * overcounted by what collides with it in every row, on average at most e/width of the total.
+ * The row positions come from two halves of one 64-bit hash (Kirsch-Mitzenmacher). Not
+ * thread-safe.
+ */
+final class CountMinSketch {
+    
+    private final int depth;
+    private final int mask;
+    private final int[] counters;
+    
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Sketch width and depth must be positive: " + width + "x" + depth);
+        }
+        int rowWidth = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.mask = rowWidth - 1;
+        this.counters = new int[depth * rowWidth];
+    }
+    
+    /**
+     * Counts one occurrence, raising only the counters that sit at the current minimum.
+     *
+     * @return the item's estimate after counting it
+     */
+    int add(String item) {
+        long hash = hash(item);
+        int estimate = estimate(hash);
+        int raised = estimate + 1;
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            if (counters[index] < raised) {
+                counters[index] = raised;
+            }
+        }
+        return raised;
+    }
+    
+    int estimate(String item) {
+        return estimate(hash(item));
+    }
+    
+    /**
+     * Adds another sketch of the same shape counter by counter; estimates from the sum bound the
+     * items' combined counts.
+     */
+    void addAll(CountMinSketch other) {
+        if (other.counters.length != counters.length || other.depth != depth) {
+            throw new IllegalArgumentException("Sketches differ in shape");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+    }
+    
+    CountMinSketch copy() {
+        CountMinSketch copy = new CountMinSketch(mask + 1, depth);
+        System.arraycopy(counters, 0, copy.counters, 0, counters.length);
+        return copy;
+    }
+    
+    private int estimate(long hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[index(hash, row)]);
+        }
+        return estimate;
+    }
+    
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+    
+    // FNV-1a over the chars, finished with the MurmurHash3 mixer so both halves are well spread
+    private static long hash(String item) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < item.length(); i++) {
+            hash ^= item.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,61 @@
+package com.contoso.socialapp.hashtag;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Finds the hashtags in post content: a {@code #} that does not follow a letter, digit or
+ * underscore (so {@code C#} and {@code a#b} are not tags), then letters, digits and underscores
+ * with at least one letter among them ({@code #1} is not a tag either). Tags are lowercased and
+ * cut to {@link #MAX_LENGTH} characters.
+ */
+public final class Hashtags {
+    
+    public static final int MAX_LENGTH = 64;
+    
+    private Hashtags() {
+    }
+    
+    /**
+     * The distinct tags in the text, in order of first appearance.
+     */
+    public static Set<String> extract(String text) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (text == null) {
+            return tags;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int hash = text.indexOf('#', i);
+            if (hash < 0) {
+                break;
+            }
+            i = hash + 1;
+            if (hash > 0 && isTagChar(text.codePointBefore(hash))) {
+                continue;
+            }
+            StringBuilder tag = new StringBuilder();
+            boolean letter = false;
+            while (i < length) {
+                int codePoint = text.codePointAt(i);
+                if (!isTagChar(codePoint)) {
+                    break;
+                }
+                if (tag.length() < MAX_LENGTH) {
+                    tag.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+                letter |= Character.isLetter(codePoint);
+                i += Character.charCount(codePoint);
+            }
+            if (letter) {
+                tags.add(tag.toString());
+            }
+        }
+        return tags;
+    }
+    
+    private static boolean isTagChar(int codePoint) {
+        return codePoint == '_' || Character.isLetterOrDigit(codePoint);
+    }
+}
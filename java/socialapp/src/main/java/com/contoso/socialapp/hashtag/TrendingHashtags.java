@@ -0,0 +1,198 @@
+package com.contoso.socialapp.hashtag;
+
+import com.contoso.socialapp.dto.HashtagCount;
+import com.contoso.socialapp.dto.TrendingHashtagsResponse;
+import com.contoso.socialapp.event.PostSavedEvent;
+import com.contoso.socialapp.exception.InvalidRequestException;
+import com.contoso.socialapp.pagination.PageLimits;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * The hashtags mentioned most over a recent window, from a ring of time buckets. Each bucket holds
+ * a Count-Min sketch of the mentions in its time slot plus the slot's leading tags by estimate.
+ *
+ * <p>Memory is fixed by configuration, whatever the traffic: retention / bucket buckets, each one
+ * sketch and at most {@code candidates} leading tags. A bucket is taken over by a new time slot
+ * the first time a mention falls into it after its old slot has left the retention, so old
+ * mentions roll off without a sweeper. A query adds up the sketches of the buckets in the window
+ * and ranks the union of their leading tags by the summed estimate. Windows are rounded up to
+ * whole buckets and end with the current, partly filled one.</p>
+ *
+ * <p>A query only takes the monitor to pick up the window's buckets and sums them outside it, so
+ * mentions keep being recorded meanwhile. A new slot gets a new bucket, and a mention for a bucket
+ * a query picked up is counted in a copy of it, so a bucket never changes once a query holds it.</p>
+ *
+ * <p>A tag counts once per post. An edit counts only the tags the previous content did not have;
+ * removing a tag does not take its mention back.</p>
+ */
+@Component
+public class TrendingHashtags {
+    
+    private static final int DEFAULT_LIMIT = 10;
+    
+    private final long bucketMillis;
+    private final int sketchWidth;
+    private final int sketchDepth;
+    private final int candidates;
+    private final LongSupplier clock;
+    private final Bucket[] buckets;
+    
+    @Autowired
+    public TrendingHashtags(@Value("${app.hashtags.trending.bucket:PT5M}") Duration bucket,
+                            @Value("${app.hashtags.trending.retention:PT24H}") Duration retention,
+                            @Value("${app.hashtags.trending.sketch-width:1024}") int sketchWidth,
+                            @Value("${app.hashtags.trending.sketch-depth:4}") int sketchDepth,
+                            @Value("${app.hashtags.trending.candidates:50}") int candidates) {
+        this(bucket, retention, sketchWidth, sketchDepth, candidates, System::currentTimeMillis);
+    }
+    
+    TrendingHashtags(Duration bucket, Duration retention, int sketchWidth, int sketchDepth, int candidates,
+                     LongSupplier clock) {
+        if (bucket.toMillis() <= 0 || retention.compareTo(bucket) < 0) {
+            throw new IllegalArgumentException("app.hashtags.trending.bucket must be positive and no longer than "
+                    + "the retention: " + bucket + ", " + retention);
+        }
+        if (candidates < 1) {
+            throw new IllegalArgumentException("app.hashtags.trending.candidates must be positive: " + candidates);
+        }
+        this.bucketMillis = bucket.toMillis();
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+        this.candidates = candidates;
+        this.clock = clock;
+        this.buckets = new Bucket[(int) Math.ceilDiv(retention.toMillis(), bucketMillis)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket(Long.MIN_VALUE, new CountMinSketch(sketchWidth, sketchDepth), candidates);
+        }
+    }
+    
+    /**
+     * The most mentioned tags over the window ending now, most mentioned first.
+     *
+     * @param window a duration such as {@code 1h}, {@code 30m} or {@code PT6H}, at most the retention
+     */
+    public TrendingHashtagsResponse trending(String window, Integer limit) {
+        Duration requested;
+        try {
+            requested = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("window must be a duration such as 1h, 30m or PT6H");
+        }
+        long retentionMillis = bucketMillis * buckets.length;
+        if (requested.isNegative() || requested.isZero() || requested.toMillis() > retentionMillis) {
+            throw new InvalidRequestException("window must be positive and at most " + Duration.ofMillis(retentionMillis));
+        }
+        int count = PageLimits.resolve(limit, DEFAULT_LIMIT, candidates);
+        int span = (int) Math.ceilDiv(requested.toMillis(), bucketMillis);
+        return new TrendingHashtagsResponse(Duration.ofMillis(span * bucketMillis).toString(), top(span, count));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostSaved(PostSavedEvent event) {
+        Set<String> tags = Hashtags.extract(event.getPost().getContent());
+        if (event.getPreviousContent() != null) {
+            tags.removeAll(Hashtags.extract(event.getPreviousContent()));
+        }
+        if (!tags.isEmpty()) {
+            record(tags);
+        }
+    }
+    
+    synchronized void record(Set<String> tags) {
+        long slot = clock.getAsLong() / bucketMillis;
+        int index = (int) Math.floorMod(slot, buckets.length);
+        Bucket bucket = buckets[index];
+        // A clock stepping back keeps counting into the newer slot rather than wiping it
+        if (bucket.slot < slot) {
+            bucket = new Bucket(slot, new CountMinSketch(sketchWidth, sketchDepth), candidates);
+            buckets[index] = bucket;
+        } else if (bucket.shared) {
+            bucket = bucket.copy();
+            buckets[index] = bucket;
+        }
+        tags.forEach(bucket::add);
+    }
+    
+    List<HashtagCount> top(int span, int limit) {
+        List<Bucket> inWindow = new ArrayList<>(span);
+        synchronized (this) {
+            long current = clock.getAsLong() / bucketMillis;
+            for (long slot = current - span + 1; slot <= current; slot++) {
+                Bucket bucket = buckets[(int) Math.floorMod(slot, buckets.length)];
+                // A bucket still holding an older slot has rolled off
+                if (bucket.slot == slot) {
+                    bucket.shared = true;
+                    inWindow.add(bucket);
+                }
+            }
+        }
+        
+        CountMinSketch window = new CountMinSketch(sketchWidth, sketchDepth);
+        Set<String> tags = new HashSet<>();
+        for (Bucket bucket : inWindow) {
+            window.addAll(bucket.sketch);
+            tags.addAll(bucket.leaders.keySet());
+        }
+        return tags.stream()
+                .map(tag -> new HashtagCount(tag, window.estimate(tag)))
+                .sorted(Comparator.comparingInt(HashtagCount::getCount).reversed()
+                        .thenComparing(HashtagCount::getTag))
+                .limit(limit)
+                .toList();
+    }
+    
+    private static final class Bucket {
+        
+        private final long slot;
+        private final CountMinSketch sketch;
+        private final int capacity;
+        // The slot's leading tags and their estimates as of their last mention
+        private final Map<String, Integer> leaders = new HashMap<>();
+        // Set once a query has picked the bucket up; guarded by the TrendingHashtags monitor
+        private boolean shared;
+        
+        private Bucket(long slot, CountMinSketch sketch, int capacity) {
+            this.slot = slot;
+            this.sketch = sketch;
+            this.capacity = capacity;
+        }
+        
+        private Bucket copy() {
+            Bucket copy = new Bucket(slot, sketch.copy(), capacity);
+            copy.leaders.putAll(leaders);
+            return copy;
+        }
+        
+        private void add(String tag) {
+            int estimate = sketch.add(tag);
+            if (leaders.containsKey(tag) || leaders.size() < capacity) {
+                leaders.put(tag, estimate);
+                return;
+            }
+            Map.Entry<String, Integer> weakest = null;
+            for (Map.Entry<String, Integer> leader : leaders.entrySet()) {
+                if (weakest == null || leader.getValue() < weakest.getValue()) {
+                    weakest = leader;
+                }
+            }
+            if (estimate > weakest.getValue()) {
+                leaders.remove(weakest.getKey());
+                leaders.put(tag, estimate);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.contoso.socialapp.id;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style post and comment IDs: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of
+ * node id and a 12-bit per-millisecond sequence.
+ *
+ * <p>IDs are rendered as fixed-width, zero-padded decimals, so string order is creation order and
+ * they can serve as the keyset tiebreaker next to {@code createdAt}. Generation is a single CAS on
+ * the last (timestamp, sequence) pair; if the clock steps backwards, or more than 4096 IDs are
+ * asked for in one millisecond, the generator keeps counting from where it was instead of
+ * waiting or reusing a value.</p>
+ */
+@Component
+public class IdGenerator {
+    
+    public static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+    public static final int WIDTH = 19;
+    
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    
+    private final long node;
+    private final LongSupplier clock;
+    // (millis since EPOCH << SEQUENCE_BITS) | sequence of the last ID handed out
+    private final AtomicLong last = new AtomicLong();
+    
+    @Autowired
+    public IdGenerator(@Value("${app.ids.node-id:0}") int node) {
+        this(node, System::currentTimeMillis);
+    }
+    
+    IdGenerator(int node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("app.ids.node-id must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+        this.clock = clock;
+    }
+    
+    public String nextId() {
+        return format(next());
+    }
+    
+    long next() {
+        long floor = (clock.getAsLong() - EPOCH.toEpochMilli()) << SEQUENCE_BITS;
+        long state = last.updateAndGet(previous -> Math.max(floor, previous + 1));
+        long millis = state >>> SEQUENCE_BITS;
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+    
+    static String format(long id) {
+        String digits = Long.toString(id);
+        return "0".repeat(WIDTH - digits.length()) + digits;
+    }
+}
@@ -0,0 +1,73 @@
+package com.contoso.socialapp.like;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Bloom filter with a counter per slot instead of a bit, so keys can be removed again.
+ * Answers are "definitely absent" or "maybe present"; removing a key that was never added
+ * can turn another key's answer into a false negative, so callers must only remove what they added.
+ */
+final class CountingBloomFilter {
+    
+    private final AtomicIntegerArray counters;
+    private final int hashCount;
+    
+    CountingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(expectedInsertions, 1);
+        double ln2 = Math.log(2);
+        long slots = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.counters = new AtomicIntegerArray((int) Math.min(Math.max(slots, 64), Integer.MAX_VALUE - 8));
+        this.hashCount = Math.max(1, (int) Math.round((double) counters.length() / n * ln2));
+    }
+    
+    void add(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            counters.incrementAndGet(slot(h1, h2, i));
+        }
+    }
+    
+    void remove(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            counters.getAndUpdate(slot(h1, h2, i), count -> count > 0 ? count - 1 : 0);
+        }
+    }
+    
+    boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            if (counters.get(slot(h1, h2, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private int slot(long h1, long h2, int i) {
+        return (int) Math.floorMod(h1 + i * h2, (long) counters.length());
+    }
+    
+    // FNV-1a over the UTF-16 code units, finished with a 64-bit avalanche mix
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            h = (h ^ (c & 0xff)) * 0x100000001b3L;
+            h = (h ^ (c >>> 8)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+    
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,382 @@
+package com.contoso.socialapp.like;
+
+import com.contoso.socialapp.entity.Like;
+import com.contoso.socialapp.entity.LikeId;
+import com.contoso.socialapp.event.LikeAddedEvent;
+import com.contoso.socialapp.event.LikeRemovedEvent;
+import com.contoso.socialapp.event.PostCountersChangedEvent;
+import com.contoso.socialapp.exception.ServiceBusyException;
+import com.contoso.socialapp.store.LikeStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional write-behind mode for likes. Like and unlike calls only record the desired state of
+ * (postId, userId) in memory; a single flusher thread writes the accumulated changes in one
+ * transaction per batch, either every flush interval or as soon as a full batch is waiting. Once
+ * max-pending entries are waiting, operations that would add another are rejected with
+ * {@link ServiceBusyException} until the flusher catches up.
+ *
+ * <p>An operation that puts a pair back into its stored state cancels the buffered entry, so a
+ * like/unlike storm on one post costs at most one row change per user. Entries being written move
+ * to an in-flight map that still answers lookups until the transaction commits. The likes count is
+ * not touched here: accepted operations feed {@link LikeCounters} straight away, which persists
+ * the counts on its own checkpoint.</p>
+ *
+ * <p>A batch that keeps failing is retried max-attempts times, then written one entry per
+ * transaction. Entries that still fail are dead-lettered: logged, counted and dropped, with their
+ * change taken back out of the live likes count.</p>
+ */
+@Component
+@Slf4j
+public class LikeBuffer {
+    
+    private final boolean enabled;
+    private final int maxPending;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final StoredLikes storedLikes;
+    private final LikeStore likeStore;
+    private final LikeCounters likeCounters;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService flusher;
+    
+    private final ConcurrentHashMap<LikeId, PendingLike> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LikeId, PendingLike> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Bumped whenever in-flight entries are done with, so a stored state read before then is known to be stale
+    private final AtomicLong flushes = new AtomicLong();
+    private final Counter deadLetters;
+    private int failedAttempts;
+    
+    public LikeBuffer(@Value("${app.likes.write-behind.enabled:false}") boolean enabled,
+                      @Value("${app.likes.write-behind.max-pending:1000}") int maxPending,
+                      @Value("${app.likes.write-behind.batch-size:500}") int batchSize,
+                      @Value("${app.likes.write-behind.flush-interval:PT1S}") Duration flushInterval,
+                      @Value("${app.likes.write-behind.max-attempts:5}") int maxAttempts,
+                      StoredLikes storedLikes,
+                      LikeStore likeStore,
+                      LikeCounters likeCounters,
+                      ApplicationEventPublisher eventPublisher,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxPending = Math.max(maxPending, 1);
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.storedLikes = storedLikes;
+        this.likeStore = likeStore;
+        this.likeCounters = likeCounters;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        
+        if (enabled) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "like-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = flushInterval.toMillis();
+            flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+        
+        Gauge.builder("likes.buffer.pending", this, buffer -> buffer.pending.size() + buffer.inFlight.size())
+                .description("Like and unlike operations accepted but not yet written to the database")
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("likes.buffer.dead.letters")
+                .description("Buffered like and unlike operations dropped after every write attempt failed")
+                .register(meterRegistry);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * @return false when the user already likes the post, counting buffered operations
+     * @throws ServiceBusyException when the like would have to wait behind max-pending others
+     */
+    public boolean like(String postId, int userId, long likedAt) {
+        return apply(new LikeId(postId, userId), new PendingLike(true, likedAt));
+    }
+    
+    /**
+     * @return true when a like, stored or buffered, was removed
+     * @throws ServiceBusyException when the unlike would have to wait behind max-pending others
+     */
+    public boolean unlike(String postId, int userId) {
+        return apply(new LikeId(postId, userId), new PendingLike(false, 0));
+    }
+    
+    /**
+     * Buffered target state of the pair, or null when nothing is pending and the table is authoritative.
+     */
+    public Boolean pendingState(String postId, int userId) {
+        LikeId key = new LikeId(postId, userId);
+        PendingLike operation = pending.get(key);
+        if (operation == null) {
+            operation = inFlight.get(key);
+        }
+        return operation == null ? null : operation.liked;
+    }
+    
+    /**
+     * Net change the buffered and in-flight operations will make to the post's stored likes.
+     */
+    public int pendingChange(String postId) {
+        int change = 0;
+        for (Map<LikeId, PendingLike> operations : List.of(pending, inFlight)) {
+            for (Map.Entry<LikeId, PendingLike> entry : operations.entrySet()) {
+                if (entry.getKey().getPostId().equals(postId)) {
+                    change += entry.getValue().liked ? 1 : -1;
+                }
+            }
+        }
+        return change;
+    }
+    
+    /**
+     * Posts with buffered or in-flight operations.
+     */
+    public Set<String> pendingPosts() {
+        Set<String> posts = new HashSet<>();
+        pending.keySet().forEach(key -> posts.add(key.getPostId()));
+        inFlight.keySet().forEach(key -> posts.add(key.getPostId()));
+        return posts;
+    }
+    
+    private boolean apply(LikeId key, PendingLike operation) {
+        while (true) {
+            // Looked up before compute: it can query the store, which must not run under the map's bin lock
+            long flushesBefore = flushes.get();
+            boolean stored = storedLikes.existsConfirmed(key.getPostId(), key.getUserId());
+            Outcome[] outcome = new Outcome[1];
+            pending.compute(key, (k, current) -> {
+                if (current != null) {
+                    // A buffered entry always differs from the stored state, so the opposite
+                    // operation restores it and cancels the entry
+                    outcome[0] = current.liked == operation.liked ? Outcome.UNCHANGED : Outcome.CHANGED;
+                    return outcome[0] == Outcome.UNCHANGED ? current : null;
+                }
+                PendingLike flushing = inFlight.get(k);
+                if (flushing == null && flushes.get() != flushesBefore) {
+                    outcome[0] = Outcome.STALE;
+                    return null;
+                }
+                if ((flushing != null ? flushing.liked : stored) == operation.liked) {
+                    outcome[0] = Outcome.UNCHANGED;
+                    return null;
+                }
+                if (pending.size() >= maxPending) {
+                    outcome[0] = Outcome.REJECTED;
+                    return null;
+                }
+                outcome[0] = Outcome.CHANGED;
+                return operation;
+            });
+            
+            switch (outcome[0]) {
+                case CHANGED -> {
+                    if (pending.size() >= batchSize) {
+                        requestFlush();
+                    }
+                    return true;
+                }
+                case UNCHANGED -> {
+                    return false;
+                }
+                case REJECTED -> {
+                    requestFlush();
+                    throw new ServiceBusyException("Too many likes are waiting to be written; try again shortly");
+                }
+                case STALE -> {
+                    // A flush finished after the stored state was read; read it again
+                }
+            }
+        }
+    }
+    
+    private void requestFlush() {
+        if (flusher != null && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} buffered likes (attempt {} of {})", inFlight.size(), failedAttempts, maxAttempts, e);
+        }
+    }
+    
+    /**
+     * Writes up to one batch of buffered operations. A batch that fails stays in flight and is
+     * retried before any newer entries are taken; after max-attempts failures its entries are
+     * written one at a time and the ones that still fail are dead-lettered.
+     */
+    public synchronized void flush() {
+        // Entries moving between the maps and into the table are reported as like changes, so a
+        // recount taken meanwhile is not trusted
+        List<String> changing = new ArrayList<>();
+        try {
+            if (inFlight.isEmpty()) {
+                for (LikeId key : pending.keySet()) {
+                    if (inFlight.size() >= batchSize) {
+                        break;
+                    }
+                    pending.computeIfPresent(key, (k, operation) -> {
+                        likeCounters.beginChange(k.getPostId());
+                        changing.add(k.getPostId());
+                        inFlight.put(k, operation);
+                        return null;
+                    });
+                }
+            } else {
+                for (LikeId key : inFlight.keySet()) {
+                    likeCounters.beginChange(key.getPostId());
+                    changing.add(key.getPostId());
+                }
+            }
+            if (inFlight.isEmpty()) {
+                return;
+            }
+            
+            Map<LikeId, PendingLike> batch = Map.copyOf(inFlight);
+            try {
+                write(batch);
+                failedAttempts = 0;
+            } catch (RuntimeException e) {
+                if (++failedAttempts < maxAttempts) {
+                    throw e;
+                }
+                failedAttempts = 0;
+                log.error("Batch of {} buffered likes failed {} times; writing its entries one at a time",
+                        batch.size(), maxAttempts, e);
+                batch.forEach(this::writeOrDeadLetter);
+            }
+        } finally {
+            changing.forEach(likeCounters::endChange);
+        }
+        
+        if (pending.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+    
+    private void writeOrDeadLetter(LikeId key, PendingLike operation) {
+        try {
+            write(Map.of(key, operation));
+        } catch (RuntimeException e) {
+            log.error("Dead-lettering buffered {} of post {} by user {}", operation.liked ? "like" : "unlike",
+                    key.getPostId(), key.getUserId(), e);
+            deadLetters.increment();
+            inFlight.remove(key);
+            flushes.incrementAndGet();
+            // The change was counted when it was accepted
+            eventPublisher.publishEvent(new PostCountersChangedEvent(key.getPostId(), operation.liked ? -1 : 1, 0));
+        }
+    }
+    
+    private void write(Map<LikeId, PendingLike> batch) {
+        List<Like> inserts = new ArrayList<>();
+        List<LikeId> deletes = new ArrayList<>();
+        batch.forEach((key, operation) -> {
+            if (operation.liked) {
+                inserts.add(new Like(key.getPostId(), key.getUserId(), operation.likedAt, null));
+            } else {
+                deletes.add(key);
+            }
+        });
+        
+        int[][] counts = transactionTemplate.execute(status -> new int[][]{
+                likeStore.insertAll(inserts),
+                likeStore.deleteAll(deletes)
+        });
+        
+        // Announce only rows that really changed; the Bloom filter must never remove a pair it never saw
+        for (int i = 0; i < inserts.size(); i++) {
+            if (counts[0][i] > 0) {
+                eventPublisher.publishEvent(new LikeAddedEvent(inserts.get(i).getPostId(), inserts.get(i).getUserId()));
+            }
+        }
+        for (int i = 0; i < deletes.size(); i++) {
+            if (counts[1][i] > 0) {
+                eventPublisher.publishEvent(new LikeRemovedEvent(deletes.get(i).getPostId(), deletes.get(i).getUserId()));
+            }
+        }
+        batch.keySet().forEach(inFlight::remove);
+        flushes.incrementAndGet();
+        log.debug("Flushed {} buffered likes ({} inserts, {} deletes)", batch.size(), inserts.size(), deletes.size());
+    }
+    
+    /**
+     * Writes batches until nothing is buffered or in flight.
+     */
+    public void flushAll() {
+        while (!pending.isEmpty() || !inFlight.isEmpty()) {
+            flush();
+        }
+    }
+    
+    @PreDestroy
+    void drain() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            log.error("Dropping {} buffered likes that could not be written on shutdown",
+                    pending.size() + inFlight.size(), e);
+        }
+    }
+    
+    private enum Outcome {
+        CHANGED,
+        UNCHANGED,
+        REJECTED,
+        // The stored state was read before a flush finished and may be out of date
+        STALE
+    }
+    
+    private static final class PendingLike {
+        
+        private final boolean liked;
+        private final long likedAt;
+        
+        private PendingLike(boolean liked, long likedAt) {
+            this.liked = liked;
+            this.likedAt = likedAt;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.contoso.socialapp.like;
+
+import com.contoso.socialapp.config.CacheConfig;
+import com.contoso.socialapp.event.PostCountersChangedEvent;
+import com.contoso.socialapp.event.PostDeletedEvent;
+import com.contoso.socialapp.store.PostStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Live likes counts kept as striped {@link LongAdder} cells per post, so a burst of likes on one
+ * post does not serialize on the post row or on a single map entry. Each cell holds the change
+ * not yet written to {@code posts.likesCount}; {@link #checkpoint} persists it periodically.
+ *
+ * <p>Cells stay in the map once created (removing them could lose a concurrent add); a cell
+ * is only dropped when its post is deleted.</p>
+ *
+ * <p>A checkpoint commits the column and subtracts what it wrote from the cells under a write
+ * lock; reads that add cells to stored counts go through {@link #read} under the matching read
+ * lock, so they never see a change in both places or in neither. With the jpa engine the lock is
+ * only taken for the commit itself, so reads do not wait while the checkpoint waits for the writer
+ * connection or runs its updates. Like changes register through
+ * {@link #trackChange} until their transaction completes, which lets {@link #drift} tell a
+ * settled recount from one that raced a like.</p>
+ */
+@Component
+@Slf4j
+public class LikeCounters {
+    
+    private final ConcurrentHashMap<String, Cell> cells = new ConcurrentHashMap<>();
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final PostStore postStore;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final boolean transactionalStore;
+    
+    public LikeCounters(PostStore postStore,
+                        PlatformTransactionManager transactionManager,
+                        CacheManager cacheManager,
+                        @Value("${app.storage.engine:jpa}") String storageEngine) {
+        this.postStore = postStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.transactionalStore = "jpa".equals(storageEngine);
+    }
+    
+    /**
+     * Current likes count for a post whose stored column value is {@code storedCount}.
+     */
+    public int likesCount(String postId, int storedCount) {
+        Cell cell = cells.get(postId);
+        return cell == null ? storedCount : (int) (storedCount + cell.delta.sum());
+    }
+    
+    /**
+     * Runs a read of stored likes counts, together with the {@link #likesCount} calls on them, so
+     * that no checkpoint falls in between. Inside a write transaction the read runs unguarded: a
+     * waiting checkpoint would in turn wait for the writer connection that transaction holds.
+     */
+    public <T> T read(Supplier<T> read) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return read.get();
+        }
+        Lock lock = checkpointLock.readLock();
+        lock.lock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void add(String postId, int delta) {
+        cell(postId).delta.add(delta);
+    }
+    
+    /**
+     * Marks a change to the post's likes as under way until the current transaction completes,
+     * by which time its counter event has been applied. Call before touching the likes.
+     */
+    public void trackChange(String postId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Like changes must run in a transaction");
+        }
+        beginChange(postId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                endChange(postId);
+            }
+        });
+    }
+    
+    // Counted inside compute so drift cannot drop the cell of a post whose change is starting
+    public void beginChange(String postId) {
+        cells.compute(postId, (id, cell) -> {
+            Cell current = cell == null ? new Cell() : cell;
+            current.changesInFlight.incrementAndGet();
+            return current;
+        });
+    }
+    
+    public void endChange(String postId) {
+        Cell cell = cells.get(postId);
+        if (cell != null) {
+            cell.changesDone.incrementAndGet();
+            cell.changesInFlight.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Posts whose cells hold changes not yet checkpointed.
+     */
+    public List<String> changedPosts() {
+        return cells.entrySet().stream()
+                .filter(entry -> entry.getValue().delta.sum() != 0)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+    
+    /**
+     * How far the post's live likes count is from a recount, or empty when the post is gone or a
+     * like change on it overlapped the recount, which could then disagree with the counter for no
+     * lasting reason. Runs under the checkpoint monitor, so the stored count and the cell are read
+     * on the same side of a checkpoint.
+     *
+     * @param recount the likes the post has, including changes accepted but not yet stored
+     * @param storedCount the post's {@code likesCount} column, empty when the post does not exist
+     */
+    public synchronized OptionalInt drift(String postId, IntSupplier recount, Supplier<Optional<Integer>> storedCount) {
+        Cell cell = cell(postId);
+        long doneBefore = cell.changesDone.get();
+        if (cell.changesInFlight.get() > 0) {
+            return OptionalInt.empty();
+        }
+        int actual = recount.getAsInt();
+        Optional<Integer> stored = storedCount.get();
+        long pending = cell.delta.sum();
+        if (stored.isEmpty()) {
+            // Do not leave a cell behind for a deleted post
+            cells.computeIfPresent(postId, (id, current) ->
+                    current == cell && current.changesInFlight.get() == 0 ? null : current);
+            return OptionalInt.empty();
+        }
+        if (cell.changesInFlight.get() > 0 || cell.changesDone.get() != doneBefore) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of((int) (actual - (stored.get() + pending)));
+    }
+    
+    // Applied after commit so a rolled-back like never shows up in the live count, and ahead of
+    // the trackChange callback so the change is counted before it is reported done
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCountersChanged(PostCountersChangedEvent event) {
+        if (event.getLikesDelta() != 0) {
+            add(event.getPostId(), event.getLikesDelta());
+            evict(event.getPostId());
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        cells.remove(event.getPostId());
+    }
+    
+    /**
+     * Writes the accumulated changes to the post rows in one transaction. Only the amount that was
+     * written is subtracted afterwards, so likes arriving during the checkpoint are kept.
+     */
+    @Scheduled(fixedDelayString = "${app.likes.counters.checkpoint-interval:PT5S}")
+    public synchronized void checkpoint() {
+        Map<String, Long> snapshot = new HashMap<>();
+        cells.forEach((postId, cell) -> {
+            long sum = cell.delta.sum();
+            if (sum != 0) {
+                snapshot.put(postId, sum);
+            }
+        });
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            CheckpointCommit commit = new CheckpointCommit(snapshot);
+            TransactionSynchronizationManager.registerSynchronization(commit);
+            if (!transactionalStore) {
+                // The memory and journal stores show each adjustment at once, not on commit
+                commit.lock();
+            }
+            snapshot.forEach((postId, sum) -> postStore.adjustLikesCount(postId, Math.toIntExact(sum)));
+        });
+        snapshot.keySet().forEach(this::evict);
+        log.debug("Checkpointed likes counts for {} posts", snapshot.size());
+    }
+    
+    @PreDestroy
+    void drain() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            log.error("Failed to checkpoint likes counts on shutdown", e);
+        }
+    }
+    
+    private Cell cell(String postId) {
+        return cells.computeIfAbsent(postId, id -> new Cell());
+    }
+    
+    private void evict(String postId) {
+        Cache posts = cacheManager.getCache(CacheConfig.POSTS);
+        if (posts != null) {
+            posts.evict(postId);
+        }
+    }
+    
+    /**
+     * Holds the checkpoint's write lock from just before its commit, and subtracts what was
+     * written from the cells if the commit went through.
+     */
+    private final class CheckpointCommit implements TransactionSynchronization {
+        
+        private final Map<String, Long> written;
+        private final Lock lock = checkpointLock.writeLock();
+        private boolean locked;
+        
+        private CheckpointCommit(Map<String, Long> written) {
+            this.written = written;
+        }
+        
+        private void lock() {
+            if (!locked) {
+                lock.lock();
+                locked = true;
+            }
+        }
+        
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            lock();
+        }
+        
+        @Override
+        public void afterCompletion(int status) {
+            if (!locked) {
+                return;
+            }
+            try {
+                if (status == STATUS_COMMITTED) {
+                    written.forEach((postId, sum) -> {
+                        Cell cell = cells.get(postId);
+                        if (cell != null) {
+                            cell.delta.add(-sum);
+                        }
+                    });
+                }
+            } finally {
+                locked = false;
+                lock.unlock();
+            }
+        }
+    }
+    
+    private static final class Cell {
+        
+        private final LongAdder delta = new LongAdder();
+        private final AtomicInteger changesInFlight = new AtomicInteger();
+        private final AtomicLong changesDone = new AtomicLong();
+    }
+}
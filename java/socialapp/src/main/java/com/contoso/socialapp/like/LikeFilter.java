@@ -0,0 +1,164 @@
+package com.contoso.socialapp.like;
+
+import com.contoso.socialapp.event.LikeAddedEvent;
+import com.contoso.socialapp.event.LikeRemovedEvent;
+import com.contoso.socialapp.store.LikeStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Counting Bloom filter over every (postId, userId) pair in the likes table, used to skip the
+ * existence query for first-time likes. A "maybe" answer still goes to the database, and the
+ * insert relies on the primary key, so a stale filter can only cost an extra query.
+ *
+ * <p>The filter is built from the table once the application is ready and rebuilt on an interval
+ * to shed slots left behind by deletes it did not see. Until the first build finishes every
+ * check goes to the database. While a rebuild is scanning, adds go to both filters and removes
+ * only to the live one: a remove racing the scan could otherwise decrement slots the new filter
+ * never received. Adds and the swap to the new filter share a lock, so no add can land in the old
+ * filter only.</p>
+ */
+@Component
+@Slf4j
+public class LikeFilter {
+    
+    private final boolean enabled;
+    private final long expectedLikes;
+    private final double falsePositiveRate;
+    private final LikeStore likeStore;
+    
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder positives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final Object swapLock = new Object();
+    
+    private volatile CountingBloomFilter filter;
+    private volatile CountingBloomFilter building;
+    
+    public LikeFilter(@Value("${app.likes.filter.enabled:true}") boolean enabled,
+                      @Value("${app.likes.filter.expected-likes:100000}") long expectedLikes,
+                      @Value("${app.likes.filter.false-positive-rate:0.01}") double falsePositiveRate,
+                      LikeStore likeStore,
+                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.expectedLikes = expectedLikes;
+        this.falsePositiveRate = falsePositiveRate;
+        this.likeStore = likeStore;
+        
+        FunctionCounter.builder("likes.filter.checks", negatives, LongAdder::sum)
+                .tag("result", "absent")
+                .description("Already-liked checks answered by the filter without a query")
+                .register(meterRegistry);
+        FunctionCounter.builder("likes.filter.checks", positives, LongAdder::sum)
+                .tag("result", "maybe")
+                .description("Already-liked checks the filter passed on to the database")
+                .register(meterRegistry);
+        Gauge.builder("likes.filter.false.positive.ratio", this, LikeFilter::observedFalsePositiveRate)
+                .description("Share of absent pairs the filter reported as maybe present")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Whether the user likes the post according to the database, consulting it only when the
+     * filter cannot rule the pair out.
+     */
+    public boolean contains(String postId, int userId, BooleanSupplier databaseCheck) {
+        CountingBloomFilter current = filter;
+        if (current == null) {
+            return databaseCheck.getAsBoolean();
+        }
+        if (!current.mightContain(key(postId, userId))) {
+            negatives.increment();
+            return false;
+        }
+        positives.increment();
+        boolean exists = databaseCheck.getAsBoolean();
+        if (!exists) {
+            falsePositives.increment();
+        }
+        return exists;
+    }
+    
+    // Both listeners run after commit; decrementing for a delete that rolls back would leave the pair under-counted
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikeAdded(LikeAddedEvent event) {
+        added(event.getPostId(), event.getUserId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikeRemoved(LikeRemovedEvent event) {
+        removed(event.getPostId(), event.getUserId());
+    }
+    
+    private void added(String postId, int userId) {
+        String key = key(postId, userId);
+        synchronized (swapLock) {
+            if (filter != null) {
+                filter.add(key);
+            }
+            if (building != null) {
+                building.add(key);
+            }
+        }
+    }
+    
+    private void removed(String postId, int userId) {
+        CountingBloomFilter current = filter;
+        if (current != null) {
+            current.remove(key(postId, userId));
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.likes.filter.rebuild-interval:PT6H}",
+               initialDelayString = "${app.likes.filter.rebuild-interval:PT6H}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long rows = likeStore.count();
+        // Leave headroom so the rate holds until the next rebuild
+        CountingBloomFilter next = new CountingBloomFilter(Math.max(expectedLikes, rows * 2), falsePositiveRate);
+        synchronized (swapLock) {
+            building = next;
+        }
+        try {
+            likeStore.forEach((postId, userId) -> next.add(key(postId, userId)));
+        } catch (RuntimeException e) {
+            synchronized (swapLock) {
+                building = null;
+            }
+            throw e;
+        }
+        synchronized (swapLock) {
+            filter = next;
+            building = null;
+        }
+        log.info("Rebuilt like filter from {} likes", rows);
+    }
+    
+    private double observedFalsePositiveRate() {
+        long fp = falsePositives.sum();
+        long absent = negatives.sum() + fp;
+        return absent == 0 ? 0.0 : (double) fp / absent;
+    }
+    
+    private static String key(String postId, int userId) {
+        return postId + '\u0000' + userId;
+    }
+}
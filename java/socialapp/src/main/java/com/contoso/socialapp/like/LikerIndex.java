@@ -0,0 +1,176 @@
+package com.contoso.socialapp.like;
+
+import com.contoso.socialapp.event.LikeAddedEvent;
+import com.contoso.socialapp.event.LikeRemovedEvent;
+import com.contoso.socialapp.event.PostDeletedEvent;
+import com.contoso.socialapp.store.LikeStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every post's likers as a compressed Roaring bitmap of user IDs, mirroring the likes table, so
+ * membership, counts and intersections are answered from memory.
+ *
+ * <p>Bitmaps are not thread-safe; each one is read and written under its own monitor. Changes
+ * arrive as committed {@link LikeAddedEvent}s and {@link LikeRemovedEvent}s.</p>
+ *
+ * <p>The snapshot file doubles as a clean-shutdown marker: it is written only on shutdown, once
+ * the likes have stopped changing, and deleted as soon as it has been read at startup. A snapshot
+ * found at startup therefore matches the table as the last run left it, and a run that crashed
+ * leaves none behind, so the next start rebuilds the index with a table scan. The snapshot's total
+ * must also match the likes table, which catches most changes made while the service was down.</p>
+ */
+@Component
+@Slf4j
+public class LikerIndex {
+    
+    private final boolean enabled;
+    private final Path snapshotPath;
+    private final LikeStore likeStore;
+    
+    private final ConcurrentHashMap<String, RoaringBitmap> likers = new ConcurrentHashMap<>();
+    
+    public LikerIndex(@Value("${app.likes.likers.enabled:true}") boolean enabled,
+                      @Value("${app.likes.likers.snapshot-path:likers.snapshot}") String snapshotPath,
+                      LikeStore likeStore) {
+        this.enabled = enabled;
+        this.snapshotPath = Path.of(snapshotPath);
+        this.likeStore = likeStore;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public boolean contains(String postId, int userId) {
+        RoaringBitmap bitmap = likers.get(postId);
+        if (bitmap == null) {
+            return false;
+        }
+        synchronized (bitmap) {
+            return bitmap.contains(userId);
+        }
+    }
+    
+    public int count(String postId) {
+        RoaringBitmap bitmap = likers.get(postId);
+        if (bitmap == null) {
+            return 0;
+        }
+        synchronized (bitmap) {
+            return bitmap.getCardinality();
+        }
+    }
+    
+    /**
+     * The subset of {@code userIds} that like the post, in ascending order.
+     */
+    public int[] likedBy(String postId, int[] userIds) {
+        RoaringBitmap bitmap = likers.get(postId);
+        if (bitmap == null) {
+            return new int[0];
+        }
+        RoaringBitmap candidates = RoaringBitmap.bitmapOf(userIds);
+        synchronized (bitmap) {
+            return RoaringBitmap.and(bitmap, candidates).toArray();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikeAdded(LikeAddedEvent event) {
+        if (enabled) {
+            RoaringBitmap bitmap = likers.computeIfAbsent(event.getPostId(), id -> new RoaringBitmap());
+            synchronized (bitmap) {
+                bitmap.add(event.getUserId());
+            }
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikeRemoved(LikeRemovedEvent event) {
+        RoaringBitmap bitmap = likers.get(event.getPostId());
+        if (bitmap != null) {
+            synchronized (bitmap) {
+                bitmap.remove(event.getUserId());
+            }
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        likers.remove(event.getPostId());
+    }
+    
+    // Runs before the web server accepts requests, so no like can race the load
+    @PostConstruct
+    void load() {
+        if (!enabled) {
+            return;
+        }
+        long rows = likeStore.count();
+        if (restore(rows)) {
+            return;
+        }
+        likeStore.forEach((postId, userId) -> likers
+                .computeIfAbsent(postId, id -> new RoaringBitmap())
+                .add(userId));
+        likers.values().forEach(RoaringBitmap::runOptimize);
+        log.info("Built liker index for {} posts from {} likes", likers.size(), rows);
+    }
+    
+    private boolean restore(long expectedLikes) {
+        if (!Files.exists(snapshotPath)) {
+            return false;
+        }
+        Map<String, RoaringBitmap> restored = null;
+        try {
+            restored = LikerSnapshot.read(snapshotPath);
+        } catch (IOException e) {
+            log.warn("Could not read liker snapshot {}; rebuilding from the likes table", snapshotPath, e);
+        }
+        // Gone before the first like is served, so a crash from here on cannot leave it to a later start
+        try {
+            Files.delete(snapshotPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete liker snapshot " + snapshotPath, e);
+        }
+        if (restored == null) {
+            return false;
+        }
+        
+        long total = restored.values().stream().mapToLong(RoaringBitmap::getLongCardinality).sum();
+        if (total != expectedLikes) {
+            log.info("Ignoring liker snapshot with {} likes; the table has {}", total, expectedLikes);
+            return false;
+        }
+        likers.putAll(restored);
+        log.info("Restored liker index for {} posts from {}", restored.size(), snapshotPath);
+        return true;
+    }
+    
+    // Runs after the like buffer has drained, which depends on this index
+    @PreDestroy
+    void close() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LikerSnapshot.write(snapshotPath, likers);
+            log.info("Wrote liker snapshot for {} posts to {}", likers.size(), snapshotPath);
+        } catch (IOException e) {
+            log.error("Failed to write liker snapshot {}", snapshotPath, e);
+        }
+    }
+}
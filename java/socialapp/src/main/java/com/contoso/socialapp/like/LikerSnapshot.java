@@ -0,0 +1,83 @@
+package com.contoso.socialapp.like;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of the liker bitmaps:
+ * {@code magic, version, postCount, then per post: postId (UTF), byteLength, portable Roaring bytes}.
+ * Files are written next to the target and moved into place, so a crash never leaves a torn snapshot.
+ */
+final class LikerSnapshot {
+    
+    private static final int MAGIC = 0x4C4B5253;
+    private static final int VERSION = 1;
+    
+    private LikerSnapshot() {
+    }
+    
+    /**
+     * Each bitmap is serialized while holding its monitor, the same lock {@link LikerIndex} writes under.
+     * The entries are copied first, so the post count written always matches the posts that follow.
+     */
+    static void write(Path path, Map<String, RoaringBitmap> likers) throws IOException {
+        List<Map.Entry<String, RoaringBitmap>> entries = List.copyOf(likers.entrySet());
+        Path absolute = path.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, RoaringBitmap> entry : entries) {
+                    RoaringBitmap bitmap = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    synchronized (bitmap) {
+                        bitmap.runOptimize();
+                        out.writeInt(bitmap.serializedSizeInBytes());
+                        bitmap.serialize(out);
+                    }
+                }
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    static Map<String, RoaringBitmap> read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a liker snapshot: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported liker snapshot version " + version);
+            }
+            int posts = in.readInt();
+            Map<String, RoaringBitmap> likers = new HashMap<>(Math.max(16, posts * 2));
+            for (int i = 0; i < posts; i++) {
+                String postId = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                RoaringBitmap bitmap = new RoaringBitmap();
+                bitmap.deserialize(ByteBuffer.wrap(bytes));
+                likers.put(postId, bitmap);
+            }
+            return likers;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.contoso.socialapp.like;
+
+import com.contoso.socialapp.store.LikeStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers whether the like store holds a (postId, userId) pair, from memory where possible:
+ * the exact liker index when it is enabled, otherwise the Bloom filter in front of a query.
+ */
+@Component
+@RequiredArgsConstructor
+public class StoredLikes {
+    
+    private final LikerIndex likerIndex;
+    private final LikeFilter likeFilter;
+    private final LikeStore likeStore;
+    
+    public boolean exists(String postId, int userId) {
+        if (likerIndex.isEnabled()) {
+            return likerIndex.contains(postId, userId);
+        }
+        return likeFilter.contains(postId, userId, () -> likeStore.exists(postId, userId));
+    }
+    
+    /**
+     * Like {@link #exists}, but without trusting the Bloom filter's "absent": a pair added while the
+     * filter was being rebuilt can be missing from it. For callers that have no primary key behind
+     * them to catch a wrong answer, such as the write-behind buffer.
+     */
+    public boolean existsConfirmed(String postId, int userId) {
+        if (likerIndex.isEnabled()) {
+            return likerIndex.contains(postId, userId);
+        }
+        return likeStore.exists(postId, userId);
+    }
+}
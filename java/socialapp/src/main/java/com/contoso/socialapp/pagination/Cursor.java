@@ -0,0 +1,46 @@
+package com.contoso.socialapp.pagination;
+
+import com.contoso.socialapp.exception.InvalidRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort key (an epoch-millis timestamp, or the float bits of a search score)
+ * and id of the last row a client has seen.
+ * Encoded as URL-safe base64 so clients treat it as a token rather than a value to build.
+ */
+@Getter
+@RequiredArgsConstructor
+public class Cursor {
+    
+    private static final char SEPARATOR = '|';
+    
+    private final long sortKey;
+    private final String id;
+    
+    public String encode() {
+        String raw = Long.toString(sortKey) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static Cursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Malformed cursor");
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator <= 0 || separator == raw.length() - 1) {
+            throw new InvalidRequestException("Malformed cursor");
+        }
+        try {
+            return new Cursor(Long.parseLong(raw, 0, separator, 10), raw.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Malformed cursor");
+        }
+    }
+}
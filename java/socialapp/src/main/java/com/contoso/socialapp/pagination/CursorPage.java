@@ -0,0 +1,16 @@
+package com.contoso.socialapp.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> items;
+    
+    /** Cursor for the following page, or {@code null} when this is the last one. */
+    private String nextCursor;
+}
@@ -0,0 +1,23 @@
+package com.contoso.socialapp.pagination;
+
+import com.contoso.socialapp.exception.InvalidRequestException;
+
+public final class PageLimits {
+    
+    private PageLimits() {
+    }
+    
+    /**
+     * Applies the default when no limit was requested and clamps anything above the hard cap,
+     * so a single request can never pull an unbounded result set into memory.
+     */
+    public static int resolve(Integer requested, int defaultSize, int maxSize) {
+        if (requested == null) {
+            return Math.min(defaultSize, maxSize);
+        }
+        if (requested < 1) {
+            throw new InvalidRequestException("limit must be at least 1");
+        }
+        return Math.min(requested, maxSize);
+    }
+}
@@ -0,0 +1,55 @@
+package com.contoso.socialapp.repository;
+
+import com.contoso.socialapp.entity.Comment;
+import com.contoso.socialapp.entity.Post;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * JDBC batch inserts for bulk imports. Rows are sent in chunks of prepared-statement batches
+ * and join the caller's transaction, so a whole import costs a single commit.
+ */
+@Repository
+public class BulkInsertRepository {
+    
+    private static final String INSERT_POST =
+            "INSERT INTO posts (id, username, content, createdAt, updatedAt, likesCount, commentsCount) " +
+            "VALUES (?, ?, ?, ?, ?, 0, 0)";
+    
+    private static final String INSERT_COMMENT =
+            "INSERT INTO comments (id, postId, userId, content, createdAt, updatedAt) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    
+    public BulkInsertRepository(DataSource dataSource, @Value("${app.bulk.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.chunkSize = chunkSize;
+    }
+    
+    public void insertPosts(List<Post> posts) {
+        jdbcTemplate.batchUpdate(INSERT_POST, posts, chunkSize, (ps, post) -> {
+            ps.setString(1, post.getId());
+            ps.setString(2, post.getUsername());
+            ps.setString(3, post.getContent());
+            ps.setLong(4, post.getCreatedAt());
+            ps.setLong(5, post.getUpdatedAt());
+        });
+    }
+    
+    public void insertComments(List<Comment> comments) {
+        jdbcTemplate.batchUpdate(INSERT_COMMENT, comments, chunkSize, (ps, comment) -> {
+            ps.setString(1, comment.getId());
+            ps.setString(2, comment.getPostId());
+            ps.setInt(3, comment.getUserId());
+            ps.setString(4, comment.getContent());
+            ps.setLong(5, comment.getCreatedAt());
+            ps.setLong(6, comment.getUpdatedAt());
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.contoso.socialapp.repository;
 
 import com.contoso.socialapp.entity.Comment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -11,8 +12,15 @@ import java.util.Optional;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, String> {
     
-    @Query("SELECT c FROM Comment c WHERE c.postId = :postId ORDER BY c.createdAt ASC")
-    List<Comment> findByPostIdOrderByCreatedAtAsc(String postId);
+    @Query("SELECT c FROM Comment c WHERE c.postId = :postId ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findPageByPostId(String postId, Limit limit);
+    
+    @Query("SELECT c FROM Comment c WHERE c.postId = :postId " +
+           "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findPageByPostIdAfter(String postId, long createdAt, String id, Limit limit);
+    
+    long countByPostId(String postId);
     
     Optional<Comment> findByIdAndPostId(String id, String postId);
 }
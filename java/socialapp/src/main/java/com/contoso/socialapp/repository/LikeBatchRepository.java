@@ -0,0 +1,86 @@
+package com.contoso.socialapp.repository;
+
+import com.contoso.socialapp.entity.Like;
+import com.contoso.socialapp.entity.LikeId;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Plain JDBC access to the likes table: idempotent batches for flushing buffered likes, and a
+ * streaming scan of all (postId, userId) pairs.
+ */
+@Repository
+public class LikeBatchRepository {
+    
+    private static final String INSERT_LIKE =
+            "INSERT OR IGNORE INTO likes (postId, userId, createdAt) VALUES (?, ?, ?)";
+    
+    private static final String DELETE_LIKE =
+            "DELETE FROM likes WHERE postId = ? AND userId = ?";
+    
+    private static final String COUNT_ALL = "SELECT COUNT(*) FROM likes";
+    
+    private static final String SELECT_KEYS = "SELECT postId, userId FROM likes";
+    
+    private static final int FETCH_SIZE = 500;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public LikeBatchRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+    
+    public int[] insertLikes(List<Like> likes) {
+        return jdbcTemplate.batchUpdate(INSERT_LIKE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Like like = likes.get(i);
+                ps.setString(1, like.getPostId());
+                ps.setInt(2, like.getUserId());
+                ps.setLong(3, like.getCreatedAt());
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return likes.size();
+            }
+        });
+    }
+    
+    // Full scans run on a reader connection so they never hold up the single writer
+    @Transactional(readOnly = true)
+    public long countLikes() {
+        Long count = jdbcTemplate.queryForObject(COUNT_ALL, Long.class);
+        return count == null ? 0 : count;
+    }
+    
+    @Transactional(readOnly = true)
+    public void forEachLike(RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_KEYS, handler);
+    }
+    
+    public int[] deleteLikes(List<LikeId> ids) {
+        return jdbcTemplate.batchUpdate(DELETE_LIKE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                LikeId id = ids.get(i);
+                ps.setString(1, id.getPostId());
+                ps.setInt(2, id.getUserId());
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+}
@@ -3,12 +3,29 @@ package com.contoso.socialapp.repository;
 import com.contoso.socialapp.entity.Like;
 import com.contoso.socialapp.entity.LikeId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface LikeRepository extends JpaRepository<Like, LikeId> {
     
-    boolean existsByPostIdAndUsername(String postId, String username);
+    boolean existsByPostIdAndUserId(String postId, Integer userId);
+    
+    long deleteByPostIdAndUserId(String postId, Integer userId);
+    
+    long countByPostId(String postId);
+    
+    @Query("SELECT l.userId FROM Like l WHERE l.postId = :postId AND l.userId IN :userIds")
+    List<Integer> findUserIdsByPostIdAndUserIdIn(String postId, Collection<Integer> userIds);
     
-    void deleteByPostIdAndUsername(String postId, String username);
+    // A duplicate is skipped rather than raised: a JDBC error would mark the whole transaction
+    // rollback-only, which under group commit means rolling back every write batched with it
+    @Modifying
+    @Query(value = "INSERT INTO likes (postId, userId, createdAt) VALUES (:postId, :userId, :createdAt) " +
+                   "ON CONFLICT (postId, userId) DO NOTHING", nativeQuery = true)
+    int insertLike(String postId, Integer userId, long createdAt);
 }
@@ -0,0 +1,39 @@
+package com.contoso.socialapp.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+/**
+ * Plain JDBC access for full-table reads that must not materialize the result set.
+ * Rows are handed to the callback one at a time as the forward-only cursor advances.
+ */
+@Repository
+public class PostExportRepository {
+    
+    private static final String SELECT_ALL =
+            "SELECT id, username, content, createdAt, updatedAt, likesCount, commentsCount " +
+            "FROM posts ORDER BY createdAt DESC, id DESC";
+    
+    private static final String SELECT_ALL_COMMENTS =
+            "SELECT id, postId, userId, content, createdAt, updatedAt FROM comments";
+    
+    private static final int FETCH_SIZE = 500;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public PostExportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+    
+    public void forEachPost(RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_ALL, handler);
+    }
+    
+    public void forEachComment(RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_ALL_COMMENTS, handler);
+    }
+}
@@ -1,21 +1,50 @@
 package com.contoso.socialapp.repository;
 
 import com.contoso.socialapp.entity.Post;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, String> {
     
-    @Query("SELECT p FROM Post p ORDER BY p.createdAt DESC")
-    List<Post> findAllOrderByCreatedAtDesc();
+    String SUMMARY_SELECT = "SELECT new com.contoso.socialapp.repository.PostSummary(" +
+            "p.id, p.username, p.content, p.createdAt, p.updatedAt, p.likesCount, p.commentsCount) " +
+            "FROM Post p ";
     
-    @Query("SELECT COUNT(l) FROM Like l WHERE l.postId = :postId")
-    int countLikesByPostId(String postId);
+    @Query(SUMMARY_SELECT + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummary> findFeedPage(Limit limit);
     
-    @Query("SELECT COUNT(c) FROM Comment c WHERE c.postId = :postId")
-    int countCommentsByPostId(String postId);
+    @Query(SUMMARY_SELECT + "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummary> findFeedPageAfter(long createdAt, String id, Limit limit);
+    
+    @Query(SUMMARY_SELECT + "ORDER BY p.likesCount DESC, p.createdAt DESC")
+    List<PostSummary> findMostLiked(Limit limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.id = :id")
+    Optional<PostSummary> findSummaryById(String id);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<PostSummary> findSummariesByIdIn(Collection<String> ids);
+    
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = p.likesCount + :delta WHERE p.id = :postId")
+    int adjustLikesCount(String postId, int delta);
+    
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = p.commentsCount + :delta WHERE p.id = :postId")
+    int adjustCommentsCount(String postId, int delta);
+    
+    @Query("SELECT p.id FROM Post p WHERE p.likesCount <> (SELECT COUNT(l) FROM Like l WHERE l.postId = p.id)")
+    List<String> findLikesCountMismatches();
+    
+    @Query("SELECT p.id FROM Post p WHERE p.commentsCount <> (SELECT COUNT(c) FROM Comment c WHERE c.postId = p.id)")
+    List<String> findCommentsCountMismatches();
 }
@@ -0,0 +1,20 @@
+package com.contoso.socialapp.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Read model for a post together with its like and comment counts,
+ * assembled by a single constructor-expression query over the posts table.
+ */
+@Data
+@AllArgsConstructor
+public class PostSummary {
+    private String id;
+    private String username;
+    private String content;
+    private long createdAt;
+    private long updatedAt;
+    private int likesCount;
+    private int commentsCount;
+}
@@ -0,0 +1,24 @@
+package com.contoso.socialapp.repository;
+
+import com.contoso.socialapp.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserRepository extends JpaRepository<User, Integer> {
+    
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Integer> findIdByUsername(String username);
+    
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findUsernameById(Integer id);
+    
+    // Concurrent writers may race to register the same name; the unique constraint keeps one row
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO users (username) VALUES (:username)", nativeQuery = true)
+    int insertIfAbsent(String username);
+}
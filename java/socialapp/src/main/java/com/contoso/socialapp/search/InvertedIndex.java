@@ -0,0 +1,570 @@
+package com.contoso.socialapp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text index over posts and their comments, ranked with BM25. The text of a post and each of
+ * its comments are separate documents; a post's score is the best score among its documents, with
+ * comment matches weighted down by {@link #COMMENT_WEIGHT}.
+ *
+ * <p>Documents are numbered in the order they are added, so postings lists only ever grow at the
+ * end. Changing a document adds it again under a new number and marks the old one deleted;
+ * removing a post marks the post dead, which hides its comments without visiting them. Deleted
+ * documents are skipped while searching and dropped once they make up a quarter of the index, by a
+ * compaction that renumbers the rest. Until then they still count towards the BM25 document
+ * frequencies and average length, as in Lucene.</p>
+ *
+ * <p>Changes and compaction take the write lock. A search takes the read lock only to capture a
+ * {@link View} and scores without it, so a long scoring walk does not hold up changes. Documents
+ * and postings are only appended past what a view can see; the per-post arrays and the deleted
+ * set, which changes overwrite, are copied by the first change after a view was taken, and
+ * compaction writes fresh arrays.</p>
+ */
+public final class InvertedIndex {
+    
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+    static final float COMMENT_WEIGHT = 0.5f;
+    
+    private static final int MIN_DELETED_FOR_COMPACTION = 1024;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HashMap<String, PostingsList> terms = new HashMap<>();
+    private final HashMap<String, Integer> postOrdinals = new HashMap<>();
+    private final HashMap<String, Integer> commentDocs = new HashMap<>();
+    
+    // Per document: its length in tokens and the ordinal of the post it belongs to
+    private int[] docLengths = new int[16];
+    private int[] docPosts = new int[16];
+    private BitSet deletedDocs = new BitSet();
+    private int docCount;
+    private int deletedCount;
+    private long totalLength;
+    
+    // Per post ordinal: the post's ID (null once removed), the document holding its own text (-1
+    // when there is none) and how many of its documents are live
+    private String[] postIds = new String[16];
+    private int[] postDocs = new int[16];
+    private int[] liveDocs = new int[16];
+    private int postCount;
+    
+    // Set when a view shares the arrays above; the next change copies them before writing
+    private volatile boolean viewShared;
+    
+    /**
+     * Indexes the post's text, replacing what was indexed for it before.
+     */
+    public void putPost(String postId, String content) {
+        lock.writeLock().lock();
+        try {
+            putPost(postId, content, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Indexes the post's text unless some is indexed already, so a bulk load cannot overwrite a
+     * newer version that arrived while it ran.
+     */
+    public void putPostIfAbsent(String postId, String content) {
+        lock.writeLock().lock();
+        try {
+            putPost(postId, content, false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void putComment(String commentId, String postId, String content) {
+        lock.writeLock().lock();
+        try {
+            putComment(commentId, postId, content, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void putCommentIfAbsent(String commentId, String postId, String content) {
+        lock.writeLock().lock();
+        try {
+            putComment(commentId, postId, content, false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Removes the post together with its comments.
+     */
+    public void removePost(String postId) {
+        lock.writeLock().lock();
+        try {
+            Integer post = postOrdinals.remove(postId);
+            if (post == null) {
+                return;
+            }
+            unshare();
+            deletedCount += liveDocs[post];
+            liveDocs[post] = 0;
+            postIds[post] = null;
+            postDocs[post] = -1;
+            compactIfWorthIt();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void removeComment(String commentId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = commentDocs.remove(commentId);
+            if (doc != null) {
+                deleteDoc(doc);
+                compactIfWorthIt();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * The best-scoring posts matching any of the terms, best first; ties go to the newer post.
+     *
+     * @param after the last hit of the previous page, or null for the first page
+     */
+    public List<Hit> search(Collection<String> queryTerms, int limit, Hit after) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        View view = view(queryTerms);
+        return view == null ? List.of() : view.search(limit, after);
+    }
+    
+    // The index as it stands, for the given terms; null when it is empty
+    View view(Collection<String> queryTerms) {
+        lock.readLock().lock();
+        try {
+            return docCount == 0 ? null : new View(queryTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Drops deleted documents and removed posts from the postings and renumbers what is left.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            compactNow();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Live documents: post texts and comments.
+     */
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Heap taken by the postings arrays, deleted documents included.
+     */
+    public long postingsBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingsList postings : terms.values()) {
+                bytes += postings.bytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void putPost(String postId, String content, boolean replace) {
+        int post = ordinalOf(postId);
+        int previous = postDocs[post];
+        if (previous >= 0) {
+            if (!replace) {
+                return;
+            }
+            deleteDoc(previous);
+        }
+        int doc = addDoc(post, content);
+        unshare();
+        postDocs[post] = doc;
+        compactIfWorthIt();
+    }
+    
+    private void putComment(String commentId, String postId, String content, boolean replace) {
+        Integer previous = commentDocs.get(commentId);
+        if (previous != null) {
+            if (!replace) {
+                return;
+            }
+            deleteDoc(previous);
+        }
+        commentDocs.put(commentId, addDoc(ordinalOf(postId), content));
+        compactIfWorthIt();
+    }
+    
+    private int ordinalOf(String postId) {
+        Integer existing = postOrdinals.get(postId);
+        if (existing != null) {
+            return existing;
+        }
+        if (postCount == postIds.length) {
+            int capacity = postCount + (postCount >> 1);
+            postIds = Arrays.copyOf(postIds, capacity);
+            postDocs = Arrays.copyOf(postDocs, capacity);
+            liveDocs = Arrays.copyOf(liveDocs, capacity);
+        }
+        int post = postCount++;
+        postIds[post] = postId;
+        postDocs[post] = -1;
+        liveDocs[post] = 0;
+        postOrdinals.put(postId, post);
+        return post;
+    }
+    
+    private int addDoc(int post, String content) {
+        HashMap<String, int[]> frequencies = new HashMap<>();
+        int[] length = new int[1];
+        Tokenizer.tokenize(content, token -> {
+            length[0]++;
+            frequencies.computeIfAbsent(token, t -> new int[1])[0]++;
+        });
+        
+        if (docCount == docLengths.length) {
+            int capacity = docCount + (docCount >> 1);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docPosts = Arrays.copyOf(docPosts, capacity);
+        }
+        int doc = docCount++;
+        docLengths[doc] = length[0];
+        docPosts[doc] = post;
+        liveDocs[post]++;
+        totalLength += length[0];
+        frequencies.forEach((term, frequency) ->
+                terms.computeIfAbsent(term, t -> new PostingsList()).add(doc, frequency[0]));
+        return doc;
+    }
+    
+    private void deleteDoc(int doc) {
+        if (deletedDocs.get(doc)) {
+            return;
+        }
+        unshare();
+        deletedDocs.set(doc);
+        int post = docPosts[doc];
+        // The documents of a removed post were all counted as deleted when it was removed
+        if (postIds[post] != null) {
+            liveDocs[post]--;
+            deletedCount++;
+        }
+    }
+    
+    private void compactIfWorthIt() {
+        if (deletedCount >= MIN_DELETED_FOR_COMPACTION && deletedCount * 4L > docCount) {
+            compactNow();
+        }
+    }
+    
+    // Copies the arrays that changes overwrite in place, if a view may still be reading them
+    private void unshare() {
+        if (viewShared) {
+            postIds = postIds.clone();
+            postDocs = postDocs.clone();
+            deletedDocs = (BitSet) deletedDocs.clone();
+            viewShared = false;
+        }
+    }
+    
+    private void compactNow() {
+        unshare();
+        int[] docRemap = new int[docCount];
+        int[] lengths = new int[docLengths.length];
+        int[] owners = new int[docPosts.length];
+        int docs = 0;
+        totalLength = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deletedDocs.get(doc) || postIds[docPosts[doc]] == null) {
+                docRemap[doc] = -1;
+                continue;
+            }
+            docRemap[doc] = docs;
+            lengths[docs] = docLengths[doc];
+            owners[docs] = docPosts[doc];
+            totalLength += docLengths[doc];
+            docs++;
+        }
+        docLengths = lengths;
+        docPosts = owners;
+        
+        // Posts that are gone, or have no live document left, give up their ordinal
+        int[] postRemap = new int[postCount];
+        int posts = 0;
+        for (int post = 0; post < postCount; post++) {
+            if (postIds[post] == null || liveDocs[post] == 0) {
+                if (postIds[post] != null) {
+                    postOrdinals.remove(postIds[post]);
+                }
+                postRemap[post] = -1;
+                continue;
+            }
+            postRemap[post] = posts;
+            postIds[posts] = postIds[post];
+            postDocs[posts] = postDocs[post] >= 0 ? docRemap[postDocs[post]] : -1;
+            liveDocs[posts] = liveDocs[post];
+            posts++;
+        }
+        Arrays.fill(postIds, posts, postCount, null);
+        for (int doc = 0; doc < docs; doc++) {
+            docPosts[doc] = postRemap[docPosts[doc]];
+        }
+        
+        terms.values().removeIf(postings -> !postings.compact(docRemap));
+        commentDocs.values().removeIf(doc -> docRemap[doc] < 0);
+        commentDocs.replaceAll((commentId, doc) -> docRemap[doc]);
+        postOrdinals.replaceAll((postId, post) -> postRemap[post]);
+        
+        docCount = docs;
+        postCount = posts;
+        deletedDocs.clear();
+        deletedCount = 0;
+    }
+    
+    // Negative when a ranks before b: higher score first, then the newer (larger) post ID
+    private static int rank(float scoreA, String postIdA, float scoreB, String postIdB) {
+        int byScore = Float.compare(scoreB, scoreA);
+        return byScore != 0 ? byScore : postIdB.compareTo(postIdA);
+    }
+    
+    private static float idf(int documents, int withTerm) {
+        return (float) Math.log(1 + (documents - withTerm + 0.5) / (withTerm + 0.5));
+    }
+    
+    /**
+     * The index as a search saw it: the postings readers, sizes and arrays captured under the read
+     * lock. Scoring reads nothing past those sizes, and changes copy an array before overwriting
+     * anything below them, so a view can be scored without the lock.
+     */
+    final class View {
+        
+        private final List<PostingsList.Reader> readers;
+        private final float[] weights;
+        private final long matches;
+        private final float averageLength;
+        private final int postCount;
+        private final String[] postIds;
+        private final int[] postDocs;
+        private final int[] docLengths;
+        private final int[] docPosts;
+        private final BitSet deletedDocs;
+        
+        private View(Collection<String> queryTerms) {
+            readers = new ArrayList<>(queryTerms.size());
+            weights = new float[queryTerms.size()];
+            long matched = 0;
+            for (String term : queryTerms) {
+                PostingsList postings = terms.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                PostingsList.Reader reader = postings.reader();
+                reader.next();
+                weights[readers.size()] = idf(docCount, postings.documents());
+                readers.add(reader);
+                matched += postings.documents();
+            }
+            matches = matched;
+            averageLength = Math.max(1f, (float) totalLength / docCount);
+            postCount = InvertedIndex.this.postCount;
+            postIds = InvertedIndex.this.postIds;
+            postDocs = InvertedIndex.this.postDocs;
+            docLengths = InvertedIndex.this.docLengths;
+            docPosts = InvertedIndex.this.docPosts;
+            deletedDocs = InvertedIndex.this.deletedDocs;
+            viewShared = true;
+        }
+        
+        /**
+         * The best-scoring posts, best first; scores each posting once, so a view serves one search.
+         */
+        List<Hit> search(int limit, Hit after) {
+            // Document at a time: every posting of the lowest document across the lists at once
+            Scores scores = new Scores((int) Math.min(matches, postCount));
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (PostingsList.Reader reader : readers) {
+                    doc = Math.min(doc, reader.doc);
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+                boolean live = !deletedDocs.get(doc) && postIds[docPosts[doc]] != null;
+                float normalizedLength = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                float score = 0;
+                for (int i = 0; i < readers.size(); i++) {
+                    PostingsList.Reader reader = readers.get(i);
+                    if (reader.doc == doc) {
+                        if (live) {
+                            score += weights[i] * reader.frequency * (K1 + 1) / (reader.frequency + normalizedLength);
+                        }
+                        reader.next();
+                    }
+                }
+                if (live) {
+                    int post = docPosts[doc];
+                    scores.max(post, postDocs[post] == doc ? score : score * COMMENT_WEIGHT);
+                }
+            }
+            return top(scores, limit, after);
+        }
+        
+        private List<Hit> top(Scores scores, int limit, Hit after) {
+            // Worst hit at the head, so it is the one dropped when a better one arrives
+            PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, 1024) + 1,
+                    (a, b) -> rank(b.score, b.postId, a.score, a.postId));
+            scores.forEach((post, score) -> {
+                String postId = postIds[post];
+                if (after != null && rank(score, postId, after.score, after.postId) <= 0) {
+                    return;
+                }
+                if (best.size() == limit) {
+                    Hit worst = best.peek();
+                    if (rank(score, postId, worst.score, worst.postId) >= 0) {
+                        return;
+                    }
+                    best.poll();
+                }
+                best.add(new Hit(postId, score));
+            });
+            Hit[] ranked = new Hit[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = best.poll();
+            }
+            return Arrays.asList(ranked);
+        }
+    
+    }
+    
+    public static final class Hit {
+        
+        private final String postId;
+        private final float score;
+        
+        public Hit(String postId, float score) {
+            this.postId = postId;
+            this.score = score;
+        }
+        
+        public String getPostId() {
+            return postId;
+        }
+        
+        public float getScore() {
+            return score;
+        }
+    }
+    
+    /**
+     * Best score per post ordinal, in an open-addressing table so scoring a common term does not
+     * box a Float per matching post.
+     */
+    private static final class Scores {
+        
+        // Keys are stored plus one, so zero marks a free slot
+        private int[] keys;
+        private float[] values;
+        private int size;
+        
+        // Sized up front for the most posts the query can match, so a common term does not rehash
+        Scores(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(32, expected) * 2 - 1) << 1;
+            keys = new int[capacity];
+            values = new float[capacity];
+        }
+        
+        void max(int key, float value) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == 0) {
+                    keys[slot] = key + 1;
+                    values[slot] = value;
+                    if (++size * 2 > keys.length) {
+                        grow();
+                    }
+                    return;
+                }
+                if (keys[slot] == key + 1) {
+                    values[slot] = Math.max(values[slot], value);
+                    return;
+                }
+            }
+        }
+        
+        void forEach(ScoreVisitor visitor) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0) {
+                    visitor.visit(keys[slot] - 1, values[slot]);
+                }
+            }
+        }
+        
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new float[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = hash(oldKeys[i] - 1) & mask;
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+        
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ScoreVisitor {
+        
+        void visit(int post, float score);
+    }
+}
@@ -0,0 +1,110 @@
+package com.contoso.socialapp.search;
+
+import com.contoso.socialapp.dto.CommentDto;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.event.CommentDeletedEvent;
+import com.contoso.socialapp.event.CommentSavedEvent;
+import com.contoso.socialapp.event.PostDeletedEvent;
+import com.contoso.socialapp.event.PostSavedEvent;
+import com.contoso.socialapp.exception.InvalidRequestException;
+import com.contoso.socialapp.store.CommentStore;
+import com.contoso.socialapp.store.PostStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@link InvertedIndex} behind post search, kept in step with committed post and comment
+ * changes.
+ *
+ * <p>The index is built from the stores once the application is ready, after the startup data has
+ * been written. Changes that commit while the load runs are applied as they arrive and the load
+ * does not overwrite them. A post or comment deleted meanwhile can be put back by the load; hits
+ * are resolved against the post store, so such a leftover can at worst make a live post match.</p>
+ */
+@Component
+@Slf4j
+public class PostSearchIndex {
+    
+    private final InvertedIndex index = new InvertedIndex();
+    private final PostStore postStore;
+    private final CommentStore commentStore;
+    private final int maxTerms;
+    
+    public PostSearchIndex(PostStore postStore,
+                           CommentStore commentStore,
+                           @Value("${app.search.max-terms:16}") int maxTerms,
+                           MeterRegistry meterRegistry) {
+        this.postStore = postStore;
+        this.commentStore = commentStore;
+        this.maxTerms = maxTerms;
+        Gauge.builder("search.index.documents", index, InvertedIndex::documentCount)
+                .description("Post texts and comments in the search index")
+                .register(meterRegistry);
+        Gauge.builder("search.index.terms", index, InvertedIndex::termCount)
+                .description("Distinct terms in the search index")
+                .register(meterRegistry);
+        Gauge.builder("search.index.postings", index, InvertedIndex::postingsBytes)
+                .description("Heap held by the search index's postings lists")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Posts matching any word of the query, best first.
+     *
+     * @param after the last hit of the previous page, or null for the first page
+     */
+    public List<InvertedIndex.Hit> search(String query, int limit, InvertedIndex.Hit after) {
+        Set<String> terms = new LinkedHashSet<>();
+        Tokenizer.tokenize(query, terms::add);
+        if (terms.isEmpty()) {
+            throw new InvalidRequestException("q must contain at least one word");
+        }
+        if (terms.size() > maxTerms) {
+            throw new InvalidRequestException("q can contain at most " + maxTerms + " distinct words");
+        }
+        return index.search(terms, limit, after);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostSaved(PostSavedEvent event) {
+        PostDto post = event.getPost();
+        index.putPost(post.getId(), post.getContent());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        index.removePost(event.getPostId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentSaved(CommentSavedEvent event) {
+        CommentDto comment = event.getComment();
+        index.putComment(comment.getId(), comment.getPostId(), comment.getContent());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentDeleted(CommentDeletedEvent event) {
+        index.removeComment(event.getCommentId());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        postStore.forEachNewestFirst(post -> index.putPostIfAbsent(post.getId(), post.getContent()));
+        commentStore.forEach(comment ->
+                index.putCommentIfAbsent(comment.getId(), comment.getPostId(), comment.getContent()));
+        log.info("Built search index with {} documents and {} terms in {} ms",
+                index.documentCount(), index.termCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,124 @@
+package com.contoso.socialapp.search;
+
+import java.util.Arrays;
+
+/**
+ * The documents a term occurs in, in ascending document order, as one int per posting: the gap
+ * from the previous document in the upper 23 bits and the term frequency (capped at 255) in the
+ * low byte. A gap too wide for 23 bits is preceded by an escape entry with a zero frequency that
+ * carries its high bits. Four bytes a posting, against sixteen or more for boxed (doc, tf) pairs.
+ *
+ * <p>Documents are only ever appended with numbers above the last one; removal happens by
+ * rewriting the list into a new array in {@link #compact}. Not thread-safe, but a {@link Reader}
+ * only decodes the array and size it was created over, so later changes never show through it.</p>
+ */
+final class PostingsList {
+    
+    static final int MAX_FREQUENCY = 0xFF;
+    
+    private static final int GAP_BITS = 23;
+    private static final int GAP_MASK = (1 << GAP_BITS) - 1;
+    
+    private int[] data = new int[2];
+    private int size;
+    private int lastDoc = -1;
+    private int documents;
+    
+    int documents() {
+        return documents;
+    }
+    
+    long bytes() {
+        return 4L * data.length;
+    }
+    
+    void add(int doc, int frequency) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Document " + doc + " does not follow " + lastDoc);
+        }
+        int gap = doc - lastDoc;
+        if (gap > GAP_MASK) {
+            append((gap >>> GAP_BITS) << 8);
+        }
+        append((gap & GAP_MASK) << 8 | Math.min(frequency, MAX_FREQUENCY));
+        lastDoc = doc;
+        documents++;
+    }
+    
+    private void append(int entry) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size + Math.max(size >> 1, 2));
+        }
+        data[size++] = entry;
+    }
+    
+    Reader reader() {
+        return new Reader();
+    }
+    
+    /**
+     * Renumbers every document through {@code remap}, dropping the ones mapped to -1. The mapping
+     * must preserve order.
+     *
+     * @return false when no document is left
+     */
+    boolean compact(int[] remap) {
+        int[] old = data;
+        int oldSize = size;
+        data = new int[Math.max(2, documents)];
+        size = 0;
+        lastDoc = -1;
+        documents = 0;
+        Reader reader = new Reader(old, oldSize);
+        while (reader.next()) {
+            int doc = remap[reader.doc];
+            if (doc >= 0) {
+                add(doc, reader.frequency);
+            }
+        }
+        if (data.length - size > 8) {
+            data = Arrays.copyOf(data, size);
+        }
+        return documents > 0;
+    }
+    
+    /**
+     * Decodes the postings one at a time; {@link #doc} and {@link #frequency} are valid after
+     * {@link #next} returned true.
+     */
+    final class Reader {
+        
+        private final int[] entries;
+        private final int end;
+        private int index;
+        
+        int doc = -1;
+        int frequency;
+        
+        private Reader() {
+            this(data, size);
+        }
+        
+        private Reader(int[] entries, int end) {
+            this.entries = entries;
+            this.end = end;
+        }
+        
+        boolean next() {
+            int high = 0;
+            while (index < end) {
+                int entry = entries[index++];
+                int tf = entry & 0xFF;
+                if (tf == 0) {
+                    high = (entry >>> 8) << GAP_BITS;
+                    continue;
+                }
+                doc += high | entry >>> 8;
+                frequency = tf;
+                return true;
+            }
+            doc = Integer.MAX_VALUE;
+            return false;
+        }
+    }
+}
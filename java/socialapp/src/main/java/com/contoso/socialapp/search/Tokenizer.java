@@ -0,0 +1,40 @@
+package com.contoso.socialapp.search;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits text into lowercase runs of letters and digits. Everything else, hashtag and mention
+ * markers included, separates tokens, so {@code #OutdoorLife} is found by {@code outdoorlife}.
+ * Overlong tokens are cut to {@link #MAX_TOKEN_LENGTH} characters on both the indexing and the
+ * query side.
+ */
+public final class Tokenizer {
+    
+    public static final int MAX_TOKEN_LENGTH = 40;
+    
+    private Tokenizer() {
+    }
+    
+    public static void tokenize(String text, Consumer<String> sink) {
+        if (text == null) {
+            return;
+        }
+        StringBuilder token = new StringBuilder();
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+            } else if (!token.isEmpty()) {
+                sink.accept(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            sink.accept(token.toString());
+        }
+    }
+}
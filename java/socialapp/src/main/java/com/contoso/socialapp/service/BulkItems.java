@@ -0,0 +1,38 @@
+package com.contoso.socialapp.service;
+
+import com.contoso.socialapp.exception.InvalidRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Shared checks for bulk create requests. Items are validated one by one so that a bad row
+ * is reported in its own result instead of rejecting the whole request.
+ */
+final class BulkItems {
+    
+    private BulkItems() {
+    }
+    
+    static void checkSize(List<?> items, int maxItems) {
+        if (items == null || items.isEmpty()) {
+            throw new InvalidRequestException("At least one item is required");
+        }
+        if (items.size() > maxItems) {
+            throw new InvalidRequestException("At most " + maxItems + " items can be created at once");
+        }
+    }
+    
+    static List<String> violations(Validator validator, Object item) {
+        if (item == null) {
+            return List.of("Item must not be null");
+        }
+        return validator.validate(item).stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toList());
+    }
+}
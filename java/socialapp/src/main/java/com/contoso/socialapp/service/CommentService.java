@@ -1,15 +1,33 @@
 package com.contoso.socialapp.service;
 
+import com.contoso.socialapp.config.CacheConfig;
 import com.contoso.socialapp.dto.*;
 import com.contoso.socialapp.entity.Comment;
+import com.contoso.socialapp.event.CommentChangedEvent;
+import com.contoso.socialapp.event.CommentDeletedEvent;
+import com.contoso.socialapp.event.CommentSavedEvent;
+import com.contoso.socialapp.event.PostCountersChangedEvent;
 import com.contoso.socialapp.exception.ResourceNotFoundException;
-import com.contoso.socialapp.repository.CommentRepository;
+import com.contoso.socialapp.id.IdGenerator;
+import com.contoso.socialapp.pagination.Cursor;
+import com.contoso.socialapp.pagination.CursorPage;
+import com.contoso.socialapp.pagination.PageLimits;
+import com.contoso.socialapp.store.CommentStore;
+import com.contoso.socialapp.store.PostStore;
+import com.contoso.socialapp.user.UsernameDictionary;
+import com.contoso.socialapp.write.GroupCommit;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,72 +35,164 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CommentService {
     
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final CommentStore commentStore;
+    private final PostStore postStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final UsernameDictionary usernameDictionary;
+    private final IdGenerator idGenerator;
     
-    private final CommentRepository commentRepository;
+    @Value("${app.comments.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.comments.page.max-size:200}")
+    private int maxPageSize;
+    
+    @Value("${app.bulk.max-items:1000}")
+    private int maxBulkItems;
     
     @Transactional(readOnly = true)
-    public List<CommentDto> getCommentsByPostId(String postId) {
-        return commentRepository.findByPostIdOrderByCreatedAtAsc(postId)
-                .stream()
+    public CursorPage<CommentDto> getCommentsByPostId(String postId, Integer limit, String after) {
+        int pageSize = PageLimits.resolve(limit, defaultPageSize, maxPageSize);
+        // Fetch one extra row to learn whether another page follows without a COUNT query
+        int fetchSize = pageSize + 1;
+        
+        List<Comment> comments;
+        if (after == null || after.isBlank()) {
+            comments = commentStore.findPageByPostId(postId, fetchSize);
+        } else {
+            Cursor cursor = Cursor.decode(after);
+            comments = commentStore.findPageByPostIdAfter(postId, cursor.getSortKey(), cursor.getId(), fetchSize);
+        }
+        
+        String nextCursor = null;
+        if (comments.size() > pageSize) {
+            comments = comments.subList(0, pageSize);
+            Comment last = comments.get(pageSize - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        List<CommentDto> items = comments.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
+        return new CursorPage<>(items, nextCursor);
+    }
+    
+    @Transactional(readOnly = true)
+    public long countCommentsByPostId(String postId) {
+        return commentStore.countByPostId(postId);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @GroupCommit
     @Transactional
     public CommentDto createComment(String postId, NewCommentRequest request) {
-        String commentId = generateId();
+        String commentId = idGenerator.nextId();
         
         Comment comment = new Comment();
         comment.setId(commentId);
         comment.setPostId(postId);
-        comment.setUsername(request.getUsername());
+        comment.setUserId(usernameDictionary.idFor(request.getUsername()));
         comment.setContent(request.getContent());
-        // Let @PrePersist handle setting timestamps
         
-        Comment savedComment = commentRepository.save(comment);
-        return convertToDto(savedComment);
+        Comment savedComment = commentStore.insert(comment);
+        postStore.adjustCommentsCount(postId, 1);
+        CommentDto dto = convertToDto(savedComment);
+        eventPublisher.publishEvent(new PostCountersChangedEvent(postId, 0, 1));
+        eventPublisher.publishEvent(new CommentChangedEvent(postId, commentId));
+        eventPublisher.publishEvent(new CommentSavedEvent(dto));
+        return dto;
     }
     
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @Transactional
+    public BulkCreateResponse createComments(String postId, List<NewCommentRequest> requests) {
+        BulkItems.checkSize(requests, maxBulkItems);
+        if (!postStore.existsById(postId)) {
+            throw new ResourceNotFoundException("Post not found");
+        }
+        long now = System.currentTimeMillis();
+        
+        List<Comment> comments = new ArrayList<>();
+        List<BulkItemResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            NewCommentRequest request = requests.get(i);
+            List<String> errors = BulkItems.violations(validator, request);
+            if (!errors.isEmpty()) {
+                results.add(new BulkItemResult(i, false, null, errors));
+                continue;
+            }
+            
+            Comment comment = new Comment();
+            comment.setId(idGenerator.nextId());
+            comment.setPostId(postId);
+            comment.setUserId(usernameDictionary.idFor(request.getUsername()));
+            comment.setContent(request.getContent());
+            comment.setCreatedAt(now);
+            comment.setUpdatedAt(now);
+            comments.add(comment);
+            results.add(new BulkItemResult(i, true, comment.getId(), List.of()));
+        }
+        
+        if (!comments.isEmpty()) {
+            commentStore.insertAll(comments);
+            postStore.adjustCommentsCount(postId, comments.size());
+            eventPublisher.publishEvent(new PostCountersChangedEvent(postId, 0, comments.size()));
+            eventPublisher.publishEvent(new CommentChangedEvent(postId, null));
+            comments.forEach(comment -> eventPublisher.publishEvent(new CommentSavedEvent(convertToDto(comment))));
+        }
+        return new BulkCreateResponse(comments.size(), requests.size() - comments.size(), results);
+    }
+    
+    @Cacheable(cacheNames = CacheConfig.COMMENTS, key = "#postId + ':' + #commentId")
     @Transactional(readOnly = true)
     public CommentDto getCommentById(String postId, String commentId) {
-        Comment comment = commentRepository.findByIdAndPostId(commentId, postId)
+        Comment comment = commentStore.findByIdAndPostId(commentId, postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
         return convertToDto(comment);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.COMMENTS, key = "#postId + ':' + #commentId")
+    @GroupCommit
     @Transactional
     public CommentDto updateComment(String postId, String commentId, UpdateCommentRequest request) {
-        Comment comment = commentRepository.findByIdAndPostId(commentId, postId)
+        Comment comment = commentStore.findByIdAndPostId(commentId, postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
         
-        comment.setUsername(request.getUsername());
+        comment.setUserId(usernameDictionary.idFor(request.getUsername()));
         comment.setContent(request.getContent());
-        // Let @PreUpdate handle setting updatedAt timestamp
         
-        Comment savedComment = commentRepository.save(comment);
-        return convertToDto(savedComment);
+        Comment savedComment = commentStore.update(comment);
+        CommentDto dto = convertToDto(savedComment);
+        eventPublisher.publishEvent(new CommentChangedEvent(postId, commentId));
+        eventPublisher.publishEvent(new CommentSavedEvent(dto));
+        return dto;
     }
     
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId"),
+            @CacheEvict(cacheNames = CacheConfig.COMMENTS, key = "#postId + ':' + #commentId")
+    })
+    @GroupCommit
     @Transactional
     public void deleteComment(String postId, String commentId) {
-        Comment comment = commentRepository.findByIdAndPostId(commentId, postId)
+        Comment comment = commentStore.findByIdAndPostId(commentId, postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
-        commentRepository.delete(comment);
+        commentStore.delete(comment);
+        postStore.adjustCommentsCount(postId, -1);
+        eventPublisher.publishEvent(new PostCountersChangedEvent(postId, 0, -1));
+        eventPublisher.publishEvent(new CommentChangedEvent(postId, commentId));
+        eventPublisher.publishEvent(new CommentDeletedEvent(postId, commentId));
     }
     
     private CommentDto convertToDto(Comment comment) {
         return new CommentDto(
                 comment.getId(),
                 comment.getPostId(),
-                comment.getUsername(),
+                usernameDictionary.username(comment.getUserId()),
                 comment.getContent(),
-                LocalDateTime.parse(comment.getCreatedAt(), FORMATTER),
-                LocalDateTime.parse(comment.getUpdatedAt(), FORMATTER)
+                Instant.ofEpochMilli(comment.getCreatedAt()),
+                Instant.ofEpochMilli(comment.getUpdatedAt())
         );
     }
-    
-    private String generateId() {
-        return String.valueOf(System.currentTimeMillis()).replace(".", "");
-    }
 }
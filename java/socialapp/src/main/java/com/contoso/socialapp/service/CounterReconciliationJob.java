@@ -0,0 +1,90 @@
+package com.contoso.socialapp.service;
+
+import com.contoso.socialapp.event.PostCountersChangedEvent;
+import com.contoso.socialapp.like.LikeBuffer;
+import com.contoso.socialapp.like.LikeCounters;
+import com.contoso.socialapp.repository.PostSummary;
+import com.contoso.socialapp.store.LikeStore;
+import com.contoso.socialapp.store.PostStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * Repairs drift between the denormalized post counters and the likes/comments tables,
+ * e.g. after rows were changed outside the application. The first run waits one interval so it
+ * does not compete with startup writes for the SQLite write lock.
+ *
+ * <p>Live likes counts run ahead of the column by the changes {@link LikeCounters} has not
+ * checkpointed and the likes {@link LikeBuffer} has not written, so every post whose column
+ * disagrees with its likes, or that has such changes, is recounted through
+ * {@link LikeCounters#drift}. A post whose likes changed during its recount is left for the next
+ * run. Repairs are published as counter changes, so they reach the live count, the caches and the
+ * hot feed like any other like and are persisted by the next checkpoint. Comments counts are
+ * repaired in place and published the same way once the repair commits.</p>
+ */
+@Component
+@Slf4j
+public class CounterReconciliationJob {
+    
+    private final PostStore postStore;
+    private final LikeStore likeStore;
+    private final LikeBuffer likeBuffer;
+    private final LikeCounters likeCounters;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    public CounterReconciliationJob(PostStore postStore,
+                                    LikeStore likeStore,
+                                    LikeBuffer likeBuffer,
+                                    LikeCounters likeCounters,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager) {
+        this.postStore = postStore;
+        this.likeStore = likeStore;
+        this.likeBuffer = likeBuffer;
+        this.likeCounters = likeCounters;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.counters.reconcile-interval:PT1H}",
+               initialDelayString = "${app.counters.reconcile-interval:PT1H}")
+    public void reconcile() {
+        int likesRepaired = reconcileLikesCounts();
+        int commentsRepaired = transactionTemplate.execute(status -> {
+            Map<String, Integer> repaired = postStore.reconcileCommentsCounts();
+            repaired.forEach((postId, drift) -> eventPublisher.publishEvent(new PostCountersChangedEvent(postId, 0, drift)));
+            return repaired.size();
+        });
+        if (likesRepaired > 0 || commentsRepaired > 0) {
+            log.warn("Repaired counter drift: {} likes counts, {} comments counts", likesRepaired, commentsRepaired);
+        }
+    }
+    
+    private int reconcileLikesCounts() {
+        Set<String> candidates = new LinkedHashSet<>(postStore.findLikesCountMismatches());
+        candidates.addAll(likeCounters.changedPosts());
+        candidates.addAll(likeBuffer.pendingPosts());
+        
+        int repaired = 0;
+        for (String postId : candidates) {
+            OptionalInt drift = likeCounters.drift(postId,
+                    () -> Math.toIntExact(likeStore.countByPostId(postId) + likeBuffer.pendingChange(postId)),
+                    () -> postStore.findSummaryById(postId).map(PostSummary::getLikesCount));
+            if (drift.isPresent() && drift.getAsInt() != 0) {
+                eventPublisher.publishEvent(new PostCountersChangedEvent(postId, drift.getAsInt(), 0));
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+}
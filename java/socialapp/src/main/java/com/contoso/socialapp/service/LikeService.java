@@ -1,43 +1,148 @@
 package com.contoso.socialapp.service;
 
+import com.contoso.socialapp.config.CacheConfig;
 import com.contoso.socialapp.dto.LikeRequest;
 import com.contoso.socialapp.dto.LikeResponse;
-import com.contoso.socialapp.entity.Like;
+import com.contoso.socialapp.dto.LikersResponse;
+import com.contoso.socialapp.event.LikeAddedEvent;
+import com.contoso.socialapp.event.LikeRemovedEvent;
+import com.contoso.socialapp.event.PostCountersChangedEvent;
 import com.contoso.socialapp.exception.AlreadyLikedException;
-import com.contoso.socialapp.repository.LikeRepository;
+import com.contoso.socialapp.exception.InvalidRequestException;
+import com.contoso.socialapp.like.LikeBuffer;
+import com.contoso.socialapp.like.LikeCounters;
+import com.contoso.socialapp.like.LikerIndex;
+import com.contoso.socialapp.like.StoredLikes;
+import com.contoso.socialapp.store.LikeStore;
+import com.contoso.socialapp.user.UsernameDictionary;
+import com.contoso.socialapp.write.GroupCommit;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class LikeService {
     
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final LikeStore likeStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LikeBuffer likeBuffer;
+    private final LikeCounters likeCounters;
+    private final StoredLikes storedLikes;
+    private final LikerIndex likerIndex;
+    private final UsernameDictionary usernameDictionary;
     
-    private final LikeRepository likeRepository;
+    @Value("${app.likes.likers.max-usernames:100}")
+    private int maxLikerUsernames;
     
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @GroupCommit(inlineWhen = "app.likes.write-behind.enabled")
     @Transactional
     public LikeResponse likePost(String postId, LikeRequest request) {
-        if (likeRepository.existsByPostIdAndUsername(postId, request.getUsername())) {
-            throw new AlreadyLikedException("Already liked");
+        String username = request.getUsername();
+        int userId = usernameDictionary.idFor(username);
+        likeCounters.trackChange(postId);
+        if (likeBuffer.isEnabled()) {
+            long likedAt = System.currentTimeMillis();
+            if (!likeBuffer.like(postId, userId, likedAt)) {
+                throw new AlreadyLikedException("Already liked");
+            }
+            eventPublisher.publishEvent(new PostCountersChangedEvent(postId, 1, 0));
+            return new LikeResponse(postId, username, Instant.ofEpochMilli(likedAt));
         }
         
-        Like like = new Like();
-        like.setPostId(postId);
-        like.setUsername(request.getUsername());
-        // Let @PrePersist handle setting createdAt timestamp
+        if (storedLikes.exists(postId, userId)) {
+            throw new AlreadyLikedException("Already liked");
+        }
         
-        Like savedLike = likeRepository.save(like);
+        long likedAt = System.currentTimeMillis();
+        // The in-memory lookups can lag behind the store; the insert itself has the final say
+        if (!likeStore.insert(postId, userId, likedAt)) {
+            throw new AlreadyLikedException("Already liked");
+        }
+        eventPublisher.publishEvent(new LikeAddedEvent(postId, userId));
+        // The likes count itself is kept by LikeCounters, which listens for this event
+        eventPublisher.publishEvent(new PostCountersChangedEvent(postId, 1, 0));
         
-        return new LikeResponse(postId, request.getUsername(), LocalDateTime.parse(savedLike.getCreatedAt(), FORMATTER));
+        return new LikeResponse(postId, username, Instant.ofEpochMilli(likedAt));
     }
     
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @GroupCommit(inlineWhen = "app.likes.write-behind.enabled")
     @Transactional
     public void unlikePost(String postId, String username) {
-        likeRepository.deleteByPostIdAndUsername(postId, username);
+        OptionalInt found = usernameDictionary.find(username);
+        if (found.isEmpty()) {
+            // Never registered, so there is nothing to unlike
+            return;
+        }
+        int userId = found.getAsInt();
+        likeCounters.trackChange(postId);
+        
+        if (likeBuffer.isEnabled()) {
+            if (likeBuffer.unlike(postId, userId)) {
+                eventPublisher.publishEvent(new PostCountersChangedEvent(postId, -1, 0));
+            }
+            return;
+        }
+        
+        if (likeStore.delete(postId, userId)) {
+            eventPublisher.publishEvent(new PostCountersChangedEvent(postId, -1, 0));
+            eventPublisher.publishEvent(new LikeRemovedEvent(postId, userId));
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public LikersResponse findLikers(String postId, List<String> usernames) {
+        Set<String> requested = new LinkedHashSet<>(usernames);
+        if (requested.size() > maxLikerUsernames) {
+            throw new InvalidRequestException("At most " + maxLikerUsernames + " usernames can be checked at once");
+        }
+        
+        // Users missing from the dictionary have never liked anything
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (String username : requested) {
+            usernameDictionary.find(username).ifPresent(userId -> candidates.put(username, userId));
+        }
+        List<Integer> candidateIds = new ArrayList<>(candidates.values());
+        
+        Set<Integer> likerIds = new HashSet<>();
+        if (likerIndex.isEnabled()) {
+            int[] userIds = candidateIds.stream().mapToInt(Integer::intValue).toArray();
+            Arrays.stream(likerIndex.likedBy(postId, userIds)).forEach(likerIds::add);
+        } else if (!candidateIds.isEmpty()) {
+            likerIds.addAll(likeStore.findLikers(postId, candidateIds));
+        }
+        if (likeBuffer.isEnabled()) {
+            for (Integer userId : candidateIds) {
+                Boolean pending = likeBuffer.pendingState(postId, userId);
+                if (Boolean.TRUE.equals(pending)) {
+                    likerIds.add(userId);
+                } else if (Boolean.FALSE.equals(pending)) {
+                    likerIds.remove(userId);
+                }
+            }
+        }
+        
+        List<String> likedBy = candidates.entrySet().stream()
+                .filter(candidate -> likerIds.contains(candidate.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        return new LikersResponse(postId, likedBy);
     }
 }
@@ -0,0 +1,68 @@
+package com.contoso.socialapp.service;
+
+import com.contoso.socialapp.like.LikeCounters;
+import com.contoso.socialapp.store.PostStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * Writes every post as a JSON array as the store streams them (from a JDBC cursor with the JPA
+ * engine), so heap use does not grow with the table and the first bytes leave before the query
+ * has finished.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostExportService {
+    
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    
+    private final PostStore postStore;
+    private final ObjectMapper objectMapper;
+    private final LikeCounters likeCounters;
+    
+    // Read-only so the long-running cursor is served by a reader connection, not the writer
+    @Transactional(readOnly = true)
+    public void exportPosts(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            generator.flush();
+            
+            int[] rows = {0};
+            postStore.forEachNewestFirst(post -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeStringField("id", post.getId());
+                    generator.writeStringField("username", post.getUsername());
+                    generator.writeStringField("content", post.getContent());
+                    generator.writeStringField("createdAt", toIso(post.getCreatedAt()));
+                    generator.writeStringField("updatedAt", toIso(post.getUpdatedAt()));
+                    generator.writeNumberField("likesCount", likeCounters.likesCount(post.getId(), post.getLikesCount()));
+                    generator.writeNumberField("commentsCount", post.getCommentsCount());
+                    generator.writeEndObject();
+                    if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    // Client went away; abandon the cursor rather than reading the rest of the table
+                    throw new UncheckedIOException(e);
+                }
+            });
+            
+            generator.writeEndArray();
+        }
+    }
+    
+    // Same ISO-8601 instant form Jackson writes for the Instant fields of PostDto
+    private static String toIso(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).toString();
+    }
+}
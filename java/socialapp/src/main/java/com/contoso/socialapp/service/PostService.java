@@ -1,92 +1,308 @@
 package com.contoso.socialapp.service;
 
+import com.contoso.socialapp.cache.CachedPost;
+import com.contoso.socialapp.cache.ContentVersions;
+import com.contoso.socialapp.config.CacheConfig;
 import com.contoso.socialapp.dto.*;
 import com.contoso.socialapp.entity.Post;
+import com.contoso.socialapp.event.PostDeletedEvent;
+import com.contoso.socialapp.event.PostSavedEvent;
+import com.contoso.socialapp.exception.InvalidRequestException;
 import com.contoso.socialapp.exception.ResourceNotFoundException;
-import com.contoso.socialapp.repository.PostRepository;
+import com.contoso.socialapp.feed.HotFeed;
+import com.contoso.socialapp.id.IdGenerator;
+import com.contoso.socialapp.like.LikeCounters;
+import com.contoso.socialapp.pagination.Cursor;
+import com.contoso.socialapp.pagination.CursorPage;
+import com.contoso.socialapp.pagination.PageLimits;
+import com.contoso.socialapp.repository.PostSummary;
+import com.contoso.socialapp.search.InvertedIndex;
+import com.contoso.socialapp.search.PostSearchIndex;
+import com.contoso.socialapp.store.PostStore;
+import com.contoso.socialapp.write.GroupCommit;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PostService {
     
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final PostStore postStore;
+    private final HotFeed hotFeed;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LikeCounters likeCounters;
+    private final Validator validator;
+    private final IdGenerator idGenerator;
+    private final PostSearchIndex postSearchIndex;
+    private final CacheManager cacheManager;
+    private final ContentVersions contentVersions;
     
-    private final PostRepository postRepository;
+    @Value("${app.posts.page.default-size:20}")
+    private int defaultPageSize;
     
-    @Transactional(readOnly = true)
-    public List<PostDto> getAllPosts() {
-        return postRepository.findAllOrderByCreatedAtDesc()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Value("${app.posts.page.max-size:100}")
+    private int maxPageSize;
+    
+    @Value("${app.posts.batch-get.max-ids:100}")
+    private int maxBatchGetIds;
+    
+    @Value("${app.bulk.max-items:1000}")
+    private int maxBulkItems;
+    
+    // SUPPORTS: a first page served from the hot feed should not begin a database transaction
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CursorPage<PostDto> getPosts(Integer limit, String after) {
+        int pageSize = PageLimits.resolve(limit, defaultPageSize, maxPageSize);
+        // Fetch one extra row to learn whether another page follows without a COUNT query
+        int fetchSize = pageSize + 1;
+        
+        List<PostDto> posts;
+        if (after == null || after.isBlank()) {
+            posts = hotFeed.head(fetchSize).orElseGet(() -> loadFirstPage(fetchSize));
+        } else {
+            Cursor cursor = Cursor.decode(after);
+            posts = likeCounters.read(() ->
+                    convertToDtos(postStore.findFeedPageAfter(cursor.getSortKey(), cursor.getId(), fetchSize)));
+        }
+        
+        String nextCursor = null;
+        if (posts.size() > pageSize) {
+            posts = posts.subList(0, pageSize);
+            PostDto last = posts.get(pageSize - 1);
+            nextCursor = new Cursor(last.getCreatedAt().toEpochMilli(), last.getId()).encode();
+        }
+        return new CursorPage<>(posts, nextCursor);
     }
     
+    @GroupCommit
     @Transactional
     public PostDto createPost(NewPostRequest request) {
-        String postId = generateId();
+        String postId = idGenerator.nextId();
         
         Post post = new Post();
         post.setId(postId);
         post.setUsername(request.getUsername());
         post.setContent(request.getContent());
-        // Let @PrePersist handle setting timestamps
         
-        Post savedPost = postRepository.save(post);
-        return convertToDto(savedPost);
+        Post savedPost = postStore.insert(post);
+        PostDto dto = convertToDto(savedPost);
+        eventPublisher.publishEvent(new PostSavedEvent(dto, null));
+        return dto;
+    }
+    
+    @Transactional
+    public BulkCreateResponse createPosts(List<NewPostRequest> requests) {
+        BulkItems.checkSize(requests, maxBulkItems);
+        long now = System.currentTimeMillis();
+        
+        List<Post> posts = new ArrayList<>();
+        List<BulkItemResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            NewPostRequest request = requests.get(i);
+            List<String> errors = BulkItems.violations(validator, request);
+            if (!errors.isEmpty()) {
+                results.add(new BulkItemResult(i, false, null, errors));
+                continue;
+            }
+            
+            Post post = new Post();
+            post.setId(idGenerator.nextId());
+            post.setUsername(request.getUsername());
+            post.setContent(request.getContent());
+            post.setCreatedAt(now);
+            post.setUpdatedAt(now);
+            posts.add(post);
+            results.add(new BulkItemResult(i, true, post.getId(), List.of()));
+        }
+        
+        postStore.insertAll(posts);
+        posts.forEach(post -> eventPublisher.publishEvent(new PostSavedEvent(convertToDto(post), null)));
+        return new BulkCreateResponse(posts.size(), requests.size() - posts.size(), results);
     }
     
     @Transactional(readOnly = true)
     public PostDto getPostById(String postId) {
-        Post post = postRepository.findById(postId)
+        // Read before loading, so the cached copy is never stamped newer than the data it holds
+        ContentVersions.Version version = contentVersions.post(postId);
+        Cache posts = cacheManager.getCache(CacheConfig.POSTS);
+        CachedPost cached = posts.get(postId, CachedPost.class);
+        if (cached != null && cached.isCurrent(version)) {
+            return cached.getPost();
+        }
+        
+        PostDto post = likeCounters.read(() -> postStore.findSummaryById(postId).map(this::convertToDto))
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-        return convertToDto(post);
+        posts.put(postId, new CachedPost(post, version));
+        return post;
+    }
+    
+    /**
+     * Loads the given posts into the post cache in one query, stamped like {@link #getPostById}.
+     * Posts that no longer exist are skipped.
+     */
+    @Transactional(readOnly = true)
+    public int cachePosts(Collection<String> postIds) {
+        Map<String, ContentVersions.Version> versions = postIds.stream()
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), contentVersions::post));
+        List<PostDto> loaded = likeCounters.read(() -> convertToDtos(postStore.findSummariesByIdIn(versions.keySet())));
+        
+        Cache posts = cacheManager.getCache(CacheConfig.POSTS);
+        loaded.forEach(post -> posts.put(post.getId(), new CachedPost(post, versions.get(post.getId()))));
+        return loaded.size();
+    }
+    
+    @Transactional(readOnly = true)
+    public BatchGetPostsResponse getPostsByIds(List<String> ids) {
+        Set<String> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > maxBatchGetIds) {
+            throw new InvalidRequestException("At most " + maxBatchGetIds + " distinct ids can be requested at once");
+        }
+        
+        Map<String, PostDto> postsById = likeCounters.read(() -> postStore.findSummariesByIdIn(uniqueIds)
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toMap(PostDto::getId, Function.identity())));
+        
+        List<PostLookupResult> results = ids.stream()
+                .map(id -> {
+                    PostDto post = postsById.get(id);
+                    return new PostLookupResult(id, post != null, post);
+                })
+                .collect(Collectors.toList());
+        return new BatchGetPostsResponse(results);
+    }
+    
+    /**
+     * Posts matching the query's words, best BM25 match first. The cursor holds the last hit's
+     * score and post ID, so a page follows on from where the previous one ended even if the index
+     * changed in between.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostDto> searchPosts(String query, Integer limit, String after) {
+        int pageSize = PageLimits.resolve(limit, defaultPageSize, maxPageSize);
+        InvertedIndex.Hit position = null;
+        if (after != null && !after.isBlank()) {
+            Cursor cursor = Cursor.decode(after);
+            if (cursor.getSortKey() != (int) cursor.getSortKey()) {
+                throw new InvalidRequestException("Malformed cursor");
+            }
+            position = new InvertedIndex.Hit(cursor.getId(), Float.intBitsToFloat((int) cursor.getSortKey()));
+        }
+        
+        List<InvertedIndex.Hit> hits = postSearchIndex.search(query, pageSize + 1, position);
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            InvertedIndex.Hit last = hits.get(pageSize - 1);
+            nextCursor = new Cursor(Float.floatToIntBits(last.getScore()), last.getPostId()).encode();
+        }
+        
+        List<String> ids = hits.stream()
+                .map(InvertedIndex.Hit::getPostId)
+                .collect(Collectors.toList());
+        // Posts deleted since the index last saw them simply drop out of the page
+        Map<String, PostDto> postsById = likeCounters.read(() -> postStore.findSummariesByIdIn(ids)
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toMap(PostDto::getId, Function.identity())));
+        List<PostDto> posts = hits.stream()
+                .map(hit -> postsById.get(hit.getPostId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new CursorPage<>(posts, nextCursor);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<PostDto> getMostLikedPosts(int limit) {
+        return likeCounters.read(() -> convertToDtos(postStore.findMostLiked(limit)));
     }
     
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @GroupCommit
     @Transactional
     public PostDto updatePost(String postId, UpdatePostRequest request) {
-        Post post = postRepository.findById(postId)
+        Post post = postStore.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+        String previousContent = post.getContent();
         
         post.setUsername(request.getUsername());
         post.setContent(request.getContent());
-        // Let @PreUpdate handle setting updatedAt timestamp
         
-        Post savedPost = postRepository.save(post);
-        return convertToDto(savedPost);
+        Post savedPost = postStore.update(post);
+        PostDto dto = convertToDto(savedPost);
+        eventPublisher.publishEvent(new PostSavedEvent(dto, previousContent));
+        return dto;
     }
     
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @GroupCommit
     @Transactional
     public void deletePost(String postId) {
-        if (!postRepository.existsById(postId)) {
+        if (!postStore.existsById(postId)) {
             throw new ResourceNotFoundException("Post not found");
         }
-        postRepository.deleteById(postId);
+        postStore.deleteById(postId);
+        eventPublisher.publishEvent(new PostDeletedEvent(postId));
+    }
+    
+    private List<PostDto> loadFirstPage(int fetchSize) {
+        if (fetchSize > hotFeed.getCapacity()) {
+            return likeCounters.read(() -> convertToDtos(postStore.findFeedPage(fetchSize)));
+        }
+        // Read a full buffer's worth so the next first-page request is served from memory
+        long stamp = hotFeed.stamp();
+        List<PostDto> newest = likeCounters.read(() -> convertToDtos(postStore.findFeedPage(hotFeed.getCapacity())));
+        hotFeed.refill(newest, stamp);
+        return newest.subList(0, Math.min(fetchSize, newest.size()));
+    }
+    
+    private List<PostDto> convertToDtos(List<PostSummary> summaries) {
+        return summaries.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+    
+    private PostDto convertToDto(PostSummary summary) {
+        return new PostDto(
+                summary.getId(),
+                summary.getUsername(),
+                summary.getContent(),
+                Instant.ofEpochMilli(summary.getCreatedAt()),
+                Instant.ofEpochMilli(summary.getUpdatedAt()),
+                likeCounters.likesCount(summary.getId(), summary.getLikesCount()),
+                summary.getCommentsCount()
+        );
     }
     
     private PostDto convertToDto(Post post) {
-        int likesCount = postRepository.countLikesByPostId(post.getId());
-        int commentsCount = postRepository.countCommentsByPostId(post.getId());
-        
         return new PostDto(
                 post.getId(),
                 post.getUsername(),
                 post.getContent(),
-                LocalDateTime.parse(post.getCreatedAt(), FORMATTER),
-                LocalDateTime.parse(post.getUpdatedAt(), FORMATTER),
-                likesCount,
-                commentsCount
+                Instant.ofEpochMilli(post.getCreatedAt()),
+                Instant.ofEpochMilli(post.getUpdatedAt()),
+                likeCounters.likesCount(post.getId(), post.getLikesCount()),
+                post.getCommentsCount()
         );
     }
-    
-    private String generateId() {
-        return String.valueOf(System.currentTimeMillis()).replace(".", "");
-    }
 }
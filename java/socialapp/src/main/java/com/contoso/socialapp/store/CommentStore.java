@@ -0,0 +1,49 @@
+package com.contoso.socialapp.store;
+
+import com.contoso.socialapp.entity.Comment;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage port for comments. Pages of a post's comments are ordered by (createdAt, id) ascending.
+ */
+public interface CommentStore {
+    
+    List<Comment> findPageByPostId(String postId, int limit);
+    
+    /**
+     * Page of the post's comments strictly after the (createdAt, id) position.
+     */
+    List<Comment> findPageByPostIdAfter(String postId, long createdAt, String id, int limit);
+    
+    long countByPostId(String postId);
+    
+    /**
+     * The comment as a detached copy, for changing and passing to {@link #update}.
+     */
+    Optional<Comment> findByIdAndPostId(String id, String postId);
+    
+    /**
+     * Stores a new comment, stamping createdAt and updatedAt.
+     */
+    Comment insert(Comment comment);
+    
+    /**
+     * Stores new comments with the timestamps they carry.
+     */
+    void insertAll(List<Comment> comments);
+    
+    /**
+     * Writes author and content back, stamping updatedAt.
+     */
+    Comment update(Comment comment);
+    
+    void delete(Comment comment);
+    
+    /**
+     * Streams every comment, in no particular order, without materializing them all.
+     */
+    void forEach(Consumer<Comment> action);
+}
@@ -0,0 +1,52 @@
+package com.contoso.socialapp.store;
+
+import com.contoso.socialapp.entity.Like;
+import com.contoso.socialapp.entity.LikeId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Storage port for (postId, userId) like pairs.
+ */
+public interface LikeStore {
+    
+    boolean exists(String postId, int userId);
+    
+    /**
+     * @return false when the user already likes the post
+     */
+    boolean insert(String postId, int userId, long createdAt);
+    
+    /**
+     * @return true when a like was removed
+     */
+    boolean delete(String postId, int userId);
+    
+    /**
+     * The subset of {@code userIds} that like the post.
+     */
+    List<Integer> findLikers(String postId, Collection<Integer> userIds);
+    
+    /**
+     * Inserts the likes that are not stored yet.
+     *
+     * @return per like, 1 when it was inserted and 0 when it already existed
+     */
+    int[] insertAll(List<Like> likes);
+    
+    /**
+     * @return per pair, 1 when it was deleted and 0 when it did not exist
+     */
+    int[] deleteAll(List<LikeId> ids);
+    
+    long count();
+    
+    long countByPostId(String postId);
+    
+    /**
+     * Visits every stored pair as (postId, userId).
+     */
+    void forEach(ObjIntConsumer<String> action);
+}
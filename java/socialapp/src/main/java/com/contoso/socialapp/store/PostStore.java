@@ -0,0 +1,82 @@
+package com.contoso.socialapp.store;
+
+import com.contoso.socialapp.entity.Post;
+import com.contoso.socialapp.repository.PostSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage port for posts and their denormalized like/comment counters. Feed pages are ordered by
+ * (createdAt, id) descending; the most-liked list by (likesCount, createdAt) descending.
+ */
+public interface PostStore {
+    
+    List<PostSummary> findFeedPage(int limit);
+    
+    /**
+     * Feed page of the posts strictly older than the (createdAt, id) position.
+     */
+    List<PostSummary> findFeedPageAfter(long createdAt, String id, int limit);
+    
+    List<PostSummary> findMostLiked(int limit);
+    
+    Optional<PostSummary> findSummaryById(String id);
+    
+    List<PostSummary> findSummariesByIdIn(Collection<String> ids);
+    
+    /**
+     * The post as a detached copy, for changing and passing to {@link #update}.
+     */
+    Optional<Post> findById(String id);
+    
+    boolean existsById(String id);
+    
+    long count();
+    
+    /**
+     * Stores a new post, stamping createdAt and updatedAt.
+     */
+    Post insert(Post post);
+    
+    /**
+     * Stores new posts with the timestamps they carry.
+     */
+    void insertAll(List<Post> posts);
+    
+    /**
+     * Writes username and content back, stamping updatedAt.
+     */
+    Post update(Post post);
+    
+    /**
+     * Deletes the post together with its comments and likes; a missing post is ignored.
+     */
+    void deleteById(String id);
+    
+    int adjustLikesCount(String id, int delta);
+    
+    int adjustCommentsCount(String id, int delta);
+    
+    /**
+     * IDs of the posts whose stored likes count disagrees with the likes they have. The counts
+     * are left alone: live likes counts run ahead of the column, so only the caller can tell
+     * which of these have really drifted.
+     */
+    List<String> findLikesCountMismatches();
+    
+    /**
+     * Recounts comments for every post whose counter disagrees with the comments it has.
+     *
+     * @return the change made to each repaired post's counter
+     */
+    Map<String, Integer> reconcileCommentsCounts();
+    
+    /**
+     * Streams every post in feed order without materializing them all.
+     */
+    void forEachNewestFirst(Consumer<PostSummary> action);
+}
@@ -0,0 +1,24 @@
+package com.contoso.socialapp.store;
+
+import java.util.Optional;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Storage port for the username dictionary (username <-> integer ID).
+ */
+public interface UserStore {
+    
+    /**
+     * Registers the username unless it exists; concurrent callers end up with one ID.
+     */
+    void insertIfAbsent(String username);
+    
+    Optional<Integer> findIdByUsername(String username);
+    
+    Optional<String> findUsernameById(int id);
+    
+    /**
+     * Visits every user as (username, id).
+     */
+    void forEach(ObjIntConsumer<String> action);
+}
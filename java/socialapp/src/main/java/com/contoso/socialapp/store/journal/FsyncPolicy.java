@@ -0,0 +1,24 @@
+package com.contoso.socialapp.store.journal;
+
+/**
+ * When journal writes are forced to disk. Until then a record survives a process crash (it is in
+ * the page cache) but not a power loss.
+ */
+public enum FsyncPolicy {
+    
+    /**
+     * Every record is forced before its write returns.
+     */
+    EVERY_WRITE,
+    
+    /**
+     * Every write waits until its record is forced, but one force covers everything appended by the
+     * writers waiting at that moment.
+     */
+    GROUP,
+    
+    /**
+     * Writes return immediately; the journal is forced on a fixed interval.
+     */
+    INTERVAL
+}
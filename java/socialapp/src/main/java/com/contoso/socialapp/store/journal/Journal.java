@@ -0,0 +1,354 @@
+package com.contoso.socialapp.store.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of binary records in memory-mapped segment files named by sequence number.
+ * A record is {@code length (int), CRC32C of the body (int), body}, where the body starts with a
+ * type byte; a zero length marks the end of a segment, whose unused tail is still zero-filled.
+ *
+ * <p>A position in the journal is {@code segment sequence << 32 | offset}; positions persist across
+ * restarts, so a snapshot can name the point it was taken at and only later records need to be
+ * replayed.</p>
+ *
+ * <p>Writers fill the record returned by {@link #begin} and {@link #commit} it, all under one lock.
+ * The record buffer, the checksum and the mapped segment are reused, so appending allocates
+ * nothing. Whether a commit is on disk when it returns depends on the {@link FsyncPolicy}; callers
+ * wait for it with {@link #sync}, preferably after releasing their own locks.</p>
+ *
+ * <p>A record torn by a crash can only be the last one of the last segment; it is dropped when
+ * the journal is opened. A bad record anywhere else means the journal is corrupt and it is
+ * refused.</p>
+ */
+@Slf4j
+public final class Journal implements AutoCloseable {
+    
+    /**
+     * Largest record body; posts of 2000 characters fit comfortably.
+     */
+    static final int MAX_RECORD = 64 * 1024;
+    static final int MIN_SEGMENT = 1024 * 1024;
+    
+    private static final int HEADER = 8;
+    private static final String SUFFIX = ".journal";
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsync;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer record = ByteBuffer.allocate(MAX_RECORD);
+    private final CRC32C checksum = new CRC32C();
+    private final Object syncMonitor = new Object();
+    private final AtomicLong durable = new AtomicLong();
+    
+    private MappedByteBuffer segment;
+    private long sequence;
+    
+    private Journal(Path directory, int segmentSize, FsyncPolicy fsync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+    }
+    
+    /**
+     * Opens the journal in the directory, passing every stored record from the position on to the
+     * handler, in order, before any new record can be appended.
+     *
+     * @param from 0 for the whole journal, or a position returned by {@link #position()}
+     */
+    public static Journal open(Path directory, int segmentSize, FsyncPolicy fsync, long from,
+                               RecordHandler handler) throws IOException {
+        if (segmentSize < MIN_SEGMENT) {
+            throw new IllegalArgumentException("Journal segments must be at least " + MIN_SEGMENT + " bytes");
+        }
+        Files.createDirectories(directory);
+        Journal journal = new Journal(directory, segmentSize, fsync);
+        journal.replay(from, handler);
+        return journal;
+    }
+    
+    private void replay(long from, RecordHandler handler) throws IOException {
+        long fromSequence = from >>> 32;
+        int fromOffset = (int) from;
+        List<Path> segments = segments().stream().filter(path -> sequenceOf(path) >= fromSequence).toList();
+        if (!segments.isEmpty() && from != 0 && sequenceOf(segments.get(0)) != fromSequence) {
+            throw new IllegalStateException("Journal segment " + fromSequence + " is missing from " + directory);
+        }
+        long records = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < segments.size(); i++) {
+            boolean last = i == segments.size() - 1;
+            MappedByteBuffer mapped = map(segments.get(i), last ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, -1);
+            if (i == 0) {
+                mapped.position(fromOffset);
+            }
+            records += replay(segments.get(i), mapped, last, handler);
+            if (last) {
+                segment = mapped;
+                sequence = sequenceOf(segments.get(i));
+            }
+        }
+        if (segment == null) {
+            // Nothing on disk past the starting point; carry on after it so positions keep growing
+            sequence = fromOffset == 0 ? fromSequence : fromSequence + 1;
+            segment = map(segmentPath(sequence), FileChannel.MapMode.READ_WRITE, segmentSize);
+        }
+        log.info("Replayed {} journal records from {} segments in {} ms", records, segments.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    private long replay(Path path, MappedByteBuffer mapped, boolean last, RecordHandler handler) {
+        long records = 0;
+        while (mapped.remaining() >= HEADER) {
+            int start = mapped.position();
+            int length = mapped.getInt(start);
+            if (length == 0) {
+                break;
+            }
+            if (length > 0 && length <= MAX_RECORD && length <= mapped.remaining() - HEADER) {
+                ByteBuffer body = mapped.slice(start + HEADER, length);
+                checksum.reset();
+                checksum.update(body.duplicate());
+                if ((int) checksum.getValue() == mapped.getInt(start + 4)) {
+                    byte type = body.get();
+                    handler.apply(type, body.asReadOnlyBuffer());
+                    mapped.position(start + HEADER + length);
+                    records++;
+                    continue;
+                }
+            }
+            if (!last) {
+                throw new IllegalStateException("Corrupt journal record in " + path + " at offset " + start);
+            }
+            // A write the crash interrupted; zero it so later appends never run into its remains
+            log.warn("Dropping torn journal record in {} at offset {}", path, start);
+            for (int offset = start; offset < mapped.limit(); offset++) {
+                mapped.put(offset, (byte) 0);
+            }
+            mapped.force();
+            break;
+        }
+        return records;
+    }
+    
+    /**
+     * Locks the journal and returns the record to fill, its type already written. Must be followed
+     * by {@link #commit} or, if filling the record fails, {@link #abort}.
+     */
+    public ByteBuffer begin(byte type) {
+        lock.lock();
+        record.clear();
+        record.put(type);
+        return record;
+    }
+    
+    /**
+     * Appends the record and unlocks the journal.
+     *
+     * @return the journal position after the record, for {@link #sync}
+     */
+    public long commit() {
+        try {
+            record.flip();
+            int length = record.remaining();
+            checksum.reset();
+            checksum.update(record);
+            record.rewind();
+            if (segment.remaining() < HEADER + length) {
+                roll();
+            }
+            int start = segment.position();
+            segment.putInt(length);
+            segment.putInt((int) checksum.getValue());
+            segment.put(record);
+            long position = position(sequence, segment.position());
+            if (fsync == FsyncPolicy.EVERY_WRITE) {
+                segment.force(start, HEADER + length);
+                durable.set(position);
+            }
+            return position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll the journal segment", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Unlocks the journal without appending the record; does nothing if it is not locked.
+     */
+    public void abort() {
+        if (lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Waits until the journal is on disk up to the position, when the policy makes writers wait.
+     * Under {@link FsyncPolicy#GROUP} the first waiter forces everything appended so far, while the
+     * writers that queued behind it find their records covered.
+     */
+    public void sync(long position) {
+        if (fsync != FsyncPolicy.GROUP || durable.get() >= position) {
+            return;
+        }
+        synchronized (syncMonitor) {
+            if (durable.get() < position) {
+                force();
+            }
+        }
+    }
+    
+    /**
+     * The position after the last record appended so far.
+     */
+    public long position() {
+        lock.lock();
+        try {
+            return position(sequence, segment.position());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Forces everything appended so far to disk.
+     */
+    public void force() {
+        MappedByteBuffer target;
+        int length;
+        long position;
+        lock.lock();
+        try {
+            target = segment;
+            length = segment.position();
+            position = position(sequence, length);
+        } finally {
+            lock.unlock();
+        }
+        target.force(0, length);
+        durable.accumulateAndGet(position, Math::max);
+    }
+    
+    /**
+     * Deletes the segments that hold nothing at or after the position, once a snapshot has made
+     * them redundant.
+     */
+    public void deleteSegmentsBefore(long position) throws IOException {
+        long keep = position >>> 32;
+        for (Path path : segments()) {
+            if (sequenceOf(path) < keep) {
+                Files.delete(path);
+                log.debug("Deleted journal segment {}", path);
+            }
+        }
+    }
+    
+    // Called under the lock; the full segment is forced before writes move on to the next one
+    private void roll() throws IOException {
+        segment.force();
+        durable.accumulateAndGet(position(sequence, segment.position()), Math::max);
+        sequence++;
+        segment = map(segmentPath(sequence), FileChannel.MapMode.READ_WRITE, segmentSize);
+        log.debug("Rolled the journal over to segment {}", sequence);
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+    
+    private static long position(long sequence, int offset) {
+        return sequence << 32 | offset;
+    }
+    
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%020d%s", sequence, SUFFIX));
+    }
+    
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+    
+    // A size of -1 maps the file as it is; the mapping stays valid after the channel is closed
+    private static MappedByteBuffer map(Path path, FileChannel.MapMode mode, int size) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[] {StandardOpenOption.READ}
+                : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            return channel.map(mode, 0, size < 0 ? channel.size() : size);
+        }
+    }
+    
+    @Override
+    public void close() {
+        force();
+    }
+    
+    /**
+     * Writes the string as {@code byteLength (int), UTF-8 bytes} without allocating.
+     *
+     * @throws BufferOverflowException when the record would exceed {@link #MAX_RECORD}
+     */
+    public static void putString(ByteBuffer out, String value) {
+        int lengthAt = out.position();
+        out.putInt(0);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | codePoint >> 18));
+                out.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                out.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // An unpaired surrogate, which String.getBytes turns into '?' as well
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3F));
+                out.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        out.putInt(lengthAt, out.position() - lengthAt - 4);
+    }
+    
+    public static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    @FunctionalInterface
+    public interface RecordHandler {
+        
+        /**
+         * @param body the record after its type byte
+         */
+        void apply(byte type, ByteBuffer body);
+    }
+}
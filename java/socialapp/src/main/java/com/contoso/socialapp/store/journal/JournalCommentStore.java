@@ -0,0 +1,97 @@
+package com.contoso.socialapp.store.journal;
+
+import com.contoso.socialapp.entity.Comment;
+import com.contoso.socialapp.store.CommentStore;
+import com.contoso.socialapp.store.memory.MemoryCommentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * The in-memory comment store with every change appended to the {@link StoreJournal}.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "journal")
+@RequiredArgsConstructor
+public class JournalCommentStore implements CommentStore {
+    
+    private final MemoryCommentStore commentStore;
+    private final StoreJournal journal;
+    private final Stripes stripes = new Stripes();
+    
+    @Override
+    public List<Comment> findPageByPostId(String postId, int limit) {
+        return commentStore.findPageByPostId(postId, limit);
+    }
+    
+    @Override
+    public List<Comment> findPageByPostIdAfter(String postId, long createdAt, String id, int limit) {
+        return commentStore.findPageByPostIdAfter(postId, createdAt, id, limit);
+    }
+    
+    @Override
+    public long countByPostId(String postId) {
+        return commentStore.countByPostId(postId);
+    }
+    
+    @Override
+    public Optional<Comment> findByIdAndPostId(String id, String postId) {
+        return commentStore.findByIdAndPostId(id, postId);
+    }
+    
+    @Override
+    public Comment insert(Comment comment) {
+        long position;
+        synchronized (stripes.of(comment.getId())) {
+            commentStore.insert(comment);
+            position = journal.commentInserted(comment);
+        }
+        journal.sync(position);
+        return comment;
+    }
+    
+    @Override
+    public void insertAll(List<Comment> comments) {
+        long position = 0;
+        for (Comment comment : comments) {
+            synchronized (stripes.of(comment.getId())) {
+                commentStore.insertAll(List.of(comment));
+                position = journal.commentInserted(comment);
+            }
+        }
+        journal.sync(position);
+    }
+    
+    @Override
+    public Comment update(Comment comment) {
+        Comment updated;
+        long position;
+        synchronized (stripes.of(comment.getId())) {
+            updated = commentStore.update(comment);
+            position = journal.commentUpdated(updated);
+        }
+        journal.sync(position);
+        return updated;
+    }
+    
+    @Override
+    public void delete(Comment comment) {
+        long position;
+        synchronized (stripes.of(comment.getId())) {
+            commentStore.delete(comment);
+            position = journal.commentDeleted(comment.getId());
+        }
+        journal.sync(position);
+    }
+    
+    @Override
+    public void forEach(Consumer<Comment> action) {
+        commentStore.forEach(action);
+    }
+}
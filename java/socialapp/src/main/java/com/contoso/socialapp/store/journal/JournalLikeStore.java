@@ -0,0 +1,118 @@
+package com.contoso.socialapp.store.journal;
+
+import com.contoso.socialapp.entity.Like;
+import com.contoso.socialapp.entity.LikeId;
+import com.contoso.socialapp.store.LikeStore;
+import com.contoso.socialapp.store.memory.MemoryLikeStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The in-memory like store with every like and unlike appended to the {@link StoreJournal}. Only
+ * changes that took effect are logged, so repeated likes cost no journal space.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "journal")
+@RequiredArgsConstructor
+public class JournalLikeStore implements LikeStore {
+    
+    private final MemoryLikeStore likeStore;
+    private final StoreJournal journal;
+    private final Stripes stripes = new Stripes();
+    
+    @Override
+    public boolean exists(String postId, int userId) {
+        return likeStore.exists(postId, userId);
+    }
+    
+    @Override
+    public boolean insert(String postId, int userId, long createdAt) {
+        long position;
+        synchronized (stripe(postId, userId)) {
+            if (!likeStore.insert(postId, userId, createdAt)) {
+                return false;
+            }
+            position = journal.likeInserted(postId, userId, createdAt);
+        }
+        journal.sync(position);
+        return true;
+    }
+    
+    @Override
+    public boolean delete(String postId, int userId) {
+        long position;
+        synchronized (stripe(postId, userId)) {
+            if (!likeStore.delete(postId, userId)) {
+                return false;
+            }
+            position = journal.likeDeleted(postId, userId);
+        }
+        journal.sync(position);
+        return true;
+    }
+    
+    @Override
+    public List<Integer> findLikers(String postId, Collection<Integer> userIds) {
+        return likeStore.findLikers(postId, userIds);
+    }
+    
+    @Override
+    public int[] insertAll(List<Like> likes) {
+        int[] counts = new int[likes.size()];
+        long position = 0;
+        for (int i = 0; i < counts.length; i++) {
+            Like like = likes.get(i);
+            synchronized (stripe(like.getPostId(), like.getUserId())) {
+                if (likeStore.insert(like.getPostId(), like.getUserId(), like.getCreatedAt())) {
+                    position = journal.likeInserted(like.getPostId(), like.getUserId(), like.getCreatedAt());
+                    counts[i] = 1;
+                }
+            }
+        }
+        journal.sync(position);
+        return counts;
+    }
+    
+    @Override
+    public int[] deleteAll(List<LikeId> ids) {
+        int[] counts = new int[ids.size()];
+        long position = 0;
+        for (int i = 0; i < counts.length; i++) {
+            LikeId id = ids.get(i);
+            synchronized (stripe(id.getPostId(), id.getUserId())) {
+                if (likeStore.delete(id.getPostId(), id.getUserId())) {
+                    position = journal.likeDeleted(id.getPostId(), id.getUserId());
+                    counts[i] = 1;
+                }
+            }
+        }
+        journal.sync(position);
+        return counts;
+    }
+    
+    @Override
+    public long count() {
+        return likeStore.count();
+    }
+    
+    @Override
+    public long countByPostId(String postId) {
+        return likeStore.countByPostId(postId);
+    }
+    
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        likeStore.forEach(action);
+    }
+    
+    private Object stripe(String postId, int userId) {
+        return stripes.of(31 * postId.hashCode() + userId);
+    }
+}
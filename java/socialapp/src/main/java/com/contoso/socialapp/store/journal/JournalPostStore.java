@@ -0,0 +1,174 @@
+package com.contoso.socialapp.store.journal;
+
+import com.contoso.socialapp.entity.Post;
+import com.contoso.socialapp.repository.PostSummary;
+import com.contoso.socialapp.store.PostStore;
+import com.contoso.socialapp.store.memory.MemoryCommentStore;
+import com.contoso.socialapp.store.memory.MemoryPostStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * The in-memory post store with every change appended to the {@link StoreJournal}. Reads go
+ * straight to the memory store.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "journal")
+@RequiredArgsConstructor
+public class JournalPostStore implements PostStore {
+    
+    private final MemoryPostStore postStore;
+    private final MemoryCommentStore commentStore;
+    private final StoreJournal journal;
+    private final Stripes stripes = new Stripes();
+    
+    @Override
+    public List<PostSummary> findFeedPage(int limit) {
+        return postStore.findFeedPage(limit);
+    }
+    
+    @Override
+    public List<PostSummary> findFeedPageAfter(long createdAt, String id, int limit) {
+        return postStore.findFeedPageAfter(createdAt, id, limit);
+    }
+    
+    @Override
+    public List<PostSummary> findMostLiked(int limit) {
+        return postStore.findMostLiked(limit);
+    }
+    
+    @Override
+    public Optional<PostSummary> findSummaryById(String id) {
+        return postStore.findSummaryById(id);
+    }
+    
+    @Override
+    public List<PostSummary> findSummariesByIdIn(Collection<String> ids) {
+        return postStore.findSummariesByIdIn(ids);
+    }
+    
+    @Override
+    public Optional<Post> findById(String id) {
+        return postStore.findById(id);
+    }
+    
+    @Override
+    public boolean existsById(String id) {
+        return postStore.existsById(id);
+    }
+    
+    @Override
+    public long count() {
+        return postStore.count();
+    }
+    
+    @Override
+    public Post insert(Post post) {
+        long position;
+        synchronized (stripes.of(post.getId())) {
+            postStore.insert(post);
+            position = journal.postInserted(post);
+        }
+        journal.sync(position);
+        return post;
+    }
+    
+    @Override
+    public void insertAll(List<Post> posts) {
+        long position = 0;
+        for (Post post : posts) {
+            synchronized (stripes.of(post.getId())) {
+                postStore.insertAll(List.of(post));
+                position = journal.postInserted(post);
+            }
+        }
+        journal.sync(position);
+    }
+    
+    @Override
+    public Post update(Post post) {
+        long position;
+        synchronized (stripes.of(post.getId())) {
+            postStore.update(post);
+            position = journal.postUpdated(post);
+        }
+        journal.sync(position);
+        return post;
+    }
+    
+    @Override
+    public void deleteById(String id) {
+        long position;
+        synchronized (stripes.of(id)) {
+            postStore.deleteById(id);
+            position = journal.postDeleted(id);
+        }
+        journal.sync(position);
+    }
+    
+    @Override
+    public int adjustLikesCount(String id, int delta) {
+        return adjustCounts(id, delta, 0);
+    }
+    
+    @Override
+    public int adjustCommentsCount(String id, int delta) {
+        return adjustCounts(id, 0, delta);
+    }
+    
+    // Logs the counters' new values, which replay can apply over a snapshot that already has them
+    private int adjustCounts(String id, int likesDelta, int commentsDelta) {
+        long position;
+        synchronized (stripes.of(id)) {
+            PostSummary post = postStore.findSummaryById(id).orElse(null);
+            if (post == null) {
+                return 0;
+            }
+            int likesCount = post.getLikesCount() + likesDelta;
+            int commentsCount = post.getCommentsCount() + commentsDelta;
+            postStore.setCounts(id, likesCount, commentsCount);
+            position = journal.postCounts(id, likesCount, commentsCount);
+        }
+        journal.sync(position);
+        return 1;
+    }
+    
+    @Override
+    public List<String> findLikesCountMismatches() {
+        return postStore.findLikesCountMismatches();
+    }
+    
+    // The memory store's own reconciliation would change counters behind the journal's back, so
+    // drift is repaired here as logged adjustments
+    @Override
+    public Map<String, Integer> reconcileCommentsCounts() {
+        Map<String, Integer> repaired = new LinkedHashMap<>();
+        postStore.forEachNewestFirst(post -> {
+            String id = post.getId();
+            synchronized (stripes.of(id)) {
+                int drift = postStore.findSummaryById(id)
+                        .map(current -> (int) commentStore.countByPostId(id) - current.getCommentsCount())
+                        .orElse(0);
+                if (drift != 0 && adjustCommentsCount(id, drift) > 0) {
+                    repaired.put(id, drift);
+                }
+            }
+        });
+        return repaired;
+    }
+    
+    @Override
+    public void forEachNewestFirst(Consumer<PostSummary> action) {
+        postStore.forEachNewestFirst(action);
+    }
+}
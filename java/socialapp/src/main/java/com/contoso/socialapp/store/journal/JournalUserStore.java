@@ -0,0 +1,56 @@
+package com.contoso.socialapp.store.journal;
+
+import com.contoso.socialapp.store.UserStore;
+import com.contoso.socialapp.store.memory.MemoryUserStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The in-memory user store with every registration appended to the {@link StoreJournal}, ID
+ * included, so replay hands every username its old ID back.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "journal")
+@RequiredArgsConstructor
+public class JournalUserStore implements UserStore {
+    
+    private final MemoryUserStore userStore;
+    private final StoreJournal journal;
+    private final Stripes stripes = new Stripes();
+    
+    @Override
+    public void insertIfAbsent(String username) {
+        long position;
+        synchronized (stripes.of(username)) {
+            if (userStore.findIdByUsername(username).isPresent()) {
+                return;
+            }
+            userStore.insertIfAbsent(username);
+            int id = userStore.findIdByUsername(username)
+                    .orElseThrow(() -> new IllegalStateException("User vanished after insert: " + username));
+            position = journal.userInserted(id, username);
+        }
+        journal.sync(position);
+    }
+    
+    @Override
+    public Optional<Integer> findIdByUsername(String username) {
+        return userStore.findIdByUsername(username);
+    }
+    
+    @Override
+    public Optional<String> findUsernameById(int id) {
+        return userStore.findUsernameById(id);
+    }
+    
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        userStore.forEach(action);
+    }
+}
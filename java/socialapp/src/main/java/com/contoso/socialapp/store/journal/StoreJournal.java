@@ -0,0 +1,343 @@
+package com.contoso.socialapp.store.journal;
+
+import com.contoso.socialapp.entity.Comment;
+import com.contoso.socialapp.entity.Post;
+import com.contoso.socialapp.repository.PostSummary;
+import com.contoso.socialapp.store.memory.MemoryCommentStore;
+import com.contoso.socialapp.store.memory.MemoryLikeStore;
+import com.contoso.socialapp.store.memory.MemoryPostStore;
+import com.contoso.socialapp.store.memory.MemoryUserStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * The journal of the in-memory stores: one record type per store change, appended by the
+ * {@code Journal*Store} decorators. At startup the latest snapshot is restored into the memory
+ * stores and the journal is replayed from the position the snapshot was taken at, all before any
+ * store is handed out.
+ *
+ * <p>Snapshots are taken while writes carry on, so a snapshot may already hold changes that are
+ * logged after its position. Every record therefore sets state rather than changing it (counters
+ * are logged as their new values, inserts replace), and replaying a row's records over any later
+ * version of the row ends in the same place. Every append method returns the journal position to
+ * pass to {@link #sync} once the caller has released its locks.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "journal")
+@Slf4j
+public class StoreJournal {
+    
+    private static final byte POST_INSERTED = 1;
+    private static final byte POST_UPDATED = 2;
+    private static final byte POST_COUNTS = 3;
+    private static final byte POST_DELETED = 4;
+    private static final byte COMMENT_INSERTED = 5;
+    private static final byte COMMENT_UPDATED = 6;
+    private static final byte COMMENT_DELETED = 7;
+    private static final byte LIKE_INSERTED = 8;
+    private static final byte LIKE_DELETED = 9;
+    private static final byte USER_INSERTED = 10;
+    
+    private final FsyncPolicy fsync;
+    private final boolean snapshots;
+    private final Path snapshotPath;
+    private final MemoryPostStore postStore;
+    private final MemoryCommentStore commentStore;
+    private final MemoryLikeStore likeStore;
+    private final MemoryUserStore userStore;
+    private final Journal journal;
+    
+    private long snapshotPosition;
+    
+    public StoreJournal(@Value("${app.storage.journal.directory:journal}") String directory,
+                        @Value("${app.storage.journal.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${app.storage.journal.fsync:group}") FsyncPolicy fsync,
+                        @Value("${app.storage.snapshot.enabled:true}") boolean snapshots,
+                        MemoryPostStore postStore,
+                        MemoryCommentStore commentStore,
+                        MemoryLikeStore likeStore,
+                        MemoryUserStore userStore) throws IOException {
+        this.fsync = fsync;
+        this.snapshots = snapshots;
+        this.snapshotPath = Path.of(directory).resolve("store.snapshot");
+        this.postStore = postStore;
+        this.commentStore = commentStore;
+        this.likeStore = likeStore;
+        this.userStore = userStore;
+        
+        long started = System.nanoTime();
+        this.snapshotPosition = StoreSnapshot.read(snapshotPath, this::replay);
+        if (snapshotPosition != 0) {
+            log.info("Restored {} posts from {} in {} ms", postStore.count(), snapshotPath,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+        this.journal = Journal.open(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), fsync,
+                snapshotPosition, this::replay);
+    }
+    
+    public long postInserted(Post post) {
+        ByteBuffer out = journal.begin(POST_INSERTED);
+        try {
+            putPost(out, post.getId(), post.getUsername(), post.getContent(), post.getCreatedAt(),
+                    post.getUpdatedAt(), post.getLikesCount(), post.getCommentsCount());
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    public long postUpdated(Post post) {
+        ByteBuffer out = journal.begin(POST_UPDATED);
+        try {
+            Journal.putString(out, post.getId());
+            Journal.putString(out, post.getUsername());
+            Journal.putString(out, post.getContent());
+            out.putLong(post.getUpdatedAt());
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    public long postCounts(String id, int likesCount, int commentsCount) {
+        ByteBuffer out = journal.begin(POST_COUNTS);
+        try {
+            Journal.putString(out, id);
+            out.putInt(likesCount);
+            out.putInt(commentsCount);
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    public long postDeleted(String id) {
+        ByteBuffer out = journal.begin(POST_DELETED);
+        try {
+            Journal.putString(out, id);
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    public long commentInserted(Comment comment) {
+        ByteBuffer out = journal.begin(COMMENT_INSERTED);
+        try {
+            putComment(out, comment);
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    public long commentUpdated(Comment comment) {
+        ByteBuffer out = journal.begin(COMMENT_UPDATED);
+        try {
+            Journal.putString(out, comment.getId());
+            Journal.putString(out, comment.getPostId());
+            out.putInt(comment.getUserId());
+            Journal.putString(out, comment.getContent());
+            out.putLong(comment.getUpdatedAt());
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    public long commentDeleted(String id) {
+        ByteBuffer out = journal.begin(COMMENT_DELETED);
+        try {
+            Journal.putString(out, id);
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    public long likeInserted(String postId, int userId, long createdAt) {
+        ByteBuffer out = journal.begin(LIKE_INSERTED);
+        try {
+            putLike(out, postId, userId, createdAt);
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    public long likeDeleted(String postId, int userId) {
+        ByteBuffer out = journal.begin(LIKE_DELETED);
+        try {
+            Journal.putString(out, postId);
+            out.putInt(userId);
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    public long userInserted(int id, String username) {
+        ByteBuffer out = journal.begin(USER_INSERTED);
+        try {
+            putUser(out, id, username);
+            return journal.commit();
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    /**
+     * Waits until the journal is durable up to the position, as far as the fsync policy asks.
+     */
+    public void sync(long position) {
+        journal.sync(position);
+    }
+    
+    /**
+     * Writes every user, post (counters included), comment and like to a new snapshot, then
+     * deletes the journal segments it makes redundant. Does nothing when the journal has not
+     * moved since the last snapshot.
+     */
+    public synchronized void snapshot() throws IOException {
+        long position = journal.position();
+        if (position == snapshotPosition) {
+            return;
+        }
+        long started = System.nanoTime();
+        long records;
+        try (StoreSnapshot snapshot = StoreSnapshot.create(snapshotPath, position)) {
+            userStore.forEach((username, id) -> {
+                putUser(snapshot.begin(USER_INSERTED), id, username);
+                snapshot.end();
+            });
+            postStore.forEachNewestFirst(post -> {
+                putPost(snapshot.begin(POST_INSERTED), post.getId(), post.getUsername(), post.getContent(),
+                        post.getCreatedAt(), post.getUpdatedAt(), post.getLikesCount(), post.getCommentsCount());
+                snapshot.end();
+            });
+            commentStore.forEach(comment -> {
+                putComment(snapshot.begin(COMMENT_INSERTED), comment);
+                snapshot.end();
+            });
+            likeStore.forEachLike((postId, userId, createdAt) -> {
+                putLike(snapshot.begin(LIKE_INSERTED), postId, userId, createdAt);
+                snapshot.end();
+            });
+            records = snapshot.commit();
+        }
+        journal.deleteSegmentsBefore(position);
+        snapshotPosition = position;
+        log.info("Wrote {} records to {} in {} ms", records, snapshotPath, (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.storage.snapshot.interval:PT10M}",
+            initialDelayString = "${app.storage.snapshot.interval:PT10M}")
+    void snapshotOnInterval() {
+        if (!snapshots) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write store snapshot {}", snapshotPath, e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.storage.journal.fsync-interval:PT1S}",
+            initialDelayString = "${app.storage.journal.fsync-interval:PT1S}")
+    void forceOnInterval() {
+        if (fsync == FsyncPolicy.INTERVAL) {
+            journal.force();
+        }
+    }
+    
+    // A final snapshot makes the next start replay nothing
+    @PreDestroy
+    void close() {
+        snapshotOnInterval();
+        journal.close();
+    }
+    
+    private static void putPost(ByteBuffer out, String id, String username, String content, long createdAt,
+                                long updatedAt, int likesCount, int commentsCount) {
+        Journal.putString(out, id);
+        Journal.putString(out, username);
+        Journal.putString(out, content);
+        out.putLong(createdAt);
+        out.putLong(updatedAt);
+        out.putInt(likesCount);
+        out.putInt(commentsCount);
+    }
+    
+    private static void putComment(ByteBuffer out, Comment comment) {
+        Journal.putString(out, comment.getId());
+        Journal.putString(out, comment.getPostId());
+        out.putInt(comment.getUserId());
+        Journal.putString(out, comment.getContent());
+        out.putLong(comment.getCreatedAt());
+        out.putLong(comment.getUpdatedAt());
+    }
+    
+    private static void putLike(ByteBuffer out, String postId, int userId, long createdAt) {
+        Journal.putString(out, postId);
+        out.putInt(userId);
+        out.putLong(createdAt);
+    }
+    
+    private static void putUser(ByteBuffer out, int id, String username) {
+        out.putInt(id);
+        Journal.putString(out, username);
+    }
+    
+    // A change can be logged after the deletion of its post, whose cascade does not take the row's
+    // stripe; such changes are skipped, as the store dropped them too
+    void replay(byte type, ByteBuffer in) {
+        switch (type) {
+            case POST_INSERTED -> postStore.restore(new PostSummary(Journal.getString(in), Journal.getString(in),
+                    Journal.getString(in), in.getLong(), in.getLong(), in.getInt(), in.getInt()));
+            case POST_UPDATED -> {
+                Post post = new Post();
+                post.setId(Journal.getString(in));
+                post.setUsername(Journal.getString(in));
+                post.setContent(Journal.getString(in));
+                long updatedAt = in.getLong();
+                if (postStore.existsById(post.getId())) {
+                    postStore.update(post, updatedAt);
+                }
+            }
+            case POST_COUNTS -> postStore.setCounts(Journal.getString(in), in.getInt(), in.getInt());
+            case POST_DELETED -> postStore.deleteById(Journal.getString(in));
+            case COMMENT_INSERTED -> commentStore.restore(new Comment(Journal.getString(in), Journal.getString(in),
+                    in.getInt(), Journal.getString(in), in.getLong(), in.getLong(), null));
+            case COMMENT_UPDATED -> {
+                Comment comment = new Comment();
+                comment.setId(Journal.getString(in));
+                comment.setPostId(Journal.getString(in));
+                comment.setUserId(in.getInt());
+                comment.setContent(Journal.getString(in));
+                long updatedAt = in.getLong();
+                if (commentStore.findByIdAndPostId(comment.getId(), comment.getPostId()).isPresent()) {
+                    commentStore.update(comment, updatedAt);
+                }
+            }
+            case COMMENT_DELETED -> {
+                Comment comment = new Comment();
+                comment.setId(Journal.getString(in));
+                commentStore.delete(comment);
+            }
+            case LIKE_INSERTED -> likeStore.insert(Journal.getString(in), in.getInt(), in.getLong());
+            case LIKE_DELETED -> likeStore.delete(Journal.getString(in), in.getInt());
+            case USER_INSERTED -> userStore.restore(in.getInt(), Journal.getString(in));
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.contoso.socialapp.store.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of the in-memory stores, made of the same records as the journal:
+ * {@code magic, version, journal position, then per record: length (int), type, fields; a record
+ * of type 0 ends the list and is followed by the CRC32C of everything before it}.
+ *
+ * <p>Records are buffered and written sequentially, so the file can outgrow what one mapping
+ * holds. It is written next to the target, forced and moved into place, so a crash never leaves a
+ * torn snapshot.</p>
+ */
+final class StoreSnapshot implements Closeable {
+    
+    private static final int MAGIC = 0x534E5053;
+    private static final int VERSION = 1;
+    private static final byte END = 0;
+    private static final int BUFFER = 1024 * 1024;
+    
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+    private final CRC32C checksum = new CRC32C();
+    private int recordStart;
+    private long records;
+    
+    private StoreSnapshot(Path target, Path temp, FileChannel channel) {
+        this.target = target;
+        this.temp = temp;
+        this.channel = channel;
+    }
+    
+    /**
+     * Starts a snapshot of the state reached at the journal position; records from that position
+     * on are replayed over it.
+     */
+    static StoreSnapshot create(Path path, long position) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        StoreSnapshot snapshot = new StoreSnapshot(absolute, temp, FileChannel.open(temp, StandardOpenOption.WRITE));
+        snapshot.buffer.putInt(MAGIC).putInt(VERSION).putLong(position);
+        return snapshot;
+    }
+    
+    /**
+     * The record to fill, its type already written; {@link #end} completes it.
+     */
+    ByteBuffer begin(byte type) {
+        if (buffer.remaining() < 4 + Journal.MAX_RECORD) {
+            flush();
+        }
+        recordStart = buffer.position();
+        buffer.putInt(0);
+        buffer.put(type);
+        return buffer;
+    }
+    
+    void end() {
+        buffer.putInt(recordStart, buffer.position() - recordStart - 4);
+        records++;
+    }
+    
+    /**
+     * Completes the file and moves it into place.
+     *
+     * @return the number of records written
+     */
+    long commit() throws IOException {
+        begin(END);
+        buffer.putInt(recordStart, 1);
+        flush();
+        buffer.putInt((int) checksum.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(true);
+        channel.close();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return records;
+    }
+    
+    private void flush() {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write snapshot " + temp, e);
+        }
+        buffer.clear();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(temp);
+    }
+    
+    /**
+     * Passes every record of the snapshot to the handler, then checks the checksum.
+     *
+     * @return the journal position to replay from; 0 (the whole journal) when there is no snapshot
+     */
+    static long read(Path path, Journal.RecordHandler handler) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel, channel.size() - 4);
+            ByteBuffer header = reader.take(16);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a store snapshot: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported store snapshot version " + version);
+            }
+            long position = header.getLong();
+            while (true) {
+                int length = reader.take(4).getInt();
+                if (length < 1 || length > Journal.MAX_RECORD) {
+                    throw new IOException("Corrupt store snapshot " + path);
+                }
+                ByteBuffer body = reader.take(length);
+                byte type = body.get();
+                if (type == END) {
+                    break;
+                }
+                handler.apply(type, body);
+            }
+            reader.verify(path);
+            return position;
+        }
+    }
+    
+    private static final class Reader {
+        
+        private final FileChannel channel;
+        private final long end;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER + Journal.MAX_RECORD).flip();
+        private final CRC32C checksum = new CRC32C();
+        private long read;
+        
+        private Reader(FileChannel channel, long end) {
+            this.channel = channel;
+            this.end = end;
+        }
+        
+        // The next n bytes as their own buffer; the reader moves past them
+        private ByteBuffer take(int n) throws IOException {
+            if (buffer.remaining() < n) {
+                buffer.compact();
+                while (buffer.position() < n) {
+                    if (read >= end) {
+                        throw new IOException("Store snapshot is truncated");
+                    }
+                    buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + end - read));
+                    int start = buffer.position();
+                    int count = channel.read(buffer);
+                    if (count < 0) {
+                        throw new IOException("Store snapshot is truncated");
+                    }
+                    checksum.update(buffer.array(), start, count);
+                    read += count;
+                }
+                buffer.flip();
+            }
+            ByteBuffer taken = buffer.slice(buffer.position(), n);
+            buffer.position(buffer.position() + n);
+            return taken;
+        }
+        
+        private void verify(Path path) throws IOException {
+            if (buffer.hasRemaining() || read != end) {
+                throw new IOException("Unexpected data after the end of store snapshot " + path);
+            }
+            ByteBuffer stored = ByteBuffer.allocate(4);
+            channel.read(stored, end);
+            if (stored.getInt(0) != (int) checksum.getValue()) {
+                throw new IOException("Store snapshot " + path + " fails its checksum");
+            }
+        }
+    }
+}
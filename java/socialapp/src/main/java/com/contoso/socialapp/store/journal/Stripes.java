@@ -0,0 +1,27 @@
+package com.contoso.socialapp.store.journal;
+
+/**
+ * A fixed set of monitors that keys hash onto. The decorators apply a change to the memory store
+ * and append its record under the key's monitor, so two changes to the same row reach the journal
+ * in the order the store applied them.
+ */
+final class Stripes {
+    
+    private static final int COUNT = 256;
+    
+    private final Object[] locks = new Object[COUNT];
+    
+    Stripes() {
+        for (int i = 0; i < COUNT; i++) {
+            locks[i] = new Object();
+        }
+    }
+    
+    Object of(Object key) {
+        return of(key.hashCode());
+    }
+    
+    Object of(int hash) {
+        return locks[(hash ^ hash >>> 16) & COUNT - 1];
+    }
+}
@@ -0,0 +1,77 @@
+package com.contoso.socialapp.store.jpa;
+
+import com.contoso.socialapp.entity.Comment;
+import com.contoso.socialapp.repository.BulkInsertRepository;
+import com.contoso.socialapp.repository.CommentRepository;
+import com.contoso.socialapp.repository.PostExportRepository;
+import com.contoso.socialapp.store.CommentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaCommentStore implements CommentStore {
+    
+    private final CommentRepository commentRepository;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final PostExportRepository postExportRepository;
+    
+    @Override
+    public List<Comment> findPageByPostId(String postId, int limit) {
+        return commentRepository.findPageByPostId(postId, Limit.of(limit));
+    }
+    
+    @Override
+    public List<Comment> findPageByPostIdAfter(String postId, long createdAt, String id, int limit) {
+        return commentRepository.findPageByPostIdAfter(postId, createdAt, id, Limit.of(limit));
+    }
+    
+    @Override
+    public long countByPostId(String postId) {
+        return commentRepository.countByPostId(postId);
+    }
+    
+    @Override
+    public Optional<Comment> findByIdAndPostId(String id, String postId) {
+        return commentRepository.findByIdAndPostId(id, postId);
+    }
+    
+    @Override
+    public Comment insert(Comment comment) {
+        return commentRepository.save(comment);
+    }
+    
+    @Override
+    public void insertAll(List<Comment> comments) {
+        bulkInsertRepository.insertComments(comments);
+    }
+    
+    @Override
+    public Comment update(Comment comment) {
+        return commentRepository.saveAndFlush(comment);
+    }
+    
+    @Override
+    public void delete(Comment comment) {
+        commentRepository.delete(comment);
+    }
+    
+    @Override
+    public void forEach(Consumer<Comment> action) {
+        postExportRepository.forEachComment(rs -> action.accept(new Comment(
+                rs.getString("id"),
+                rs.getString("postId"),
+                rs.getInt("userId"),
+                rs.getString("content"),
+                rs.getLong("createdAt"),
+                rs.getLong("updatedAt"),
+                null)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.contoso.socialapp.store.jpa;
+
+import com.contoso.socialapp.entity.Like;
+import com.contoso.socialapp.entity.LikeId;
+import com.contoso.socialapp.repository.LikeBatchRepository;
+import com.contoso.socialapp.repository.LikeRepository;
+import com.contoso.socialapp.store.LikeStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+@Component
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaLikeStore implements LikeStore {
+    
+    private final LikeRepository likeRepository;
+    private final LikeBatchRepository likeBatchRepository;
+    
+    @Override
+    public boolean exists(String postId, int userId) {
+        return likeRepository.existsByPostIdAndUserId(postId, userId);
+    }
+    
+    @Override
+    public boolean insert(String postId, int userId, long createdAt) {
+        return likeRepository.insertLike(postId, userId, createdAt) > 0;
+    }
+    
+    @Override
+    public boolean delete(String postId, int userId) {
+        return likeRepository.deleteByPostIdAndUserId(postId, userId) > 0;
+    }
+    
+    @Override
+    public List<Integer> findLikers(String postId, Collection<Integer> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return likeRepository.findUserIdsByPostIdAndUserIdIn(postId, userIds);
+    }
+    
+    @Override
+    public int[] insertAll(List<Like> likes) {
+        return likeBatchRepository.insertLikes(likes);
+    }
+    
+    @Override
+    public int[] deleteAll(List<LikeId> ids) {
+        return likeBatchRepository.deleteLikes(ids);
+    }
+    
+    @Override
+    public long count() {
+        return likeBatchRepository.countLikes();
+    }
+    
+    @Override
+    public long countByPostId(String postId) {
+        return likeRepository.countByPostId(postId);
+    }
+    
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        likeBatchRepository.forEachLike(rs -> action.accept(rs.getString("postId"), rs.getInt("userId")));
+    }
+}
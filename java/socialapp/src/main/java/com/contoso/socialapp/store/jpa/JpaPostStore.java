@@ -0,0 +1,136 @@
+package com.contoso.socialapp.store.jpa;
+
+import com.contoso.socialapp.entity.Post;
+import com.contoso.socialapp.repository.BulkInsertRepository;
+import com.contoso.socialapp.repository.CommentRepository;
+import com.contoso.socialapp.repository.PostExportRepository;
+import com.contoso.socialapp.repository.PostRepository;
+import com.contoso.socialapp.repository.PostSummary;
+import com.contoso.socialapp.store.PostStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaPostStore implements PostStore {
+    
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final PostExportRepository postExportRepository;
+    
+    @Override
+    public List<PostSummary> findFeedPage(int limit) {
+        return postRepository.findFeedPage(Limit.of(limit));
+    }
+    
+    @Override
+    public List<PostSummary> findFeedPageAfter(long createdAt, String id, int limit) {
+        return postRepository.findFeedPageAfter(createdAt, id, Limit.of(limit));
+    }
+    
+    @Override
+    public List<PostSummary> findMostLiked(int limit) {
+        return postRepository.findMostLiked(Limit.of(limit));
+    }
+    
+    @Override
+    public Optional<PostSummary> findSummaryById(String id) {
+        return postRepository.findSummaryById(id);
+    }
+    
+    @Override
+    public List<PostSummary> findSummariesByIdIn(Collection<String> ids) {
+        return postRepository.findSummariesByIdIn(ids);
+    }
+    
+    @Override
+    public Optional<Post> findById(String id) {
+        return postRepository.findById(id);
+    }
+    
+    @Override
+    public boolean existsById(String id) {
+        return postRepository.existsById(id);
+    }
+    
+    @Override
+    public long count() {
+        return postRepository.count();
+    }
+    
+    @Override
+    public Post insert(Post post) {
+        // Timestamps come from @PrePersist
+        return postRepository.save(post);
+    }
+    
+    @Override
+    public void insertAll(List<Post> posts) {
+        bulkInsertRepository.insertPosts(posts);
+    }
+    
+    @Override
+    public Post update(Post post) {
+        // Flush so @PreUpdate has stamped updatedAt before the caller reads it
+        return postRepository.saveAndFlush(post);
+    }
+    
+    @Override
+    public void deleteById(String id) {
+        // Comments and likes go with it through the entity's cascade
+        postRepository.deleteById(id);
+    }
+    
+    @Override
+    public int adjustLikesCount(String id, int delta) {
+        return postRepository.adjustLikesCount(id, delta);
+    }
+    
+    @Override
+    public int adjustCommentsCount(String id, int delta) {
+        return postRepository.adjustCommentsCount(id, delta);
+    }
+    
+    @Override
+    public List<String> findLikesCountMismatches() {
+        return postRepository.findLikesCountMismatches();
+    }
+    
+    @Override
+    public Map<String, Integer> reconcileCommentsCounts() {
+        // Runs on the single writer connection, so no comment can be added between the recount and the repair
+        Map<String, Integer> repaired = new LinkedHashMap<>();
+        for (String id : postRepository.findCommentsCountMismatches()) {
+            postRepository.findSummaryById(id).ifPresent(post -> {
+                int drift = Math.toIntExact(commentRepository.countByPostId(id)) - post.getCommentsCount();
+                if (drift != 0 && postRepository.adjustCommentsCount(id, drift) > 0) {
+                    repaired.put(id, drift);
+                }
+            });
+        }
+        return repaired;
+    }
+    
+    @Override
+    public void forEachNewestFirst(Consumer<PostSummary> action) {
+        postExportRepository.forEachPost(rs -> action.accept(new PostSummary(
+                rs.getString("id"),
+                rs.getString("username"),
+                rs.getString("content"),
+                rs.getLong("createdAt"),
+                rs.getLong("updatedAt"),
+                rs.getInt("likesCount"),
+                rs.getInt("commentsCount"))));
+    }
+}
@@ -0,0 +1,38 @@
+package com.contoso.socialapp.store.jpa;
+
+import com.contoso.socialapp.repository.UserRepository;
+import com.contoso.socialapp.store.UserStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.ObjIntConsumer;
+
+@Component
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaUserStore implements UserStore {
+    
+    private final UserRepository userRepository;
+    
+    @Override
+    public void insertIfAbsent(String username) {
+        userRepository.insertIfAbsent(username);
+    }
+    
+    @Override
+    public Optional<Integer> findIdByUsername(String username) {
+        return userRepository.findIdByUsername(username);
+    }
+    
+    @Override
+    public Optional<String> findUsernameById(int id) {
+        return userRepository.findUsernameById(id);
+    }
+    
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        userRepository.findAll().forEach(user -> action.accept(user.getUsername(), user.getId()));
+    }
+}
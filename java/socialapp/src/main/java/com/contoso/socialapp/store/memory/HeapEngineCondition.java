@@ -0,0 +1,23 @@
+package com.contoso.socialapp.store.memory;
+
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+/**
+ * Matches the engines that keep their state in the in-memory stores: {@code memory} on its own and
+ * {@code journal}, which logs every change made to them.
+ */
+public class HeapEngineCondition extends AnyNestedCondition {
+    
+    public HeapEngineCondition() {
+        super(ConfigurationPhase.REGISTER_BEAN);
+    }
+    
+    @ConditionalOnProperty(name = "app.storage.engine", havingValue = "memory")
+    static class Memory {
+    }
+    
+    @ConditionalOnProperty(name = "app.storage.engine", havingValue = "journal")
+    static class Journal {
+    }
+}
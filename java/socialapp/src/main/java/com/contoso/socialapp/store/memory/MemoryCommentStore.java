@@ -0,0 +1,189 @@
+package com.contoso.socialapp.store.memory;
+
+import com.contoso.socialapp.entity.Comment;
+import com.contoso.socialapp.store.CommentStore;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Comments kept per post in a skip list ordered by (createdAt, id), plus an index by comment ID.
+ * Stored comments are never modified in place; an update swaps in a new instance, and lookups
+ * hand out copies that callers may change freely.
+ */
+@Component
+@Conditional(HeapEngineCondition.class)
+public class MemoryCommentStore implements CommentStore {
+    
+    private final ConcurrentHashMap<String, PostComments> byPost = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Comment> byId = new ConcurrentHashMap<>();
+    
+    @Override
+    public List<Comment> findPageByPostId(String postId, int limit) {
+        PostComments comments = byPost.get(postId);
+        return comments == null ? List.of() : first(comments.ordered.values(), limit);
+    }
+    
+    @Override
+    public List<Comment> findPageByPostIdAfter(String postId, long createdAt, String id, int limit) {
+        PostComments comments = byPost.get(postId);
+        return comments == null
+                ? List.of()
+                : first(comments.ordered.tailMap(new Position(createdAt, id), false).values(), limit);
+    }
+    
+    @Override
+    public long countByPostId(String postId) {
+        PostComments comments = byPost.get(postId);
+        return comments == null ? 0 : comments.size.get();
+    }
+    
+    @Override
+    public Optional<Comment> findByIdAndPostId(String id, String postId) {
+        Comment comment = byId.get(id);
+        if (comment == null || !comment.getPostId().equals(postId)) {
+            return Optional.empty();
+        }
+        return Optional.of(copy(comment));
+    }
+    
+    @Override
+    public Comment insert(Comment comment) {
+        long now = System.currentTimeMillis();
+        comment.setCreatedAt(now);
+        comment.setUpdatedAt(now);
+        add(comment);
+        return comment;
+    }
+    
+    @Override
+    public void insertAll(List<Comment> comments) {
+        comments.forEach(this::add);
+    }
+    
+    private void add(Comment comment) {
+        Comment stored = copy(comment);
+        byId.compute(stored.getId(), (id, current) -> {
+            if (current != null) {
+                throw new DuplicateKeyException("Comment " + id + " already exists");
+            }
+            PostComments comments = byPost.computeIfAbsent(stored.getPostId(), postId -> new PostComments());
+            comments.ordered.put(positionOf(stored), stored);
+            comments.size.incrementAndGet();
+            return stored;
+        });
+    }
+    
+    /**
+     * Stores the comment as given, replacing any comment with its ID, for restoring a snapshot or
+     * replaying a journal.
+     */
+    public void restore(Comment comment) {
+        Comment stored = copy(comment);
+        byId.compute(stored.getId(), (id, current) -> {
+            if (current != null) {
+                remove(current);
+            }
+            PostComments comments = byPost.computeIfAbsent(stored.getPostId(), postId -> new PostComments());
+            comments.ordered.put(positionOf(stored), stored);
+            comments.size.incrementAndGet();
+            return stored;
+        });
+    }
+    
+    @Override
+    public Comment update(Comment comment) {
+        return update(comment, System.currentTimeMillis());
+    }
+    
+    /**
+     * {@link #update(Comment)} with the updatedAt to stamp given, for replaying a journal.
+     */
+    public Comment update(Comment comment, long updatedAt) {
+        Comment updated = byId.computeIfPresent(comment.getId(), (id, current) -> {
+            Comment next = copy(current);
+            next.setUserId(comment.getUserId());
+            next.setContent(comment.getContent());
+            next.setUpdatedAt(updatedAt);
+            PostComments comments = byPost.get(current.getPostId());
+            if (comments != null) {
+                comments.ordered.put(positionOf(next), next);
+            }
+            return next;
+        });
+        if (updated == null) {
+            throw new IllegalStateException("Comment " + comment.getId() + " no longer exists");
+        }
+        return copy(updated);
+    }
+    
+    @Override
+    public void delete(Comment comment) {
+        byId.computeIfPresent(comment.getId(), (id, current) -> {
+            remove(current);
+            return null;
+        });
+    }
+    
+    /**
+     * Visits every stored comment. They are never changed in place, but must not be changed by the
+     * visitor either.
+     */
+    @Override
+    public void forEach(Consumer<Comment> action) {
+        byId.values().forEach(action);
+    }
+    
+    private void remove(Comment comment) {
+        PostComments comments = byPost.get(comment.getPostId());
+        if (comments != null && comments.ordered.remove(positionOf(comment)) != null) {
+            comments.size.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Drops every comment of a deleted post.
+     */
+    void deletePost(String postId) {
+        PostComments comments = byPost.remove(postId);
+        if (comments != null) {
+            comments.ordered.values().forEach(comment -> byId.remove(comment.getId(), comment));
+        }
+    }
+    
+    private static Comment copy(Comment comment) {
+        return new Comment(comment.getId(), comment.getPostId(), comment.getUserId(), comment.getContent(),
+                comment.getCreatedAt(), comment.getUpdatedAt(), null);
+    }
+    
+    private static Position positionOf(Comment comment) {
+        return new Position(comment.getCreatedAt(), comment.getId());
+    }
+    
+    private static List<Comment> first(Collection<Comment> comments, int limit) {
+        List<Comment> page = new ArrayList<>(Math.min(limit, 64));
+        for (Comment comment : comments) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(comment);
+        }
+        return page;
+    }
+    
+    private static final class PostComments {
+        
+        private final ConcurrentSkipListMap<Position, Comment> ordered = new ConcurrentSkipListMap<>();
+        // Skip lists count their entries in linear time
+        private final AtomicInteger size = new AtomicInteger();
+    }
+}
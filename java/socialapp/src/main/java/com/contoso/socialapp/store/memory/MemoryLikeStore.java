@@ -0,0 +1,113 @@
+package com.contoso.socialapp.store.memory;
+
+import com.contoso.socialapp.entity.Like;
+import com.contoso.socialapp.entity.LikeId;
+import com.contoso.socialapp.store.LikeStore;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Likes kept per post as a skip list of liker user IDs (to the time of the like), so membership
+ * tests, inserts and removals on one post never contend with those on another.
+ */
+@Component
+@Conditional(HeapEngineCondition.class)
+public class MemoryLikeStore implements LikeStore {
+    
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<Integer, Long>> likers = new ConcurrentHashMap<>();
+    
+    @Override
+    public boolean exists(String postId, int userId) {
+        ConcurrentSkipListMap<Integer, Long> users = likers.get(postId);
+        return users != null && users.containsKey(userId);
+    }
+    
+    @Override
+    public boolean insert(String postId, int userId, long createdAt) {
+        return likers.computeIfAbsent(postId, id -> new ConcurrentSkipListMap<>()).putIfAbsent(userId, createdAt) == null;
+    }
+    
+    @Override
+    public boolean delete(String postId, int userId) {
+        ConcurrentSkipListMap<Integer, Long> users = likers.get(postId);
+        return users != null && users.remove(userId) != null;
+    }
+    
+    @Override
+    public List<Integer> findLikers(String postId, Collection<Integer> userIds) {
+        ConcurrentSkipListMap<Integer, Long> users = likers.get(postId);
+        if (users == null) {
+            return List.of();
+        }
+        List<Integer> found = new ArrayList<>();
+        for (Integer userId : userIds) {
+            if (users.containsKey(userId)) {
+                found.add(userId);
+            }
+        }
+        return found;
+    }
+    
+    @Override
+    public int[] insertAll(List<Like> likes) {
+        int[] counts = new int[likes.size()];
+        for (int i = 0; i < counts.length; i++) {
+            Like like = likes.get(i);
+            counts[i] = insert(like.getPostId(), like.getUserId(), like.getCreatedAt()) ? 1 : 0;
+        }
+        return counts;
+    }
+    
+    @Override
+    public int[] deleteAll(List<LikeId> ids) {
+        int[] counts = new int[ids.size()];
+        for (int i = 0; i < counts.length; i++) {
+            LikeId id = ids.get(i);
+            counts[i] = delete(id.getPostId(), id.getUserId()) ? 1 : 0;
+        }
+        return counts;
+    }
+    
+    @Override
+    public long count() {
+        return likers.values().stream().mapToLong(ConcurrentSkipListMap::size).sum();
+    }
+    
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        likers.forEach((postId, users) -> users.keySet().forEach(userId -> action.accept(postId, userId)));
+    }
+    
+    /**
+     * Visits every like together with the time it was made.
+     */
+    public void forEachLike(LikeVisitor visitor) {
+        likers.forEach((postId, users) -> users.forEach((userId, createdAt) -> visitor.visit(postId, userId, createdAt)));
+    }
+    
+    @Override
+    public long countByPostId(String postId) {
+        ConcurrentSkipListMap<Integer, Long> users = likers.get(postId);
+        return users == null ? 0 : users.size();
+    }
+    
+    /**
+     * Drops every like of a deleted post.
+     */
+    void deletePost(String postId) {
+        likers.remove(postId);
+    }
+    
+    @FunctionalInterface
+    public interface LikeVisitor {
+        
+        void visit(String postId, int userId, long createdAt);
+    }
+}
@@ -0,0 +1,287 @@
+package com.contoso.socialapp.store.memory;
+
+import com.contoso.socialapp.entity.Post;
+import com.contoso.socialapp.repository.PostSummary;
+import com.contoso.socialapp.store.PostStore;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Posts held as immutable {@link PostSummary} snapshots: by ID in a hash map, and in two skip lists
+ * that serve the feed and the most-liked list in order. A change replaces the snapshot under the
+ * post's hash-map entry, so changes to one post are serialized while readers never block.
+ *
+ * <p>A post whose likes count changes is re-ranked by adding the new ranking before removing the
+ * old one, and readers skip whichever entry is not the post's current snapshot. Like the live
+ * counts themselves, the most-liked list read during a re-rank is only approximately ordered.</p>
+ */
+@Component
+@Conditional(HeapEngineCondition.class)
+@RequiredArgsConstructor
+public class MemoryPostStore implements PostStore {
+    
+    private final ConcurrentHashMap<String, PostSummary> posts = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Position, PostSummary> feed = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final ConcurrentSkipListMap<Ranking, PostSummary> mostLiked = new ConcurrentSkipListMap<>();
+    
+    private final MemoryCommentStore commentStore;
+    private final MemoryLikeStore likeStore;
+    
+    @Override
+    public List<PostSummary> findFeedPage(int limit) {
+        return first(feed.values(), limit);
+    }
+    
+    @Override
+    public List<PostSummary> findFeedPageAfter(long createdAt, String id, int limit) {
+        return first(feed.tailMap(new Position(createdAt, id), false).values(), limit);
+    }
+    
+    @Override
+    public List<PostSummary> findMostLiked(int limit) {
+        List<PostSummary> page = new ArrayList<>(Math.min(limit, posts.size()));
+        for (PostSummary post : mostLiked.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (posts.get(post.getId()) == post) {
+                page.add(post);
+            }
+        }
+        return page;
+    }
+    
+    @Override
+    public Optional<PostSummary> findSummaryById(String id) {
+        return Optional.ofNullable(posts.get(id));
+    }
+    
+    @Override
+    public List<PostSummary> findSummariesByIdIn(Collection<String> ids) {
+        List<PostSummary> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            PostSummary post = posts.get(id);
+            if (post != null) {
+                found.add(post);
+            }
+        }
+        return found;
+    }
+    
+    @Override
+    public Optional<Post> findById(String id) {
+        return findSummaryById(id).map(post -> new Post(post.getId(), post.getUsername(), post.getContent(),
+                post.getCreatedAt(), post.getUpdatedAt(), post.getLikesCount(), post.getCommentsCount(), null, null));
+    }
+    
+    @Override
+    public boolean existsById(String id) {
+        return posts.containsKey(id);
+    }
+    
+    @Override
+    public long count() {
+        return posts.size();
+    }
+    
+    @Override
+    public Post insert(Post post) {
+        long now = System.currentTimeMillis();
+        post.setCreatedAt(now);
+        post.setUpdatedAt(now);
+        add(post);
+        return post;
+    }
+    
+    @Override
+    public void insertAll(List<Post> posts) {
+        posts.forEach(this::add);
+    }
+    
+    private void add(Post post) {
+        PostSummary summary = new PostSummary(post.getId(), post.getUsername(), post.getContent(),
+                post.getCreatedAt(), post.getUpdatedAt(), post.getLikesCount(), post.getCommentsCount());
+        posts.compute(post.getId(), (id, current) -> {
+            if (current != null) {
+                throw new DuplicateKeyException("Post " + id + " already exists");
+            }
+            feed.put(positionOf(summary), summary);
+            mostLiked.put(Ranking.of(summary), summary);
+            return summary;
+        });
+    }
+    
+    /**
+     * Stores the post as given, replacing any post with its ID, for restoring a snapshot or
+     * replaying a journal.
+     */
+    public void restore(PostSummary post) {
+        posts.compute(post.getId(), (id, current) -> {
+            if (current != null) {
+                feed.remove(positionOf(current));
+                mostLiked.remove(Ranking.of(current));
+            }
+            feed.put(positionOf(post), post);
+            mostLiked.put(Ranking.of(post), post);
+            return post;
+        });
+    }
+    
+    @Override
+    public Post update(Post post) {
+        return update(post, System.currentTimeMillis());
+    }
+    
+    /**
+     * {@link #update(Post)} with the updatedAt to stamp given, for replaying a journal.
+     */
+    public Post update(Post post, long updatedAt) {
+        PostSummary updated = change(post.getId(), current -> new PostSummary(current.getId(), post.getUsername(),
+                post.getContent(), current.getCreatedAt(), updatedAt, current.getLikesCount(), current.getCommentsCount()));
+        if (updated == null) {
+            throw new IllegalStateException("Post " + post.getId() + " no longer exists");
+        }
+        post.setUpdatedAt(updatedAt);
+        return post;
+    }
+    
+    @Override
+    public void deleteById(String id) {
+        posts.computeIfPresent(id, (key, current) -> {
+            feed.remove(positionOf(current));
+            mostLiked.remove(Ranking.of(current));
+            return null;
+        });
+        commentStore.deletePost(id);
+        likeStore.deletePost(id);
+    }
+    
+    @Override
+    public int adjustLikesCount(String id, int delta) {
+        return change(id, current -> withCounts(current, current.getLikesCount() + delta, current.getCommentsCount())) == null ? 0 : 1;
+    }
+    
+    @Override
+    public int adjustCommentsCount(String id, int delta) {
+        return change(id, current -> withCounts(current, current.getLikesCount(), current.getCommentsCount() + delta)) == null ? 0 : 1;
+    }
+    
+    /**
+     * Sets both counters of the post, if it exists, and returns its new snapshot.
+     */
+    public Optional<PostSummary> setCounts(String id, int likesCount, int commentsCount) {
+        return Optional.ofNullable(change(id, current -> withCounts(current, likesCount, commentsCount)));
+    }
+    
+    @Override
+    public List<String> findLikesCountMismatches() {
+        List<String> mismatches = new ArrayList<>();
+        posts.forEach((id, post) -> {
+            if (post.getLikesCount() != likeStore.countByPostId(id)) {
+                mismatches.add(id);
+            }
+        });
+        return mismatches;
+    }
+    
+    @Override
+    public Map<String, Integer> reconcileCommentsCounts() {
+        Map<String, Integer> repaired = new LinkedHashMap<>();
+        for (String id : posts.keySet()) {
+            int comments = (int) commentStore.countByPostId(id);
+            PostSummary before = posts.get(id);
+            if (before != null && before.getCommentsCount() != comments
+                    && change(id, current -> withCounts(current, current.getLikesCount(), comments)) != null) {
+                repaired.put(id, comments - before.getCommentsCount());
+            }
+        }
+        return repaired;
+    }
+    
+    @Override
+    public void forEachNewestFirst(Consumer<PostSummary> action) {
+        feed.values().forEach(action);
+    }
+    
+    // Replaces the post's snapshot and its index entries; null when the post does not exist
+    private PostSummary change(String id, UnaryOperator<PostSummary> update) {
+        return posts.computeIfPresent(id, (key, current) -> {
+            PostSummary next = update.apply(current);
+            feed.put(positionOf(next), next);
+            Ranking before = Ranking.of(current);
+            Ranking after = Ranking.of(next);
+            mostLiked.put(after, next);
+            if (!after.equals(before)) {
+                mostLiked.remove(before);
+            }
+            return next;
+        });
+    }
+    
+    private static PostSummary withCounts(PostSummary post, int likesCount, int commentsCount) {
+        return new PostSummary(post.getId(), post.getUsername(), post.getContent(),
+                post.getCreatedAt(), post.getUpdatedAt(), likesCount, commentsCount);
+    }
+    
+    private static Position positionOf(PostSummary post) {
+        return new Position(post.getCreatedAt(), post.getId());
+    }
+    
+    private static <T> List<T> first(Collection<T> values, int limit) {
+        List<T> page = new ArrayList<>(Math.min(limit, 64));
+        for (T value : values) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(value);
+        }
+        return page;
+    }
+    
+    /**
+     * Most-liked order: likesCount, then createdAt, then ID, all descending.
+     */
+    @EqualsAndHashCode
+    private static final class Ranking implements Comparable<Ranking> {
+        
+        private final int likesCount;
+        private final long createdAt;
+        private final String id;
+        
+        private Ranking(int likesCount, long createdAt, String id) {
+            this.likesCount = likesCount;
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+        
+        private static Ranking of(PostSummary post) {
+            return new Ranking(post.getLikesCount(), post.getCreatedAt(), post.getId());
+        }
+        
+        // Written out rather than chained Comparators, whose shared lambdas do not inline on this hot path
+        @Override
+        public int compareTo(Ranking other) {
+            int byLikes = Integer.compare(other.likesCount, likesCount);
+            if (byLikes != 0) {
+                return byLikes;
+            }
+            int byTime = Long.compare(other.createdAt, createdAt);
+            return byTime != 0 ? byTime : other.id.compareTo(id);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.contoso.socialapp.store.memory;
+
+import com.contoso.socialapp.store.UserStore;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+
+@Component
+@Conditional(HeapEngineCondition.class)
+public class MemoryUserStore implements UserStore {
+    
+    private final ConcurrentHashMap<String, Integer> idsByUsername = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> usernamesById = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+    
+    @Override
+    public void insertIfAbsent(String username) {
+        idsByUsername.computeIfAbsent(username, name -> {
+            int id = lastId.incrementAndGet();
+            usernamesById.put(id, name);
+            return id;
+        });
+    }
+    
+    /**
+     * Registers the username under a known ID, for replaying a journal; later registrations get
+     * higher IDs.
+     */
+    public void restore(int id, String username) {
+        idsByUsername.put(username, id);
+        usernamesById.put(id, username);
+        lastId.accumulateAndGet(id, Math::max);
+    }
+    
+    @Override
+    public Optional<Integer> findIdByUsername(String username) {
+        return Optional.ofNullable(idsByUsername.get(username));
+    }
+    
+    @Override
+    public Optional<String> findUsernameById(int id) {
+        return Optional.ofNullable(usernamesById.get(id));
+    }
+    
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        idsByUsername.forEach(action::accept);
+    }
+}
@@ -0,0 +1,25 @@
+package com.contoso.socialapp.store.memory;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * (createdAt, id) key of a skip list, in ascending order; the ID breaks ties between rows created
+ * in the same millisecond exactly as the SQL keyset queries do.
+ */
+@EqualsAndHashCode
+final class Position implements Comparable<Position> {
+    
+    private final long createdAt;
+    private final String id;
+    
+    Position(long createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    @Override
+    public int compareTo(Position other) {
+        int byTime = Long.compare(createdAt, other.createdAt);
+        return byTime != 0 ? byTime : id.compareTo(other.id);
+    }
+}
@@ -0,0 +1,98 @@
+package com.contoso.socialapp.user;
+
+import com.contoso.socialapp.store.UserStore;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bidirectional in-memory interner for the {@code users} table (username <-> integer ID).
+ *
+ * <p>All known users are loaded at startup. A username registered inside a transaction is only
+ * remembered after that transaction commits, so a rollback can never leave the cache pointing at
+ * an ID that SQLite may hand out again.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UsernameDictionary {
+    
+    private final UserStore userStore;
+    
+    private final ConcurrentHashMap<String, Integer> idsByUsername = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> usernamesById = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void load() {
+        userStore.forEach((username, id) -> remember(id, username));
+        log.info("Loaded {} usernames into the dictionary", idsByUsername.size());
+    }
+    
+    /**
+     * ID for the username, registering it in the {@code users} table first if it is new.
+     */
+    @Transactional
+    public int idFor(String username) {
+        Integer cached = idsByUsername.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        
+        userStore.insertIfAbsent(username);
+        int id = userStore.findIdByUsername(username)
+                .orElseThrow(() -> new IllegalStateException("User row vanished after insert: " + username));
+        // Even a row this call did not insert may belong to an earlier, still uncommitted operation
+        // of the same group-commit batch
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(id, username);
+                }
+            });
+        } else {
+            remember(id, username);
+        }
+        return id;
+    }
+    
+    /**
+     * ID for the username without registering it; empty when the user has never liked or commented.
+     */
+    public OptionalInt find(String username) {
+        Integer cached = idsByUsername.get(username);
+        if (cached != null) {
+            return OptionalInt.of(cached);
+        }
+        return userStore.findIdByUsername(username)
+                .map(OptionalInt::of)
+                .orElseGet(OptionalInt::empty);
+    }
+    
+    public String username(int id) {
+        String cached = usernamesById.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        String username = userStore.findUsernameById(id)
+                .orElseThrow(() -> new IllegalStateException("Unknown user id " + id));
+        // A read-write transaction may be looking at its own uncommitted registration
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            remember(id, username);
+        }
+        return username;
+    }
+    
+    private void remember(int id, String username) {
+        idsByUsername.put(username, id);
+        usernamesById.put(id, username);
+    }
+}
@@ -0,0 +1,29 @@
+package com.contoso.socialapp.write;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional write method that may be run by the {@link GroupCommitExecutor} together
+ * with other callers' writes, sharing one SQLite commit. The caller still blocks until its own
+ * write has committed (or failed) and sees the method's normal result or exception.
+ *
+ * <p>Only takes effect when {@code app.writes.group-commit.enabled} is set; calls made inside an
+ * existing transaction always run inline. When another write in the batch hits a database error,
+ * the batch is rolled back and the writes that had succeeded are run again, so side effects
+ * outside the transaction must be safe to repeat.</p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface GroupCommit {
+    
+    /**
+     * Boolean property that, when true, leaves the method out of group commit, for modes in which
+     * its writes bypass the transaction and a replay would repeat them.
+     */
+    String inlineWhen() default "";
+}
@@ -0,0 +1,286 @@
+package com.contoso.socialapp.write;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for SQLite writes. Request threads hand their write to a single writer thread,
+ * which takes whatever is queued (up to max-batch operations, or until max-batch-time has been
+ * spent) and runs it all in one transaction, so N concurrent writes cost one commit instead of N.
+ * Every caller's result is released only after that commit.
+ *
+ * <p>Each operation runs under its own savepoint and is flushed before the next one starts. An
+ * operation that throws is rolled back to its savepoint and its transaction synchronizations
+ * (after-commit events) are dropped, so it fails alone. Hibernate marks the whole transaction
+ * rollback-only on any JDBC error, though; when that happens the batch is rolled back and the
+ * operations that had succeeded are run again in a fresh transaction, without the failed one.</p>
+ *
+ * <p>Replaying is only safe for writes that go through the JPA transaction, so group commit is
+ * only active with the jpa storage engine; the memory and journal stores apply changes
+ * immediately and would repeat them.</p>
+ */
+@Component
+@Slf4j
+public class GroupCommitExecutor {
+    
+    static final String BATCH_NAME = "group-commit";
+    
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxBatchNanos;
+    private final PlatformTransactionManager transactionManager;
+    private final DefaultTransactionDefinition batchDefinition;
+    private final DistributionSummary batchSizes;
+    private final Counter replays;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private volatile boolean running;
+    
+    public GroupCommitExecutor(@Value("${app.writes.group-commit.enabled:false}") boolean enabled,
+                               @Value("${app.writes.group-commit.max-batch:64}") int maxBatch,
+                               @Value("${app.writes.group-commit.max-batch-time:PT0.05S}") Duration maxBatchTime,
+                               @Value("${app.storage.engine:jpa}") String storageEngine,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled && "jpa".equals(storageEngine);
+        if (enabled && !this.enabled) {
+            log.warn("Group commit needs the jpa storage engine; running writes inline on the {} engine", storageEngine);
+        }
+        this.maxBatch = Math.max(maxBatch, 1);
+        this.maxBatchNanos = maxBatchTime.toNanos();
+        this.transactionManager = transactionManager;
+        this.batchDefinition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchDefinition.setName(BATCH_NAME);
+        
+        this.batchSizes = DistributionSummary.builder("writes.group-commit.batch.size")
+                .description("Write operations committed together in one transaction")
+                .register(meterRegistry);
+        this.replays = Counter.builder("writes.group-commit.replays")
+                .description("Batches rolled back after a database error and run again without the failed operation")
+                .register(meterRegistry);
+        Gauge.builder("writes.group-commit.queued", queue, BlockingQueue::size)
+                .description("Write operations waiting for the writer thread")
+                .register(meterRegistry);
+        
+        if (this.enabled) {
+            this.writer = new Thread(this::run, "group-commit");
+            this.writer.setDaemon(true);
+            this.running = true;
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Runs the operation on the writer thread as part of the next batch and waits for its commit.
+     * Runs it inline instead when group commit is off, the executor is shutting down or the caller
+     * is already inside a transaction (which includes operations calling each other on the writer).
+     */
+    public Object execute(Operation operation) throws Throwable {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operation.run();
+        }
+        Pending pending = new Pending(operation);
+        queue.add(pending);
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    write(first);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Group commit writer failed; continuing with the next batch", e);
+            }
+        }
+    }
+    
+    private void write(Pending first) {
+        Deque<Pending> replay = new ArrayDeque<>(List.of(first));
+        while (!replay.isEmpty()) {
+            try {
+                replay = writeBatch(replay);
+            } catch (RuntimeException e) {
+                // The batch transaction could not even be started
+                replay.forEach(pending -> pending.result.completeExceptionally(e));
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Runs the given operations, then whatever else is queued, in one transaction.
+     *
+     * @return operations to run again because the batch had to be rolled back
+     */
+    private Deque<Pending> writeBatch(Deque<Pending> replay) {
+        long deadline = System.nanoTime() + maxBatchNanos;
+        List<Pending> applied = new ArrayList<>();
+        int taken = 0;
+        Pending current = null;
+        
+        TransactionStatus batch = transactionManager.getTransaction(batchDefinition);
+        try {
+            while (taken < maxBatch && (taken == 0 || System.nanoTime() - deadline < 0)) {
+                current = replay.isEmpty() ? queue.poll() : replay.poll();
+                if (current == null) {
+                    break;
+                }
+                taken++;
+                if (apply(current, batch)) {
+                    applied.add(current);
+                }
+                if (batch.isRollbackOnly()) {
+                    transactionManager.rollback(batch);
+                    replays.increment();
+                    log.debug("Group commit batch rolled back after a database error; replaying {} operations",
+                            applied.size() + replay.size());
+                    Deque<Pending> again = new ArrayDeque<>(applied);
+                    again.addAll(replay);
+                    return again;
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            if (!batch.isCompleted()) {
+                transactionManager.rollback(batch);
+            }
+            applied.forEach(pending -> pending.result.completeExceptionally(e));
+            replay.forEach(pending -> pending.result.completeExceptionally(e));
+            if (current != null) {
+                current.result.completeExceptionally(e);
+            }
+            return new ArrayDeque<>();
+        }
+        
+        try {
+            transactionManager.commit(batch);
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} operations failed", applied.size(), e);
+            applied.forEach(pending -> pending.result.completeExceptionally(e));
+            return new ArrayDeque<>();
+        }
+        batchSizes.record(taken);
+        applied.forEach(pending -> pending.result.complete(pending.value));
+        return new ArrayDeque<>();
+    }
+    
+    /**
+     * Runs one operation under a savepoint.
+     *
+     * @return false when the operation failed; its caller has been told already
+     */
+    private boolean apply(Pending pending, TransactionStatus batch) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        // HibernateJpaDialect does not offer savepoints through the transaction manager, so they
+        // are set on the session's JDBC connection directly
+        Session session = entityManager.unwrap(Session.class);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        try {
+            pending.value = pending.operation.run();
+            // Surface constraint violations now, while this operation's savepoint can still undo them
+            entityManager.flush();
+        } catch (Throwable e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            entityManager.clear();
+            restore(synchronizations);
+            pending.result.completeExceptionally(e);
+            return false;
+        }
+        session.doWork(connection -> connection.releaseSavepoint(savepoint));
+        
+        if (batch.isRollbackOnly()) {
+            // The operation swallowed a database error; it cannot be committed with this batch
+            restore(synchronizations);
+            pending.result.completeExceptionally(
+                    new UnexpectedRollbackException("Write operation left the transaction rollback-only"));
+            return false;
+        }
+        return true;
+    }
+    
+    // Drops synchronizations registered by a failed operation, so its after-commit events never fire
+    private static void restore(List<TransactionSynchronization> synchronizations) {
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(TransactionSynchronizationManager::registerSynchronization);
+    }
+    
+    @PreDestroy
+    void drain() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        // Anything queued after the writer stopped is written from here
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            write(pending);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface Operation {
+        
+        Object run() throws Throwable;
+    }
+    
+    private static final class Pending {
+        
+        private final Operation operation;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private Object value;
+        
+        private Pending(Operation operation) {
+            this.operation = operation;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.contoso.socialapp.write;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA transaction manager that lets a {@link GroupCommit} batch outlive the failure of one of its
+ * operations. A {@code @Transactional} method that joined the batch transaction and threw would
+ * normally mark all of it rollback-only; inside a batch that decision is left to the
+ * {@link GroupCommitExecutor}, which rolls the operation back to its own savepoint. Every other
+ * transaction keeps the default participation rules.
+ */
+public class GroupCommitTransactionManager extends JpaTransactionManager {
+    
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        // An explicit setRollbackOnly() still dooms the batch; the executor then fails that operation
+        if (!status.isLocalRollbackOnly()
+                && GroupCommitExecutor.BATCH_NAME.equals(TransactionSynchronizationManager.getCurrentTransactionName())) {
+            return;
+        }
+        super.doSetRollbackOnly(status);
+    }
+}
@@ -0,0 +1,54 @@
+-- Applied on every startup (spring.sql.init.mode=always). Tables are recreated, as ddl-auto=create-drop
+-- used to do; Hibernate only validates the entities against this file. Every repository query is
+-- served by a primary key or one of the indexes below (see QueryPlanTests).
+
+DROP TABLE IF EXISTS likes;
+DROP TABLE IF EXISTS comments;
+DROP TABLE IF EXISTS posts;
+DROP TABLE IF EXISTS users;
+
+CREATE TABLE users (
+    id integer,
+    username varchar(50) not null,
+    primary key (id),
+    constraint uk_users_username unique (username)
+);
+
+CREATE TABLE posts (
+    id varchar(255) not null,
+    username varchar(255) not null,
+    content varchar(2000) not null,
+    createdAt bigint not null,
+    updatedAt bigint not null,
+    likesCount integer default 0 not null,
+    commentsCount integer default 0 not null,
+    primary key (id)
+);
+
+-- Feed, keyset pages and export: ORDER BY createdAt DESC, id DESC
+CREATE INDEX idx_posts_created_at_id ON posts (createdAt, id);
+
+-- Most liked: ORDER BY likesCount DESC, createdAt DESC
+CREATE INDEX idx_posts_likes_count_created_at ON posts (likesCount, createdAt);
+
+CREATE TABLE comments (
+    id varchar(255) not null,
+    postId varchar(255) not null,
+    userId integer not null,
+    content varchar(1000) not null,
+    createdAt bigint not null,
+    updatedAt bigint not null,
+    primary key (id)
+);
+
+-- Comment pages in (createdAt, id) order; also covers COUNT(*) per post and the cascade on post delete
+CREATE INDEX idx_comments_post_created_at_id ON comments (postId, createdAt, id);
+
+-- Clustered on (postId, userId): a post's likes are stored together and the key answers every lookup
+-- on its own, without a separate rowid b-tree behind it
+CREATE TABLE likes (
+    postId varchar(255) not null,
+    userId integer not null,
+    createdAt bigint not null,
+    primary key (postId, userId)
+) WITHOUT ROWID;
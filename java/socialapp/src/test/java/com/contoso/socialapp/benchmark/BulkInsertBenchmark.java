@@ -0,0 +1,112 @@
+package com.contoso.socialapp.benchmark;
+
+import com.contoso.socialapp.dto.BulkCreateResponse;
+import com.contoso.socialapp.dto.NewCommentRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.dto.PostDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares rows/sec of the single-item create endpoints against the bulk endpoints.
+ * Excluded from the regular test run; use {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/bulk-insert-benchmark.db",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.web=WARN"
+})
+@AutoConfigureMockMvc
+class BulkInsertBenchmark {
+    
+    private static final int ROWS = 1000;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void posts() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            mockMvc.perform(post("/posts")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new NewPostRequest("bench", "single " + i))))
+                    .andExpect(status().isCreated());
+        }
+        long single = System.nanoTime() - start;
+        
+        List<NewPostRequest> batch = IntStream.range(0, ROWS)
+                .mapToObj(i -> new NewPostRequest("bench", "bulk " + i))
+                .collect(Collectors.toList());
+        start = System.nanoTime();
+        BulkCreateResponse response = bulk("/posts/bulk", batch);
+        long bulk = System.nanoTime() - start;
+        
+        assertThat(response.getCreatedCount()).isEqualTo(ROWS);
+        report("posts", single, bulk);
+    }
+    
+    @Test
+    void comments() throws Exception {
+        String body = mockMvc.perform(post("/posts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new NewPostRequest("bench", "comment target"))))
+                .andReturn().getResponse().getContentAsString();
+        String postId = objectMapper.readValue(body, PostDto.class).getId();
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            mockMvc.perform(post("/posts/" + postId + "/comments")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new NewCommentRequest("bench", "single " + i))))
+                    .andExpect(status().isCreated());
+        }
+        long single = System.nanoTime() - start;
+        
+        List<NewCommentRequest> batch = IntStream.range(0, ROWS)
+                .mapToObj(i -> new NewCommentRequest("bench", "bulk " + i))
+                .collect(Collectors.toList());
+        start = System.nanoTime();
+        BulkCreateResponse response = bulk("/posts/" + postId + "/comments/bulk", batch);
+        long bulk = System.nanoTime() - start;
+        
+        assertThat(response.getCreatedCount()).isEqualTo(ROWS);
+        report("comments", single, bulk);
+    }
+    
+    private BulkCreateResponse bulk(String path, List<?> items) throws Exception {
+        String body = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, BulkCreateResponse.class);
+    }
+    
+    private static void report(String kind, long singleNanos, long bulkNanos) {
+        double singleRate = ROWS / (singleNanos / 1e9);
+        double bulkRate = ROWS / (bulkNanos / 1e9);
+        System.out.printf("%s: single-item %.0f rows/sec, bulk %.0f rows/sec (%.1fx)%n",
+                kind, singleRate, bulkRate, bulkRate / singleRate);
+    }
+}
@@ -0,0 +1,121 @@
+package com.contoso.socialapp.benchmark;
+
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.like.LikeCounters;
+import com.contoso.socialapp.repository.PostRepository;
+import com.contoso.socialapp.service.PostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Multi-threaded comparison of the striped in-memory like counters against the database:
+ * per-like row updates for writes and COUNT(*) over the likes table for reads, all on one hot post.
+ * Excluded from the regular test run; use {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/like-counter-benchmark.db",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "app.likes.counters.checkpoint-interval=PT1H"
+})
+class LikeCounterBenchmark {
+    
+    private static final int THREADS = 8;
+    private static final int LIKES = 1000;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private LikeCounters likeCounters;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private String postId;
+    
+    @BeforeEach
+    void setUp() {
+        postId = postService.createPost(new NewPostRequest("bench", "hot post")).getId();
+        long now = System.currentTimeMillis();
+        List<Object[]> likes = IntStream.range(0, LIKES)
+                .mapToObj(i -> new Object[]{postId, i, now})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate("INSERT INTO likes (postId, userId, createdAt) VALUES (?, ?, ?)", likes);
+    }
+    
+    @Test
+    void increments() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        double rowRate = run(100, () -> transactionTemplate.executeWithoutResult(
+                status -> postRepository.adjustLikesCount(postId, 1)));
+        double adderRate = run(1_000_000, () -> likeCounters.add(postId, 1));
+        
+        report("increments", "row UPDATE", rowRate, adderRate);
+    }
+    
+    @Test
+    void reads() throws Exception {
+        String countSql = "SELECT COUNT(*) FROM likes WHERE postId = ?";
+        assertThat(jdbcTemplate.queryForObject(countSql, Integer.class, postId)).isEqualTo(LIKES);
+        
+        double countRate = run(500, () -> jdbcTemplate.queryForObject(countSql, Integer.class, postId));
+        double adderRate = run(1_000_000, () -> likeCounters.likesCount(postId, LIKES));
+        
+        report("reads", "COUNT(*)", countRate, adderRate);
+    }
+    
+    // Runs the operation opsPerThread times on every thread and returns total operations per second
+    private static double run(int opsPerThread, Runnable operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < opsPerThread; i++) {
+                        operation.run();
+                    }
+                    return null;
+                });
+            }
+            long start = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            return (double) THREADS * opsPerThread / (elapsed / 1e9);
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    private static void report(String kind, String baseline, double baselineRate, double adderRate) {
+        System.out.printf("%s on one post, %d threads: %s %.0f ops/sec, LongAdder %.0f ops/sec (%.0fx)%n",
+                kind, THREADS, baseline, baselineRate, adderRate, adderRate / baselineRate);
+    }
+}
@@ -0,0 +1,155 @@
+package com.contoso.socialapp.benchmark;
+
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewCommentRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.service.CommentService;
+import com.contoso.socialapp.service.LikeService;
+import com.contoso.socialapp.service.PostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reader threads fetch posts and comment pages while writer threads add comments and likes, with
+ * the WAL journal (with and without group commit) and with SQLite's default rollback journal, and
+ * report operations/sec for each side. Excluded from the regular test run; use {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+abstract class MixedWorkloadBenchmark {
+
+    private static final int POSTS = 200;
+    private static final int READERS = 8;
+    private static final int WRITERS = 4;
+    private static final long DURATION_MILLIS = 5_000;
+
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Value("${app.sqlite.journal-mode}")
+    private String journalMode;
+    
+    @Value("${app.writes.group-commit.enabled}")
+    private boolean groupCommit;
+
+    private List<String> postIds;
+
+    @BeforeEach
+    void setUp() {
+        List<NewPostRequest> posts = IntStream.range(0, POSTS)
+                .mapToObj(i -> new NewPostRequest("bench", "post " + i))
+                .collect(Collectors.toList());
+        postIds = postService.createPosts(posts).getResults().stream()
+                .map(result -> result.getId())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void readsAndWritesTogether() throws Exception {
+        LongAdder reads = new LongAdder();
+        LongAdder writes = new LongAdder();
+        LongAdder failures = new LongAdder();
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + WRITERS);
+        List<Runnable> workers = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            workers.add(() -> loop(deadline, reads, failures, () -> {
+                String postId = randomPost();
+                postService.getPostById(postId);
+                commentService.getCommentsByPostId(postId, 20, null);
+            }));
+        }
+        for (int i = 0; i < WRITERS; i++) {
+            workers.add(() -> loop(deadline, writes, failures, () -> {
+                String postId = randomPost();
+                String username = "user" + USERS.incrementAndGet();
+                commentService.createComment(postId, new NewCommentRequest(username, "comment"));
+                likeService.likePost(postId, new LikeRequest(username));
+            }));
+        }
+        workers.forEach(executor::execute);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(DURATION_MILLIS + 60_000, TimeUnit.MILLISECONDS)).isTrue();
+
+        double seconds = DURATION_MILLIS / 1000.0;
+        System.out.printf("%s journal%s: %.0f reads/sec (%d threads), %.0f writes/sec (%d threads), %d failed%n",
+                journalMode, groupCommit ? " with group commit" : "", reads.sum() / seconds, READERS, writes.sum() / seconds, WRITERS, failures.sum());
+    }
+
+    private String randomPost() {
+        return postIds.get(ThreadLocalRandom.current().nextInt(postIds.size()));
+    }
+
+    private static void loop(long deadline, LongAdder done, LongAdder failures, Runnable operation) {
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                operation.run();
+                done.increment();
+            } catch (RuntimeException e) {
+                failures.increment();
+            }
+        }
+    }
+
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:sqlite:build/mixed-workload-wal-benchmark.db",
+            "app.sqlite.journal-mode=WAL",
+            "spring.cache.type=none",
+            "spring.jpa.show-sql=false",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "logging.level.com.contoso.socialapp.exception=OFF"
+    })
+    static class Wal extends MixedWorkloadBenchmark {
+    }
+
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:sqlite:build/mixed-workload-rollback-benchmark.db",
+            "app.sqlite.journal-mode=DELETE",
+            "spring.cache.type=none",
+            "spring.jpa.show-sql=false",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "logging.level.com.contoso.socialapp.exception=OFF"
+    })
+    static class RollbackJournal extends MixedWorkloadBenchmark {
+    }
+    
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:sqlite:build/mixed-workload-group-commit-benchmark.db",
+            "app.sqlite.journal-mode=WAL",
+            "app.writes.group-commit.enabled=true",
+            "spring.cache.type=none",
+            "spring.jpa.show-sql=false",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "logging.level.com.contoso.socialapp.exception=OFF"
+    })
+    static class GroupCommit extends MixedWorkloadBenchmark {
+    }
+}
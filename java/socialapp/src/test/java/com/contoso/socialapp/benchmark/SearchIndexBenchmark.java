@@ -0,0 +1,111 @@
+package com.contoso.socialapp.benchmark;
+
+import com.contoso.socialapp.search.InvertedIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds the search index over a synthetic corpus, a million posts by default, and times queries
+ * from very common to rare words. Words are drawn from a Zipf distribution over a fixed
+ * vocabulary, the way word frequencies fall off in real text. Scale with
+ * {@code -Dbenchmark.posts=...}. Excluded from the regular test run; use {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class SearchIndexBenchmark {
+    
+    private static final int POSTS = Integer.getInteger("benchmark.posts", 1_000_000);
+    private static final int VOCABULARY = 50_000;
+    private static final int MIN_WORDS = 8;
+    private static final int MAX_WORDS = 30;
+    private static final int COMMENT_EVERY = 4;
+    private static final int ITERATIONS = 20;
+    
+    @Test
+    void millionPostCorpus() {
+        String[] words = vocabulary();
+        double[] cumulative = zipf();
+        Random random = new Random(42);
+        InvertedIndex index = new InvertedIndex();
+        
+        long buildStarted = System.nanoTime();
+        long tokens = 0;
+        StringBuilder text = new StringBuilder();
+        for (int p = 0; p < POSTS; p++) {
+            int count = MIN_WORDS + random.nextInt(MAX_WORDS - MIN_WORDS + 1);
+            text.setLength(0);
+            for (int w = 0; w < count; w++) {
+                text.append(words[sample(cumulative, random)]).append(' ');
+            }
+            tokens += count;
+            String postId = String.format("%019d", p);
+            index.putPost(postId, text.toString());
+            if (p % COMMENT_EVERY == 0) {
+                index.putComment(postId + "-c", postId, words[sample(cumulative, random)] + " " + words[p % VOCABULARY]);
+                tokens += 2;
+            }
+        }
+        long buildMillis = (System.nanoTime() - buildStarted) / 1_000_000;
+        long postingsBytes = index.postingsBytes();
+        System.out.printf("indexed %d posts (%d documents, %d tokens, %d terms) in %d ms; "
+                        + "postings take %.1f MB%n",
+                POSTS, index.documentCount(), tokens, index.termCount(), buildMillis,
+                postingsBytes / 1024.0 / 1024.0);
+        
+        for (List<String> query : List.of(
+                List.of(words[0]),
+                List.of(words[9]),
+                List.of(words[99]),
+                List.of(words[4_999]),
+                List.of(words[2], words[499]),
+                List.of(words[19], words[199], words[1_999]))) {
+            int hits = index.search(query, Integer.MAX_VALUE, null).size();
+            long[] nanos = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long started = System.nanoTime();
+                List<InvertedIndex.Hit> page = index.search(query, 20, null);
+                nanos[i] = System.nanoTime() - started;
+                assertThat(page).hasSize(Math.min(20, hits));
+            }
+            Arrays.sort(nanos);
+            System.out.printf("query %-28s %7d matching posts: median %7.2f ms, max %7.2f ms%n",
+                    query, hits, nanos[ITERATIONS / 2] / 1e6, nanos[ITERATIONS - 1] / 1e6);
+        }
+    }
+    
+    private static String[] vocabulary() {
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            // The rank in base 26, spelled with the letters a to z
+            StringBuilder word = new StringBuilder();
+            for (char digit : Integer.toString(i, 26).toCharArray()) {
+                word.append((char) (Character.isDigit(digit) ? 'a' + digit - '0' : digit + 10));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+    
+    private static double[] zipf() {
+        double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int rank = 1; rank <= VOCABULARY; rank++) {
+            sum += 1.0 / rank;
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < VOCABULARY; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+    
+    private static int sample(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, VOCABULARY - 1);
+    }
+}
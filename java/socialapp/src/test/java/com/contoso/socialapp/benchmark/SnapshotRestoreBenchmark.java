@@ -0,0 +1,112 @@
+package com.contoso.socialapp.benchmark;
+
+import com.contoso.socialapp.entity.Comment;
+import com.contoso.socialapp.entity.Post;
+import com.contoso.socialapp.store.journal.FsyncPolicy;
+import com.contoso.socialapp.store.journal.JournalCommentStore;
+import com.contoso.socialapp.store.journal.JournalLikeStore;
+import com.contoso.socialapp.store.journal.JournalPostStore;
+import com.contoso.socialapp.store.journal.JournalUserStore;
+import com.contoso.socialapp.store.journal.StoreJournal;
+import com.contoso.socialapp.store.memory.MemoryCommentStore;
+import com.contoso.socialapp.store.memory.MemoryLikeStore;
+import com.contoso.socialapp.store.memory.MemoryPostStore;
+import com.contoso.socialapp.store.memory.MemoryUserStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cold start of the journal engine: replaying a journal's whole history against restoring the
+ * snapshot taken at its end. Every like and comment also logs its post's new counters, as the
+ * services do. Scale with {@code -Dbenchmark.posts=...} (and a bigger test heap).
+ * Excluded from the regular test run; use {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class SnapshotRestoreBenchmark {
+    
+    private static final int POSTS = Integer.getInteger("benchmark.posts", 50_000);
+    private static final int LIKES_PER_POST = 5;
+    private static final int COMMENTS_PER_POST = 2;
+    private static final int USERS = 1000;
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void coldStart() throws IOException {
+        Stores stores = new Stores();
+        StoreJournal journal = stores.open(dir);
+        load(stores, journal);
+        
+        long replayStarted = System.nanoTime();
+        Stores replayed = new Stores();
+        replayed.open(dir);
+        long replayMillis = (System.nanoTime() - replayStarted) / 1_000_000;
+        assertThat(replayed.posts.count()).isEqualTo(POSTS);
+        replayed = null;
+        
+        long snapshotStarted = System.nanoTime();
+        journal.snapshot();
+        long snapshotMillis = (System.nanoTime() - snapshotStarted) / 1_000_000;
+        
+        long restoreStarted = System.nanoTime();
+        Stores restored = new Stores();
+        restored.open(dir);
+        long restoreMillis = (System.nanoTime() - restoreStarted) / 1_000_000;
+        assertThat(restored.posts.count()).isEqualTo(POSTS);
+        assertThat(restored.likes.count()).isEqualTo((long) POSTS * LIKES_PER_POST);
+        
+        System.out.printf("cold start with %d posts, %d likes, %d comments: journal replay %d ms, "
+                        + "snapshot restore %d ms (%.1fx); writing the snapshot took %d ms%n",
+                POSTS, POSTS * LIKES_PER_POST, POSTS * COMMENTS_PER_POST, replayMillis, restoreMillis,
+                (double) replayMillis / Math.max(restoreMillis, 1), snapshotMillis);
+    }
+    
+    private static void load(Stores stores, StoreJournal journal) {
+        JournalPostStore posts = new JournalPostStore(stores.posts, stores.comments, journal);
+        JournalCommentStore comments = new JournalCommentStore(stores.comments, journal);
+        JournalLikeStore likes = new JournalLikeStore(stores.likes, journal);
+        JournalUserStore users = new JournalUserStore(stores.users, journal);
+        for (int u = 0; u < USERS; u++) {
+            users.insertIfAbsent("user" + u);
+        }
+        long now = System.currentTimeMillis();
+        for (int p = 0; p < POSTS; p++) {
+            String postId = "post-" + p;
+            Post post = new Post();
+            post.setId(postId);
+            post.setUsername("user" + p % USERS);
+            post.setContent("Post number " + p + " with a few words of content, about as long as most");
+            posts.insert(post);
+            for (int l = 0; l < LIKES_PER_POST; l++) {
+                likes.insert(postId, (p + l) % USERS + 1, now);
+                posts.adjustLikesCount(postId, 1);
+            }
+            for (int c = 0; c < COMMENTS_PER_POST; c++) {
+                comments.insert(new Comment(postId + "-c" + c, postId, (p + c) % USERS + 1, "Nice post!", 0, 0, null));
+                posts.adjustCommentsCount(postId, 1);
+            }
+        }
+    }
+    
+    private static final class Stores {
+        
+        private final MemoryLikeStore likes = new MemoryLikeStore();
+        private final MemoryCommentStore comments = new MemoryCommentStore();
+        private final MemoryPostStore posts = new MemoryPostStore(comments, likes);
+        private final MemoryUserStore users = new MemoryUserStore();
+        
+        // Interval fsync without its scheduler: the load is never forced, which keeps it quick
+        private StoreJournal open(Path dir) throws IOException {
+            return new StoreJournal(dir.toString(), DataSize.ofMegabytes(64), FsyncPolicy.INTERVAL, false,
+                    posts, comments, likes, users);
+        }
+    }
+}
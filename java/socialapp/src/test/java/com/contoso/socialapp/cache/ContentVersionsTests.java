@@ -0,0 +1,52 @@
+package com.contoso.socialapp.cache;
+
+import com.contoso.socialapp.event.CommentChangedEvent;
+import com.contoso.socialapp.event.PostCountersChangedEvent;
+import com.contoso.socialapp.event.PostDeletedEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentVersionsTests {
+    
+    @Test
+    void tagsChangeOnlyWhenTheirScopeChanges() {
+        ContentVersions versions = new ContentVersions("maximumSize=100");
+        String post = versions.post("a").etag();
+        String comments = versions.comments("a").etag();
+        
+        assertThat(versions.post("a").etag()).isEqualTo(post);
+        versions.onCommentChanged(new CommentChangedEvent("a", "c1"));
+        assertThat(versions.post("a").etag()).isEqualTo(post);
+        assertThat(versions.comments("a").etag()).isNotEqualTo(comments);
+        versions.onCountersChanged(new PostCountersChangedEvent("a", 1, 0));
+        assertThat(versions.post("a").etag()).isNotEqualTo(post);
+    }
+    
+    @Test
+    void evictedVersionsReadAsChanged() {
+        ContentVersions versions = new ContentVersions("maximumSize=1");
+        String first = versions.post("a").etag();
+        
+        // Read often enough for the size policy to admit it in place of "a"
+        for (int i = 0; i < 10; i++) {
+            versions.post("b");
+        }
+        
+        assertThat(versions.post("a").etag()).isNotEqualTo(first);
+    }
+    
+    @Test
+    void deletedPostsDoNotKeepTheirVersions() {
+        ContentVersions versions = new ContentVersions("maximumSize=100");
+        String post = versions.post("a").etag();
+        String comments = versions.comments("a").etag();
+        String feed = versions.feed().etag();
+        
+        versions.onPostDeleted(new PostDeletedEvent("a"));
+        
+        assertThat(versions.post("a").etag()).isNotEqualTo(post);
+        assertThat(versions.comments("a").etag()).isNotEqualTo(comments);
+        assertThat(versions.feed().etag()).isNotEqualTo(feed);
+    }
+}
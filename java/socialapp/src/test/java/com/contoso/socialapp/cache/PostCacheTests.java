@@ -0,0 +1,118 @@
+package com.contoso.socialapp.cache;
+
+import com.contoso.socialapp.dto.CommentDto;
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewCommentRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.dto.UpdatePostRequest;
+import com.contoso.socialapp.service.CommentService;
+import com.contoso.socialapp.service.CounterReconciliationJob;
+import com.contoso.socialapp.service.LikeService;
+import com.contoso.socialapp.service.PostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:build/post-cache-test.db")
+class PostCacheTests {
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private CommentService commentService;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private CounterReconciliationJob reconciliationJob;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private String postId;
+    
+    @BeforeEach
+    void setUp() {
+        postId = postService.createPost(new NewPostRequest("alice", "cached")).getId();
+        postService.getPostById(postId);
+        // Changed behind the cache's back: reads keep returning the cached copy until a write evicts it
+        jdbcTemplate.update("UPDATE posts SET content = 'reloaded' WHERE id = ?", postId);
+        assertThat(postService.getPostById(postId).getContent()).isEqualTo("cached");
+    }
+    
+    @Test
+    void commentWritesEvictThePost() {
+        CommentDto comment = commentService.createComment(postId, new NewCommentRequest("bob", "hi"));
+        PostDto reloaded = postService.getPostById(postId);
+        assertThat(reloaded.getContent()).isEqualTo("reloaded");
+        assertThat(reloaded.getCommentsCount()).isEqualTo(1);
+        
+        commentService.deleteComment(postId, comment.getId());
+        assertThat(postService.getPostById(postId).getCommentsCount()).isZero();
+    }
+    
+    @Test
+    void likeWritesEvictThePost() {
+        likeService.likePost(postId, new LikeRequest("bob"));
+        PostDto reloaded = postService.getPostById(postId);
+        assertThat(reloaded.getContent()).isEqualTo("reloaded");
+        assertThat(reloaded.getLikesCount()).isEqualTo(1);
+        
+        likeService.unlikePost(postId, "bob");
+        assertThat(postService.getPostById(postId).getLikesCount()).isZero();
+    }
+    
+    @Test
+    void copyLoadedBeforeAWriteIsNotServedAfterIt() {
+        String freshId = postService.createPost(new NewPostRequest("alice", "racing")).getId();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            assertThat(postService.getPostById(freshId).getLikesCount()).isZero();
+            // Commits, evicts and bumps the version before the read's put is applied on its commit
+            CompletableFuture.runAsync(() -> likeService.likePost(freshId, new LikeRequest("bob"))).join();
+        });
+        
+        assertThat(postService.getPostById(freshId).getLikesCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void postWritesEvictThePost() {
+        postService.updatePost(postId, new UpdatePostRequest("carol", "edited"));
+        assertThat(postService.getPostById(postId).getUsername()).isEqualTo("carol");
+    }
+    
+    @Test
+    void reconciliationRepairsEvictThePostAndUpdateTheHotFeed() {
+        commentService.createComment(postId, new NewCommentRequest("bob", "about to vanish"));
+        assertThat(postService.getPostById(postId).getCommentsCount()).isEqualTo(1);
+        assertThat(postService.getPosts(10, null).getItems()).filteredOn(post -> post.getId().equals(postId))
+                .extracting(PostDto::getCommentsCount).containsExactly(1);
+        
+        jdbcTemplate.update("DELETE FROM comments WHERE postId = ?", postId);
+        jdbcTemplate.update("INSERT INTO likes (postId, userId, createdAt) VALUES (?, ?, ?)", postId, 999_999, 0L);
+        reconciliationJob.reconcile();
+        
+        PostDto repaired = postService.getPostById(postId);
+        assertThat(repaired.getCommentsCount()).isZero();
+        assertThat(repaired.getLikesCount()).isEqualTo(1);
+        assertThat(postService.getPosts(10, null).getItems()).filteredOn(post -> post.getId().equals(postId))
+                .extracting(PostDto::getCommentsCount, PostDto::getLikesCount)
+                .containsExactly(tuple(0, 1));
+    }
+}
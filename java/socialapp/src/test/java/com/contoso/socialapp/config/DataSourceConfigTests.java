@@ -0,0 +1,103 @@
+package com.contoso.socialapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:build/data-source-test.db")
+class DataSourceConfigTests {
+    
+    @Autowired
+    @Qualifier("sqliteWriter")
+    private HikariDataSource writer;
+    
+    @Autowired
+    @Qualifier("sqliteReaders")
+    private HikariDataSource readers;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void readOnlyTransactionsRunOnTheReaderPool() {
+        readOnly().executeWithoutResult(status -> {
+            // The connection is only picked once a statement needs one
+            assertThat(active(readers) + active(writer)).isZero();
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts", Long.class);
+            assertThat(active(readers)).isEqualTo(1);
+            assertThat(active(writer)).isZero();
+        });
+        
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts", Long.class);
+            assertThat(active(writer)).isEqualTo(1);
+            assertThat(active(readers)).isZero();
+        });
+    }
+    
+    @Test
+    void readerConnectionsCannotWrite() {
+        assertThatThrownBy(() -> readOnly().executeWithoutResult(status ->
+                jdbcTemplate.update("INSERT INTO users (username) VALUES ('read-only')")))
+                .isInstanceOf(DataAccessException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT journal_mode FROM pragma_journal_mode", String.class))
+                .isEqualToIgnoringCase("wal");
+    }
+    
+    @Test
+    void readersDoNotWaitForAnOpenWrite() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writing = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    jdbcTemplate.update("INSERT INTO users (username) VALUES ('in-flight')");
+                    written.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+        
+        try {
+            // Served from the last commit while the writer still holds its transaction open
+            assertThat(inFlightRows()).isZero();
+        } finally {
+            release.countDown();
+        }
+        writing.get(10, TimeUnit.SECONDS);
+        assertThat(inFlightRows()).isEqualTo(1);
+    }
+    
+    private long inFlightRows() {
+        return readOnly().execute(status ->
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username = 'in-flight'", Long.class));
+    }
+    
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+    
+    private static int active(HikariDataSource pool) {
+        return pool.getHikariPoolMXBean().getActiveConnections();
+    }
+}
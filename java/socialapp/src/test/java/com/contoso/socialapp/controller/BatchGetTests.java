@@ -0,0 +1,104 @@
+package com.contoso.socialapp.controller;
+
+import com.contoso.socialapp.dto.BatchGetPostsRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.service.PostService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/batch-get-test.db",
+        "app.posts.batch-get.max-ids=5"
+})
+@AutoConfigureMockMvc
+class BatchGetTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void resultsFollowRequestOrderWithRepeats() throws Exception {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "batched"));
+        
+        batchGet(List.of("missing", post.getId(), "missing", post.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[*].id").value(
+                        contains("missing", post.getId(), "missing", post.getId())))
+                .andExpect(jsonPath("$.results[*].found").value(contains(false, true, false, true)))
+                .andExpect(jsonPath("$.results[1].post.content").value("batched"))
+                .andExpect(jsonPath("$.results[0].post").doesNotExist());
+    }
+    
+    @Test
+    void distinctIdsAreCapped() throws Exception {
+        List<String> ids = ids(5);
+        // Repeats do not count towards the distinct cap
+        ids.addAll(ids(5));
+        batchGet(ids)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(10)));
+        
+        batchGet(ids(6))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_REQUEST"))
+                .andExpect(jsonPath("$.message").value("At most 5 distinct ids can be requested at once"));
+    }
+    
+    @Test
+    void repeatsAreCappedToo() throws Exception {
+        batchGet(Collections.nCopies(BatchGetPostsRequest.MAX_IDS, "same"))
+                .andExpect(status().isOk());
+        
+        batchGet(Collections.nCopies(BatchGetPostsRequest.MAX_IDS + 1, "same"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.details[0]").value("ids must not hold more than 1000 entries"));
+    }
+    
+    @Test
+    void emptyAndBlankIdsAreRejected() throws Exception {
+        batchGet(List.of())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("ids must not be empty"));
+        batchGet(List.of("ok", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("ids must not contain blank values"));
+    }
+    
+    private ResultActions batchGet(List<String> ids) throws Exception {
+        return mockMvc.perform(post("/posts/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchGetPostsRequest(ids))));
+    }
+    
+    private static List<String> ids(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> "id" + i)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
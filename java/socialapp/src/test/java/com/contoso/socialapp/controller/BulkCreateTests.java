@@ -0,0 +1,124 @@
+package com.contoso.socialapp.controller;
+
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.service.PostService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/bulk-create-test.db",
+        "app.bulk.max-items=3"
+})
+@AutoConfigureMockMvc
+class BulkCreateTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void invalidItemsAreReportedInPlace() throws Exception {
+        String tooLong = "u".repeat(51);
+        bulk("/posts/bulk", "[{\"username\":\"alice\",\"content\":\"kept\"},"
+                + "{\"username\":\"" + tooLong + "\"},"
+                + "null]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.createdCount").value(1))
+                .andExpect(jsonPath("$.failedCount").value(2))
+                .andExpect(jsonPath("$.results[*].index").value(contains(0, 1, 2)))
+                .andExpect(jsonPath("$.results[*].created").value(contains(true, false, false)))
+                .andExpect(jsonPath("$.results[0].errors").value(empty()))
+                .andExpect(jsonPath("$.results[1].id").value(nullValue()))
+                // One message per violation, ordered by field
+                .andExpect(jsonPath("$.results[1].errors").value(contains(
+                        "Content is required", "Username must be between 1 and 50 characters")))
+                .andExpect(jsonPath("$.results[2].errors").value(contains("Item must not be null")));
+    }
+    
+    @Test
+    void requestsMustHoldOneToMaxItems() throws Exception {
+        bulk("/posts/bulk", "[]")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At least one item is required"));
+        bulk("/posts/bulk", "[{},{},{},{}]")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At most 3 items can be created at once"));
+        
+        String postId = postService.createPost(new NewPostRequest("alice", "thread")).getId();
+        bulk("/posts/" + postId + "/comments/bulk", "[{},{},{},{}]")
+                .andExpect(status().isBadRequest());
+        bulk("/posts/missing/comments/bulk", "[{\"username\":\"bob\",\"content\":\"hi\"}]")
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void allInvalidRequestWritesNothing() throws Exception {
+        long before = postCount();
+        
+        bulk("/posts/bulk", "[{},{\"username\":\"alice\"}]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.createdCount").value(0))
+                .andExpect(jsonPath("$.failedCount").value(2));
+        
+        assertThat(postCount()).isEqualTo(before);
+    }
+    
+    @Test
+    void commentsCountTowardsTheirPost() throws Exception {
+        String postId = postService.createPost(new NewPostRequest("alice", "discussed")).getId();
+        
+        bulk("/posts/" + postId + "/comments/bulk", "[{\"username\":\"bob\",\"content\":\"one\"},"
+                + "{\"username\":\"bob\",\"content\":\"\"},"
+                + "{\"username\":\"carol\",\"content\":\"two\"}]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.createdCount").value(2))
+                .andExpect(jsonPath("$.results[1].created").value(false));
+        
+        assertThat(postService.getPostById(postId).getCommentsCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void databaseFailureRollsBackTheWholeRequest() throws Exception {
+        jdbcTemplate.execute("CREATE TRIGGER reject_poison BEFORE INSERT ON posts WHEN NEW.content = 'poison' "
+                + "BEGIN SELECT RAISE(ABORT, 'poison'); END");
+        try {
+            bulk("/posts/bulk", "[{\"username\":\"atomic\",\"content\":\"fine\"},"
+                    + "{\"username\":\"atomic\",\"content\":\"poison\"}]")
+                    .andExpect(status().isInternalServerError());
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER reject_poison");
+        }
+        
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts WHERE username = 'atomic'", Long.class))
+                .isZero();
+    }
+    
+    private long postCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts", Long.class);
+    }
+    
+    private ResultActions bulk(String path, String body) throws Exception {
+        return mockMvc.perform(post(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
@@ -0,0 +1,119 @@
+package com.contoso.socialapp.controller;
+
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.service.PostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs once per storage engine; see the nested classes at the bottom.
+ */
+@AutoConfigureMockMvc
+abstract class ConditionalGetTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private PostService postService;
+    
+    private String postId;
+    
+    @BeforeEach
+    void setUp() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "conditional"));
+        postId = post.getId();
+    }
+    
+    @Test
+    void unchangedPostIsNotModified() throws Exception {
+        String etag = etagOf("/posts/" + postId);
+        
+        mockMvc.perform(get("/posts/" + postId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+    
+    @Test
+    void editInvalidatesPostAndFeed() throws Exception {
+        String postTag = etagOf("/posts/" + postId);
+        String feedTag = etagOf("/posts");
+        
+        mockMvc.perform(patch("/posts/" + postId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\",\"content\":\"edited\"}"))
+                .andExpect(status().isOk());
+        
+        assertChanged("/posts/" + postId, postTag);
+        assertChanged("/posts", feedTag);
+    }
+    
+    @Test
+    void likeInvalidatesPostAndFeed() throws Exception {
+        String postTag = etagOf("/posts/" + postId);
+        String feedTag = etagOf("/posts");
+        
+        mockMvc.perform(post("/posts/" + postId + "/likes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"bob\"}"))
+                .andExpect(status().isCreated());
+        
+        assertChanged("/posts/" + postId, postTag);
+        assertChanged("/posts", feedTag);
+    }
+    
+    @Test
+    void commentInvalidatesCommentListAndPost() throws Exception {
+        String commentsTag = etagOf("/posts/" + postId + "/comments");
+        String postTag = etagOf("/posts/" + postId);
+        
+        mockMvc.perform(post("/posts/" + postId + "/comments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"bob\",\"content\":\"hello\"}"))
+                .andExpect(status().isCreated());
+        
+        assertChanged("/posts/" + postId + "/comments", commentsTag);
+        assertChanged("/posts/" + postId, postTag);
+    }
+    
+    private String etagOf(String path) throws Exception {
+        String etag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+    
+    private void assertChanged(String path, String previousTag) throws Exception {
+        String etag = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, previousTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotEqualTo(previousTag);
+    }
+    
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:sqlite:build/conditional-get-test.db",
+            "app.storage.engine=jpa"
+    })
+    static class Jpa extends ConditionalGetTests {
+    }
+    
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:sqlite:build/conditional-get-memory-test.db",
+            "app.storage.engine=memory"
+    })
+    static class Memory extends ConditionalGetTests {
+    }
+}
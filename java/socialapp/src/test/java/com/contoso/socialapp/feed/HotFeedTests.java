@@ -0,0 +1,103 @@
+package com.contoso.socialapp.feed;
+
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.event.PostCountersChangedEvent;
+import com.contoso.socialapp.event.PostDeletedEvent;
+import com.contoso.socialapp.event.PostSavedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotFeedTests {
+    
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HotFeed feed = new HotFeed(3, meterRegistry);
+    
+    @Test
+    void coldFeedMissesUntilRefilled() {
+        assertThat(feed.head(1)).isEmpty();
+        
+        feed.refill(List.of(post("b", 2), post("a", 1)), feed.stamp());
+        
+        // Two posts, fewer than the capacity: that is every post there is
+        assertThat(ids(feed.head(10).orElseThrow())).containsExactly("b", "a");
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(1);
+    }
+    
+    @Test
+    void refillIsDroppedWhenAWriteRacedIt() {
+        long stamp = feed.stamp();
+        feed.onPostSaved(new PostSavedEvent(post("c", 3), null));
+        
+        feed.refill(List.of(post("b", 2), post("a", 1)), stamp);
+        
+        assertThat(feed.head(1)).isEmpty();
+    }
+    
+    @Test
+    void createsGoInNewestFirstAndPushOutTheOldest() {
+        feed.refill(List.of(post("b", 2), post("a", 1)), feed.stamp());
+        
+        feed.onPostSaved(new PostSavedEvent(post("c", 3), null));
+        // Same time as "c": the larger ID is the newer one
+        feed.onPostSaved(new PostSavedEvent(post("d", 3), null));
+        
+        assertThat(ids(feed.head(3).orElseThrow())).containsExactly("d", "c", "b");
+        // "a" fell off the end, so the feed no longer holds every post
+        assertThat(feed.head(4)).isEmpty();
+        
+        // Older than everything held, with more posts beyond the end: not the feed's to show
+        feed.onPostSaved(new PostSavedEvent(post("z", 0), null));
+        assertThat(ids(feed.head(3).orElseThrow())).containsExactly("d", "c", "b");
+    }
+    
+    @Test
+    void editsReplaceThePostInPlace() {
+        feed.refill(List.of(post("b", 2), post("a", 1)), feed.stamp());
+        PostDto edited = post("a", 1);
+        edited.setContent("edited");
+        
+        feed.onPostSaved(new PostSavedEvent(edited, "content of a"));
+        edited.setContent("changed by the caller afterwards");
+        
+        List<PostDto> head = feed.head(2).orElseThrow();
+        assertThat(ids(head)).containsExactly("b", "a");
+        assertThat(head.get(1).getContent()).isEqualTo("edited");
+    }
+    
+    @Test
+    void deletesAndCounterChangesApplyToHeldPosts() {
+        feed.refill(List.of(post("c", 3), post("b", 2), post("a", 1)), feed.stamp());
+        
+        feed.onCountersChanged(new PostCountersChangedEvent("b", 2, 1));
+        feed.onCountersChanged(new PostCountersChangedEvent("b", -1, 0));
+        feed.onPostDeleted(new PostDeletedEvent("c"));
+        feed.onPostDeleted(new PostDeletedEvent("not-held"));
+        feed.onCountersChanged(new PostCountersChangedEvent("not-held", 1, 0));
+        
+        List<PostDto> head = feed.head(2).orElseThrow();
+        assertThat(ids(head)).containsExactly("b", "a");
+        assertThat(head.get(0).getLikesCount()).isEqualTo(1);
+        assertThat(head.get(0).getCommentsCount()).isEqualTo(1);
+        assertThat(head.get(1).getLikesCount()).isZero();
+    }
+    
+    private double requests(String result) {
+        return meterRegistry.get("feed.hot.requests").tag("result", result).functionCounter().count();
+    }
+    
+    private static PostDto post(String id, long createdAt) {
+        Instant time = Instant.ofEpochMilli(createdAt);
+        return new PostDto(id, "alice", "content of " + id, time, time, 0, 0);
+    }
+    
+    private static List<String> ids(List<PostDto> posts) {
+        return posts.stream().map(PostDto::getId).toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.contoso.socialapp.hashtag;
+
+import com.contoso.socialapp.dto.HashtagCount;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.dto.TrendingHashtagsResponse;
+import com.contoso.socialapp.event.PostSavedEvent;
+import com.contoso.socialapp.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrendingHashtagsTests {
+    
+    private static final long MINUTE = 60_000;
+    
+    private final AtomicLong now = new AtomicLong(1_000 * MINUTE);
+    private final TrendingHashtags trending = new TrendingHashtags(
+            Duration.ofMinutes(5), Duration.ofHours(24), 1024, 4, 50, now::get);
+    
+    @Test
+    void tagsFollowAHashThatStartsAWord() {
+        assertThat(Hashtags.extract("Hike! #OutdoorLife,#outdoorlife #día_2 C# a#b #1 ##coffee #"))
+                .containsExactly("outdoorlife", "día_2", "coffee");
+        assertThat(Hashtags.extract("#" + "x".repeat(100))).containsExactly("x".repeat(Hashtags.MAX_LENGTH));
+        assertThat(Hashtags.extract(null)).isEmpty();
+    }
+    
+    @Test
+    void tagsRankByPostsMentioningThem() {
+        post("#coffee #rain");
+        post("#coffee and more #coffee");
+        post("#Coffee #books #rain");
+        post("#books");
+        post("#rain");
+        
+        TrendingHashtagsResponse response = trending.trending("1h", null);
+        assertThat(response.getWindow()).isEqualTo("PT1H");
+        assertThat(response.getHashtags()).containsExactly(
+                new HashtagCount("coffee", 3), new HashtagCount("rain", 3), new HashtagCount("books", 2));
+        assertThat(trending.trending("1h", 1).getHashtags()).extracting(HashtagCount::getTag).containsExactly("coffee");
+    }
+    
+    @Test
+    void oldBucketsLeaveTheWindowAndRollOff() {
+        post("#sunrise");
+        now.addAndGet(30 * MINUTE);
+        post("#lunch");
+        now.addAndGet(40 * MINUTE);
+        post("#sunset");
+        
+        assertThat(tags("15m")).containsExactly("sunset");
+        assertThat(tags("1h")).containsExactly("lunch", "sunset");
+        // Windows round up to whole five minute buckets
+        assertThat(trending.trending("62m", null).getWindow()).isEqualTo("PT1H5M");
+        assertThat(tags("2h")).containsExactly("lunch", "sunrise", "sunset");
+        
+        // A day later the buckets are reused and the old mentions are gone
+        now.addAndGet(Duration.ofHours(24).toMillis());
+        post("#midnight");
+        assertThat(tags("24h")).containsExactly("midnight");
+    }
+    
+    @Test
+    void mentionsAfterAQueryKeepCounting() {
+        post("#coffee");
+        List<HashtagCount> first = trending.trending("1h", null).getHashtags();
+        // The bucket the query summed is now shared, so these go to a copy of it
+        post("#coffee #tea");
+        post("#tea");
+        
+        assertThat(first).containsExactly(new HashtagCount("coffee", 1));
+        assertThat(trending.trending("1h", null).getHashtags()).containsExactly(
+                new HashtagCount("coffee", 2), new HashtagCount("tea", 2));
+    }
+    
+    @Test
+    void editsCountOnlyNewlyAddedTags() {
+        PostDto post = new PostDto("p1", "alice", "Out for a walk #autumn", null, null, 0, 0);
+        trending.onPostSaved(new PostSavedEvent(post, null));
+        String previous = post.getContent();
+        post.setContent("Out for a long walk #autumn #leaves");
+        trending.onPostSaved(new PostSavedEvent(post, previous));
+        
+        assertThat(trending.trending("1h", null).getHashtags()).containsExactly(
+                new HashtagCount("autumn", 1), new HashtagCount("leaves", 1));
+    }
+    
+    @Test
+    void invalidWindowsAndLimitsAreRejected() {
+        assertThatThrownBy(() -> trending.trending("soon", null)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> trending.trending("0m", null)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> trending.trending("25h", null)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> trending.trending("1h", 0)).isInstanceOf(InvalidRequestException.class);
+        assertThat(trending.trending("PT24H", 500).getHashtags()).isEmpty();
+    }
+    
+    @Test
+    void sketchNeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        Map<String, Integer> counts = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            String item = "tag" + (int) Math.abs(random.nextGaussian() * 200);
+            counts.merge(item, 1, Integer::sum);
+            sketch.add(item);
+        }
+        
+        counts.forEach((item, count) -> assertThat(sketch.estimate(item)).isGreaterThanOrEqualTo(count));
+        assertThat(sketch.estimate("tag0")).isLessThan(counts.get("tag0") * 2);
+    }
+    
+    private void post(String content) {
+        trending.onPostSaved(new PostSavedEvent(new PostDto(null, "alice", content, null, null, 0, 0), null));
+    }
+    
+    private List<String> tags(String window) {
+        return trending.trending(window, null).getHashtags().stream().map(HashtagCount::getTag).sorted().toList();
+    }
+}
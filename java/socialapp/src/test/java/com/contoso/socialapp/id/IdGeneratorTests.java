@@ -0,0 +1,105 @@
+package com.contoso.socialapp.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdGeneratorTests {
+    
+    @Test
+    void concurrentCallersNeverReceiveTheSameId() throws Exception {
+        int threads = 8;
+        int perThread = 250_000;
+        IdGenerator generator = new IdGenerator(7);
+        CountDownLatch start = new CountDownLatch(1);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.next();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+            
+            long[] all = new long[threads * perThread];
+            for (int t = 0; t < threads; t++) {
+                long[] ids = futures.get(t).get();
+                for (int i = 1; i < ids.length; i++) {
+                    assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                }
+                System.arraycopy(ids, 0, all, t * perThread, perThread);
+            }
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertThat(all[i]).isNotEqualTo(all[i - 1]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void stringsAreFixedWidthAndSortInCreationOrder() {
+        AtomicLong clock = new AtomicLong(IdGenerator.EPOCH.toEpochMilli() + 1);
+        IdGenerator generator = new IdGenerator(1, clock::get);
+        
+        String first = generator.nextId();
+        clock.set(System.currentTimeMillis());
+        String second = generator.nextId();
+        
+        assertThat(first).hasSize(IdGenerator.WIDTH).startsWith("0000");
+        assertThat(second).hasSize(IdGenerator.WIDTH);
+        assertThat(first.compareTo(second)).isNegative();
+    }
+    
+    @Test
+    void clockMovingBackwardsDoesNotRepeatIds() {
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        IdGenerator generator = new IdGenerator(3, clock::get);
+        
+        long before = generator.next();
+        clock.addAndGet(-5_000);
+        long after = generator.next();
+        
+        assertThat(after).isGreaterThan(before);
+    }
+    
+    @Test
+    void exhaustedSequenceBorrowsTheNextMillisecond() {
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        IdGenerator generator = new IdGenerator(0, clock::get);
+        
+        long previous = generator.next();
+        for (int i = 0; i < 3 * (1 << IdGenerator.SEQUENCE_BITS); i++) {
+            long id = generator.next();
+            assertThat(id).isGreaterThan(previous);
+            assertThat((id >>> IdGenerator.SEQUENCE_BITS) & IdGenerator.MAX_NODE).isZero();
+            previous = id;
+        }
+    }
+    
+    @Test
+    void rejectsNodeIdsThatDoNotFit() {
+        assertThatThrownBy(() -> new IdGenerator(IdGenerator.MAX_NODE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new IdGenerator(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
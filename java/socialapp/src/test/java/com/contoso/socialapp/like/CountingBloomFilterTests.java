@@ -0,0 +1,48 @@
+package com.contoso.socialapp.like;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountingBloomFilterTests {
+    
+    @Test
+    void addedKeysAreAlwaysReported() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("post-" + (i % 100) + "\u0000user-" + i);
+        }
+        
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("post-" + (i % 100) + "\u0000user-" + i)).isTrue();
+        }
+    }
+    
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("present-" + i);
+        }
+        
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+    
+    @Test
+    void removedKeysAreForgottenWithoutDisturbingOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        filter.add("a");
+        filter.add("b");
+        
+        filter.remove("a");
+        
+        assertThat(filter.mightContain("a")).isFalse();
+        assertThat(filter.mightContain("b")).isTrue();
+    }
+}
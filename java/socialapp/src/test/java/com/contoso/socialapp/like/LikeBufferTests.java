@@ -0,0 +1,164 @@
+package com.contoso.socialapp.like;
+
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.exception.AlreadyLikedException;
+import com.contoso.socialapp.exception.ServiceBusyException;
+import com.contoso.socialapp.repository.LikeRepository;
+import com.contoso.socialapp.repository.PostRepository;
+import com.contoso.socialapp.service.CounterReconciliationJob;
+import com.contoso.socialapp.service.LikeService;
+import com.contoso.socialapp.service.PostService;
+import com.contoso.socialapp.user.UsernameDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/like-buffer-test.db",
+        "app.likes.write-behind.enabled=true",
+        "app.likes.write-behind.flush-interval=PT1H",
+        "app.likes.write-behind.max-pending=8",
+        "app.likes.write-behind.max-attempts=2",
+        "app.likes.likers.snapshot-path=build/like-buffer-test.likers"
+})
+class LikeBufferTests {
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private LikeBuffer likeBuffer;
+    
+    @Autowired
+    private LikeCounters likeCounters;
+    
+    @Autowired
+    private LikeRepository likeRepository;
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private CounterReconciliationJob reconciliationJob;
+    
+    @Autowired
+    private UsernameDictionary usernameDictionary;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private String postId;
+    
+    @BeforeEach
+    void setUp() {
+        postId = postService.createPost(new NewPostRequest("alice", "write-behind")).getId();
+    }
+    
+    @Test
+    void pendingLikesAreVisibleBeforeFlush() {
+        likeService.likePost(postId, new LikeRequest("bob"));
+        likeService.likePost(postId, new LikeRequest("carol"));
+        
+        assertThat(liked("bob")).isFalse();
+        assertThat(postService.getPostById(postId).getLikesCount()).isEqualTo(2);
+        assertThatThrownBy(() -> likeService.likePost(postId, new LikeRequest("bob")))
+                .isInstanceOf(AlreadyLikedException.class);
+        
+        likeBuffer.flush();
+        likeCounters.checkpoint();
+        
+        assertThat(liked("bob")).isTrue();
+        assertThat(postRepository.findById(postId).orElseThrow().getLikesCount()).isEqualTo(2);
+        assertThat(postService.getPostById(postId).getLikesCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void opposingOperationsCancelOut() {
+        for (int i = 0; i < 5; i++) {
+            likeService.likePost(postId, new LikeRequest("dave"));
+            likeService.unlikePost(postId, "dave");
+        }
+        likeService.likePost(postId, new LikeRequest("erin"));
+        likeBuffer.flush();
+        
+        likeService.unlikePost(postId, "erin");
+        likeService.likePost(postId, new LikeRequest("erin"));
+        likeService.unlikePost(postId, "erin");
+        assertThat(postService.getPostById(postId).getLikesCount()).isZero();
+        
+        likeBuffer.flush();
+        likeCounters.checkpoint();
+        
+        assertThat(liked("dave")).isFalse();
+        assertThat(liked("erin")).isFalse();
+        assertThat(postRepository.findById(postId).orElseThrow().getLikesCount()).isZero();
+    }
+    
+    @Test
+    void operationsBeyondMaxPendingAreRejected() {
+        for (int i = 0; i < 8; i++) {
+            likeService.likePost(postId, new LikeRequest("crowd" + i));
+        }
+        assertThatThrownBy(() -> likeService.likePost(postId, new LikeRequest("late")))
+                .isInstanceOf(ServiceBusyException.class);
+        
+        // Cancelling a buffered like frees a slot rather than taking one
+        likeService.unlikePost(postId, "crowd0");
+        likeService.likePost(postId, new LikeRequest("late"));
+        likeBuffer.flushAll();
+        
+        assertThat(liked("late")).isTrue();
+        assertThat(postService.getPostById(postId).getLikesCount()).isEqualTo(8);
+    }
+    
+    @Test
+    void entriesOfABatchThatKeepsFailingAreWrittenAloneOrDeadLettered() {
+        likeService.likePost(postId, new LikeRequest("frank"));
+        likeService.likePost(postId, new LikeRequest("poison"));
+        int poisonId = usernameDictionary.find("poison").orElseThrow();
+        jdbcTemplate.execute("CREATE TRIGGER reject_poison BEFORE INSERT ON likes WHEN NEW.userId = " + poisonId
+                + " BEGIN SELECT RAISE(ABORT, 'poison'); END");
+        try {
+            assertThatThrownBy(likeBuffer::flush).isInstanceOf(RuntimeException.class);
+            likeBuffer.flush();
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER reject_poison");
+        }
+        
+        assertThat(liked("frank")).isTrue();
+        assertThat(liked("poison")).isFalse();
+        assertThat(likeBuffer.pendingState(postId, poisonId)).isNull();
+        assertThat(postService.getPostById(postId).getLikesCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void reconciliationKeepsBufferedLikesAndRepairsRealDrift() {
+        likeService.likePost(postId, new LikeRequest("gina"));
+        likeService.likePost(postId, new LikeRequest("hank"));
+        // The column now counts two likes whose rows are still buffered
+        likeCounters.checkpoint();
+        jdbcTemplate.update("INSERT INTO likes (postId, userId, createdAt) VALUES (?, ?, ?)", postId, 999_999, 0L);
+        
+        reconciliationJob.reconcile();
+        
+        assertThat(postService.getPostById(postId).getLikesCount()).isEqualTo(3);
+        likeBuffer.flushAll();
+        likeCounters.checkpoint();
+        reconciliationJob.reconcile();
+        assertThat(postRepository.findById(postId).orElseThrow().getLikesCount()).isEqualTo(3);
+        assertThat(postService.getPostById(postId).getLikesCount()).isEqualTo(3);
+    }
+    
+    private boolean liked(String username) {
+        return likeRepository.existsByPostIdAndUserId(postId, usernameDictionary.find(username).orElseThrow());
+    }
+}
@@ -0,0 +1,86 @@
+package com.contoso.socialapp.like;
+
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.dto.PostLookupResult;
+import com.contoso.socialapp.service.LikeService;
+import com.contoso.socialapp.service.PostService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/like-counters-test.db",
+        "app.likes.counters.checkpoint-interval=PT1H"
+})
+class LikeCountersTests {
+    
+    @Autowired
+    private LikeCounters likeCounters;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void readsDoNotWaitForACheckpointQueuedOnTheWriter() throws Exception {
+        String postId = postService.createPost(new NewPostRequest("alice", "counted")).getId();
+        likeService.likePost(postId, new LikeRequest("bob"));
+        
+        // Holds the only writer connection until released
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    jdbcTemplate.update("INSERT INTO users (username) VALUES ('holder')");
+                    holding.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(holding.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> checkpoint = CompletableFuture.runAsync(likeCounters::checkpoint);
+        
+        try {
+            Thread.sleep(200);
+            assertThat(checkpoint).isNotDone();
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                    assertThat(likesCount(postId)).isEqualTo(1));
+        } finally {
+            release.countDown();
+        }
+        writer.get(10, TimeUnit.SECONDS);
+        checkpoint.get(10, TimeUnit.SECONDS);
+        
+        assertThat(likesCount(postId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT likesCount FROM posts WHERE id = ?", Integer.class, postId))
+                .isEqualTo(1);
+    }
+    
+    private int likesCount(String postId) {
+        List<PostLookupResult> results = postService.getPostsByIds(List.of(postId)).getResults();
+        return results.get(0).getPost().getLikesCount();
+    }
+}
@@ -0,0 +1,62 @@
+package com.contoso.socialapp.like;
+
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.exception.AlreadyLikedException;
+import com.contoso.socialapp.service.LikeService;
+import com.contoso.socialapp.service.PostService;
+import com.contoso.socialapp.store.LikeStore;
+import com.contoso.socialapp.user.UsernameDictionary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/like-filter-test.db",
+        "app.likes.write-behind.enabled=true",
+        "app.likes.write-behind.flush-interval=PT1H",
+        "app.likes.likers.enabled=false",
+        "app.likes.filter.enabled=true"
+})
+class LikeFilterTests {
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private LikeBuffer likeBuffer;
+    
+    @Autowired
+    private LikeStore likeStore;
+    
+    @Autowired
+    private UsernameDictionary usernameDictionary;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void writeBehindDoesNotTrustTheFilterWithAPairItMissed() {
+        String postId = postService.createPost(new NewPostRequest("alice", "filtered")).getId();
+        // Stored without an event, as if the filter had been swapped while the like committed
+        int userId = usernameDictionary.idFor("bob");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                likeStore.insert(postId, userId, System.currentTimeMillis()));
+        
+        assertThatThrownBy(() -> likeService.likePost(postId, new LikeRequest("bob")))
+                .isInstanceOf(AlreadyLikedException.class);
+        assertThat(postService.getPostById(postId).getLikesCount()).isZero();
+        
+        likeService.unlikePost(postId, "bob");
+        likeBuffer.flushAll();
+        assertThat(likeStore.exists(postId, userId)).isFalse();
+    }
+}
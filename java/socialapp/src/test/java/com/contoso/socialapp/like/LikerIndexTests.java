@@ -0,0 +1,143 @@
+package com.contoso.socialapp.like;
+
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.service.LikeService;
+import com.contoso.socialapp.service.PostService;
+import com.contoso.socialapp.store.memory.MemoryLikeStore;
+import com.contoso.socialapp.user.UsernameDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/liker-index-test.db",
+        "app.likes.likers.snapshot-path=build/liker-index-test.likers"
+})
+@AutoConfigureMockMvc
+class LikerIndexTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private LikerIndex likerIndex;
+    
+    @Autowired
+    private UsernameDictionary usernameDictionary;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @TempDir
+    Path dir;
+    
+    private String postId;
+    
+    @BeforeEach
+    void setUp() {
+        postId = postService.createPost(new NewPostRequest("alice", "liked")).getId();
+    }
+    
+    @Test
+    void likersEndpointReportsRequestedUsersThatLikeThePost() throws Exception {
+        like("bob");
+        like("carol");
+        
+        mockMvc.perform(get("/posts/" + postId + "/likes")
+                        .param("username", "dave", "carol", "never-seen", "bob"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.postId").value(postId))
+                .andExpect(jsonPath("$.likedBy").value(contains("carol", "bob")));
+        
+        mockMvc.perform(delete("/posts/" + postId + "/likes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"bob\"}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/posts/" + postId + "/likes").param("username", "bob", "carol"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likedBy").value(contains("carol")));
+        
+        String[] tooMany = IntStream.range(0, 101).mapToObj(i -> "user" + i).toArray(String[]::new);
+        mockMvc.perform(get("/posts/" + postId + "/likes").param("username", tooMany))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void indexFollowsCommittedLikesOnly() throws Exception {
+        like("erin");
+        int erin = usernameDictionary.find("erin").orElseThrow();
+        assertThat(likerIndex.contains(postId, erin)).isTrue();
+        
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            likeService.likePost(postId, new LikeRequest("frank"));
+            status.setRollbackOnly();
+        });
+        int frank = usernameDictionary.idFor("frank");
+        assertThat(likerIndex.contains(postId, frank)).isFalse();
+        
+        likeService.unlikePost(postId, "erin");
+        assertThat(likerIndex.contains(postId, erin)).isFalse();
+        
+        like("gina");
+        postService.deletePost(postId);
+        assertThat(likerIndex.count(postId)).isZero();
+    }
+    
+    @Test
+    void snapshotIsOnlyTrustedOnceAfterACleanShutdown() throws Exception {
+        Path path = dir.resolve("likers.snapshot");
+        MemoryLikeStore store = new MemoryLikeStore();
+        store.insert("post", 1, 0);
+        store.insert("post", 2, 0);
+        
+        LikerIndex first = new LikerIndex(true, path.toString(), store);
+        first.load();
+        first.close();
+        assertThat(Files.exists(path)).isTrue();
+        
+        LikerIndex restored = new LikerIndex(true, path.toString(), store);
+        restored.load();
+        assertThat(restored.likedBy("post", new int[]{1, 2, 3})).containsExactly(1, 2);
+        assertThat(Files.exists(path)).isFalse();
+        
+        // The restored run dies without shutting down cleanly after swapping one like for another
+        store.delete("post", 2);
+        store.insert("post", 3, 0);
+        LikerIndex rebuilt = new LikerIndex(true, path.toString(), store);
+        rebuilt.load();
+        assertThat(rebuilt.likedBy("post", new int[]{1, 2, 3})).containsExactly(1, 3);
+    }
+    
+    private void like(String username) throws Exception {
+        mockMvc.perform(post("/posts/" + postId + "/likes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\"}"))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,44 @@
+package com.contoso.socialapp.like;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LikerSnapshotTests {
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void roundTripsBitmaps() throws IOException {
+        RoaringBitmap dense = new RoaringBitmap();
+        dense.add(0L, 100_000L);
+        Map<String, RoaringBitmap> likers = Map.of(
+                "post-1", RoaringBitmap.bitmapOf(1, 5, 70_000),
+                "post-2", dense,
+                "post-3", new RoaringBitmap());
+        Path path = dir.resolve("likers.snapshot");
+        
+        LikerSnapshot.write(path, likers);
+        Map<String, RoaringBitmap> restored = LikerSnapshot.read(path);
+        
+        assertThat(restored).isEqualTo(likers);
+        assertThat(Files.list(dir)).containsExactly(path);
+    }
+    
+    @Test
+    void rejectsForeignFiles() throws IOException {
+        Path path = dir.resolve("likers.snapshot");
+        Files.writeString(path, "not a snapshot");
+        
+        assertThatThrownBy(() -> LikerSnapshot.read(path)).isInstanceOf(IOException.class);
+    }
+}
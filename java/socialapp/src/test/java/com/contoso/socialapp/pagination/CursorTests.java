@@ -0,0 +1,49 @@
+package com.contoso.socialapp.pagination;
+
+import com.contoso.socialapp.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorTests {
+    
+    @Test
+    void cursorsRoundTripAsUrlSafeTokens() {
+        Cursor cursor = new Cursor(-1_700_000_000_123L, "id|with/odd+chars");
+        String token = cursor.encode();
+        
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        Cursor decoded = Cursor.decode(token);
+        assertThat(decoded.getSortKey()).isEqualTo(cursor.getSortKey());
+        assertThat(decoded.getId()).isEqualTo(cursor.getId());
+    }
+    
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String token : new String[]{"not base64!", raw("1700000000000"), raw("|id"), raw("1700000000000|"),
+                raw("soon|id"), raw("99999999999999999999|id"), ""}) {
+            assertThatThrownBy(() -> Cursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(InvalidRequestException.class)
+                    .hasMessage("Malformed cursor");
+        }
+    }
+    
+    @Test
+    void limitsDefaultAndClamp() {
+        assertThat(PageLimits.resolve(null, 20, 100)).isEqualTo(20);
+        assertThat(PageLimits.resolve(null, 500, 100)).isEqualTo(100);
+        assertThat(PageLimits.resolve(1, 20, 100)).isEqualTo(1);
+        assertThat(PageLimits.resolve(10_000, 20, 100)).isEqualTo(100);
+        assertThatThrownBy(() -> PageLimits.resolve(0, 20, 100)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> PageLimits.resolve(-5, 20, 100)).isInstanceOf(InvalidRequestException.class);
+    }
+    
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
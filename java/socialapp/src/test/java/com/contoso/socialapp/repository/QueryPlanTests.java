@@ -0,0 +1,192 @@
+package com.contoso.socialapp.repository;
+
+import com.contoso.socialapp.entity.Comment;
+import com.contoso.socialapp.entity.Post;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN QUERY PLAN over the SQL each repository query actually issues and fails on a full
+ * table scan or a sort that an index should have provided.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/query-plan-test.db",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.contoso.socialapp.repository.QueryPlanTests$Recorder"
+})
+class QueryPlanTests {
+    
+    private static final Set<String> EXPLAINED = Set.of("select", "update", "delete");
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private CommentRepository commentRepository;
+    
+    @Autowired
+    private LikeRepository likeRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Test
+    void feedPages() {
+        assertIndexed(() -> postRepository.findFeedPage(Limit.of(20)));
+        assertIndexed(() -> postRepository.findFeedPageAfter(System.currentTimeMillis(), "id", Limit.of(20)));
+    }
+    
+    @Test
+    void mostLiked() {
+        assertIndexed(() -> postRepository.findMostLiked(Limit.of(10)));
+    }
+    
+    @Test
+    void postLookups() {
+        assertIndexed(() -> postRepository.findSummaryById("id"));
+        assertIndexed(() -> postRepository.findSummariesByIdIn(List.of("a", "b", "c")));
+        assertIndexed(() -> postRepository.findById("id"));
+        assertIndexed(() -> postRepository.existsById("id"));
+    }
+    
+    @Test
+    void counterUpdates() {
+        assertIndexed(() -> postRepository.adjustLikesCount("id", 1));
+        assertIndexed(() -> postRepository.adjustCommentsCount("id", 1));
+    }
+    
+    @Test
+    void reconciliationScansPostsOnceAndSeeksEverythingElse() {
+        // Reconciliation visits every post by design; the per-post counts must still be index seeks
+        assertThat(fullScans(plansOf(() -> postRepository.findLikesCountMismatches()))).containsExactly("SCAN p1_0");
+        assertThat(fullScans(plansOf(() -> postRepository.findCommentsCountMismatches()))).containsExactly("SCAN p1_0");
+    }
+    
+    @Test
+    void postDeleteCascade() {
+        assertIndexed(() -> {
+            Post post = new Post();
+            post.setId("cascade");
+            post.setUsername("alice");
+            post.setContent("bye");
+            postRepository.saveAndFlush(post);
+            Comment comment = new Comment();
+            comment.setId("cascade-comment");
+            comment.setPostId("cascade");
+            comment.setUserId(1);
+            comment.setContent("hi");
+            commentRepository.saveAndFlush(comment);
+            likeRepository.insertLike("cascade", 1, System.currentTimeMillis());
+            entityManager.clear();
+            
+            postRepository.deleteById("cascade");
+            postRepository.flush();
+        });
+    }
+    
+    @Test
+    void commentQueries() {
+        assertIndexed(() -> commentRepository.findPageByPostId("post", Limit.of(20)));
+        assertIndexed(() -> commentRepository.findPageByPostIdAfter("post", System.currentTimeMillis(), "id", Limit.of(20)));
+        assertIndexed(() -> commentRepository.countByPostId("post"));
+        assertIndexed(() -> commentRepository.findByIdAndPostId("id", "post"));
+    }
+    
+    @Test
+    void likeQueries() {
+        assertIndexed(() -> likeRepository.existsByPostIdAndUserId("post", 1));
+        assertIndexed(() -> likeRepository.deleteByPostIdAndUserId("post", 1));
+        assertIndexed(() -> likeRepository.findUserIdsByPostIdAndUserIdIn("post", List.of(1, 2, 3)));
+        assertIndexed(() -> likeRepository.countByPostId("post"));
+        assertIndexed(() -> likeRepository.insertLike("post", 1, System.currentTimeMillis()));
+    }
+    
+    @Test
+    void userQueries() {
+        assertIndexed(() -> userRepository.findIdByUsername("alice"));
+        assertIndexed(() -> userRepository.findUsernameById(1));
+        assertIndexed(() -> userRepository.insertIfAbsent("alice"));
+    }
+    
+    private void assertIndexed(Runnable query) {
+        List<String> plans = plansOf(query);
+        assertThat(fullScans(plans)).isEmpty();
+        assertThat(plans).noneMatch(detail -> detail.contains("TEMP B-TREE"));
+    }
+    
+    private static List<String> fullScans(List<String> plans) {
+        return plans.stream()
+                .filter(detail -> detail.startsWith("SCAN ") && !detail.contains(" USING "))
+                .toList();
+    }
+    
+    // Runs the query in a transaction that is rolled back, then explains every statement it issued
+    private List<String> plansOf(Runnable query) {
+        Recorder.STATEMENTS.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            query.run();
+            status.setRollbackOnly();
+        });
+        List<String> statements = List.copyOf(Recorder.STATEMENTS);
+        assertThat(statements).isNotEmpty();
+        
+        List<String> plans = new ArrayList<>();
+        for (String sql : statements) {
+            if (EXPLAINED.stream().noneMatch(sql.stripLeading().toLowerCase()::startsWith)) {
+                continue;
+            }
+            plans.addAll(jdbcTemplate.execute("EXPLAIN QUERY PLAN " + sql, (PreparedStatement ps) -> {
+                int parameters = ps.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    ps.setNull(i, Types.NULL);
+                }
+                List<String> details = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        details.add(rs.getString("detail"));
+                    }
+                }
+                return details;
+            }));
+        }
+        return plans;
+    }
+    
+    public static class Recorder implements StatementInspector {
+        
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+        
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
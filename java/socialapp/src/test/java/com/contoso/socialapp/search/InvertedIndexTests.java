@@ -0,0 +1,151 @@
+package com.contoso.socialapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTests {
+    
+    @Test
+    void tokensAreLowercaseRunsOfLettersAndDigits() {
+        List<String> tokens = new ArrayList<>();
+        Tokenizer.tokenize("Hiking #OutdoorLife @bob: día-2, 100% ☀️", tokens::add);
+        
+        assertThat(tokens).containsExactly("hiking", "outdoorlife", "bob", "día", "2", "100");
+    }
+    
+    @Test
+    void postingsSurviveGapsTooWideForOneEntry() {
+        PostingsList postings = new PostingsList();
+        int[] docs = {0, 7, 8_388_607, 8_388_608 + 7, 2_000_000_000, Integer.MAX_VALUE - 1};
+        for (int i = 0; i < docs.length; i++) {
+            postings.add(docs[i], i + 1);
+        }
+        postings.add(Integer.MAX_VALUE, 1_000);
+        
+        PostingsList.Reader reader = postings.reader();
+        for (int i = 0; i < docs.length; i++) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.doc).isEqualTo(docs[i]);
+            assertThat(reader.frequency).isEqualTo(i + 1);
+        }
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.frequency).isEqualTo(PostingsList.MAX_FREQUENCY);
+        assertThat(reader.next()).isFalse();
+        assertThat(postings.documents()).isEqualTo(docs.length + 1);
+    }
+    
+    @Test
+    void rarerTermsAndDenserMatchesRankHigher() {
+        InvertedIndex index = new InvertedIndex();
+        index.putPost("1", "morning run by the river");
+        index.putPost("2", "river river river");
+        index.putPost("3", "the river at dawn, and a long morning run along the river after that");
+        index.putPost("4", "heron by the river");
+        
+        assertThat(postIds(index.search(Set.of("river"), 10, null))).containsExactly("2", "4", "1", "3");
+        // "heron" is in one post, "river" in all of them
+        assertThat(postIds(index.search(Set.of("river", "heron"), 1, null))).containsExactly("4");
+        assertThat(index.search(Set.of("mountain"), 10, null)).isEmpty();
+    }
+    
+    @Test
+    void commentsMatchTheirPostWithLessWeight() {
+        InvertedIndex index = new InvertedIndex();
+        index.putPost("1", "bread");
+        index.putPost("2", "dinner");
+        index.putComment("c1", "2", "bread");
+        index.putComment("c2", "2", "bread bread");
+        
+        List<InvertedIndex.Hit> hits = index.search(Set.of("bread"), 10, null);
+        assertThat(postIds(hits)).containsExactly("1", "2");
+        assertThat(hits.get(1).getScore()).isLessThan(hits.get(0).getScore());
+        
+        index.removeComment("c1");
+        index.removeComment("c2");
+        assertThat(postIds(index.search(Set.of("bread"), 10, null))).containsExactly("1");
+    }
+    
+    @Test
+    void pagesWalkEveryHitOnce() {
+        InvertedIndex index = new InvertedIndex();
+        for (int i = 0; i < 95; i++) {
+            // Lengths repeat, so many posts tie on score and are ordered by ID
+            index.putPost(String.format("%03d", i), "tea" + " filler".repeat(i % 7));
+        }
+        
+        List<String> walked = new ArrayList<>();
+        InvertedIndex.Hit after = null;
+        List<InvertedIndex.Hit> page;
+        do {
+            page = index.search(Set.of("tea"), 10, after);
+            page.forEach(hit -> walked.add(hit.getPostId()));
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() == 10);
+        
+        assertThat(walked).hasSize(95).doesNotHaveDuplicates();
+        assertThat(walked.subList(0, 14)).startsWith("091", "084", "077");
+    }
+    
+    @Test
+    void viewsScoreTheIndexAsTheySawIt() {
+        InvertedIndex index = new InvertedIndex();
+        for (int i = 0; i < 2_000; i++) {
+            index.putPost(String.format("%04d", i), "kite" + " filler".repeat(i % 5));
+        }
+        List<InvertedIndex.Hit> before = index.search(Set.of("kite"), 10, null);
+        InvertedIndex.View view = index.view(Set.of("kite"));
+        
+        // Enough removals to compact, then a replaced post and a new one
+        for (int i = 0; i < 1_500; i++) {
+            index.removePost(String.format("%04d", i));
+        }
+        index.putPost("1995", "no kites here");
+        index.putPost("9999", "kite kite kite");
+        
+        List<InvertedIndex.Hit> seen = view.search(10, null);
+        assertThat(postIds(seen)).isEqualTo(postIds(before));
+        assertThat(seen).extracting(InvertedIndex.Hit::getScore)
+                .isEqualTo(before.stream().map(InvertedIndex.Hit::getScore).toList());
+        assertThat(postIds(index.search(Set.of("kite"), 10, null)))
+                .startsWith("9999")
+                .doesNotContain("1995", "0000");
+    }
+    
+    @Test
+    void changesAndRemovalsSurviveCompaction() {
+        InvertedIndex index = new InvertedIndex();
+        for (int i = 0; i < 3_000; i++) {
+            index.putPost("p" + i, "draft " + i);
+            index.putComment("c" + i, "p" + i, "first");
+        }
+        for (int i = 0; i < 3_000; i++) {
+            index.putPost("p" + i, i % 2 == 0 ? "published even" : "published odd");
+            if (i % 3 == 0) {
+                index.removePost("p" + i);
+            }
+        }
+        index.removeComment("c1");
+        index.compact();
+        
+        assertThat(index.search(Set.of("draft"), 10, null)).isEmpty();
+        assertThat(index.search(Set.of("even"), 5_000, null)).hasSize(1_000);
+        // Odd posts not removed: 1500 odd minus the 500 that are multiples of three
+        assertThat(index.search(Set.of("odd"), 5_000, null)).hasSize(1_000);
+        assertThat(index.search(Set.of("first"), 5_000, null)).hasSize(1_999);
+        assertThat(index.documentCount()).isEqualTo(2_000 + 1_999);
+        
+        index.putComment("c2", "p2", "late");
+        index.removePost("p4");
+        assertThat(postIds(index.search(Set.of("late", "first"), 1, null))).containsExactly("p2");
+        assertThat(postIds(index.search(Set.of("first"), 5_000, null))).doesNotContain("p1", "p3", "p4");
+    }
+    
+    private static List<String> postIds(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::getPostId).toList();
+    }
+}
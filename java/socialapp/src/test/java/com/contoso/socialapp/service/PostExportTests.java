@@ -0,0 +1,146 @@
+package com.contoso.socialapp.service;
+
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewCommentRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.pagination.CursorPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:build/post-export-test.db")
+@AutoConfigureMockMvc
+class PostExportTests {
+    
+    @Autowired
+    private PostExportService postExportService;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private CommentService commentService;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    void rowsMatchThePostApiFormat() throws Exception {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "exported \"quoted\" ☀️"));
+        likeService.likePost(post.getId(), new LikeRequest("bob"));
+        commentService.createComment(post.getId(), new NewCommentRequest("bob", "noted"));
+        
+        JsonNode exported = null;
+        for (JsonNode row : export()) {
+            if (row.get("id").asText().equals(post.getId())) {
+                exported = row;
+            }
+        }
+        
+        // Same fields and encodings as GET /posts/{id}, live like count included
+        assertThat(exported).isEqualTo(objectMapper.valueToTree(postService.getPostById(post.getId())));
+        assertThat(exported.get("likesCount").asInt()).isEqualTo(1);
+        assertThat(exported.get("commentsCount").asInt()).isEqualTo(1);
+    }
+    
+    @Test
+    void rowsFollowTheFeedOrder() throws Exception {
+        // Shared timestamps, so the order rests on the ID tie-break
+        postService.createPosts(IntStream.range(0, 30)
+                .mapToObj(i -> new NewPostRequest("alice", "tied " + i))
+                .toList());
+        
+        List<String> feed = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<PostDto> page = postService.getPosts(100, after);
+            page.getItems().forEach(post -> feed.add(post.getId()));
+            after = page.getNextCursor();
+        } while (after != null);
+        
+        List<String> exported = new ArrayList<>();
+        export().forEach(row -> exported.add(row.get("id").asText()));
+        assertThat(exported).isEqualTo(feed);
+    }
+    
+    @Test
+    void failedWriteAbandonsTheExport() {
+        // Past the first periodic flush, which is where the failure surfaces
+        for (int batch = 0; batch < 2; batch++) {
+            postService.createPosts(IntStream.range(0, 750)
+                    .mapToObj(i -> new NewPostRequest("alice", "row " + i))
+                    .toList());
+        }
+        // Accepts the opening bracket, then fails like a client that hung up
+        OutputStream hungUp = new OutputStream() {
+            private int flushes;
+            
+            @Override
+            public void write(int b) {
+            }
+            
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (flushes++ > 0) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+        
+        assertThatThrownBy(() -> postExportService.exportPosts(hungUp))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasRootCauseMessage("Broken pipe");
+    }
+    
+    @Test
+    void endpointStreamsAJsonArray() throws Exception {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "over http"));
+        
+        MvcResult started = mockMvc.perform(get("/posts/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn();
+        
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+        assertThat(body.isArray()).isTrue();
+        assertThat(body.get(0).get("id").asText()).isEqualTo(post.getId());
+    }
+    
+    private JsonNode export() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        postExportService.exportPosts(out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+}
@@ -0,0 +1,72 @@
+package com.contoso.socialapp.service;
+
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewCommentRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.pagination.CursorPage;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/query-count-test.db",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.feed.hot.size=0"
+})
+class PostServiceQueryCountTests {
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private CommentService commentService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    void feedPageIsAssembledWithOneStatement() {
+        for (int i = 0; i < 5; i++) {
+            PostDto post = postService.createPost(new NewPostRequest("author" + i, "post " + i));
+            likeService.likePost(post.getId(), new LikeRequest("fan" + i));
+            commentService.createComment(post.getId(), new NewCommentRequest("fan" + i, "nice"));
+        }
+        
+        statistics.clear();
+        CursorPage<PostDto> page = postService.getPosts(10, null);
+        
+        assertThat(page.getItems()).hasSizeGreaterThanOrEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void singlePostIsAssembledWithOneStatement() {
+        PostDto created = postService.createPost(new NewPostRequest("alice", "counted"));
+        likeService.likePost(created.getId(), new LikeRequest("bob"));
+        commentService.createComment(created.getId(), new NewCommentRequest("bob", "hi"));
+        
+        statistics.clear();
+        PostDto post = postService.getPostById(created.getId());
+        
+        assertThat(post.getLikesCount()).isEqualTo(1);
+        assertThat(post.getCommentsCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
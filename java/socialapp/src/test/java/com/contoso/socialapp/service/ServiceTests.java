@@ -0,0 +1,390 @@
+package com.contoso.socialapp.service;
+
+import com.contoso.socialapp.dto.BulkItemResult;
+import com.contoso.socialapp.dto.CommentDto;
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewCommentRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.dto.PostLookupResult;
+import com.contoso.socialapp.dto.UpdateCommentRequest;
+import com.contoso.socialapp.dto.UpdatePostRequest;
+import com.contoso.socialapp.exception.AlreadyLikedException;
+import com.contoso.socialapp.exception.InvalidRequestException;
+import com.contoso.socialapp.exception.ResourceNotFoundException;
+import com.contoso.socialapp.like.LikeCounters;
+import com.contoso.socialapp.pagination.Cursor;
+import com.contoso.socialapp.pagination.CursorPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Service behaviour that every storage engine must reproduce; runs once per engine through the
+ * nested classes at the bottom.
+ */
+abstract class ServiceTests {
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private CommentService commentService;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private PostExportService postExportService;
+    
+    @Autowired
+    private LikeCounters likeCounters;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void postLifecycle() {
+        PostDto created = postService.createPost(new NewPostRequest("alice", "first draft"));
+        assertThat(created.getId()).isNotBlank();
+        assertThat(created.getCreatedAt()).isEqualTo(created.getUpdatedAt());
+        assertThat(postService.getPostById(created.getId()).getContent()).isEqualTo("first draft");
+        
+        PostDto updated = postService.updatePost(created.getId(), new UpdatePostRequest("alice", "final"));
+        assertThat(updated.getContent()).isEqualTo("final");
+        assertThat(updated.getCreatedAt()).isEqualTo(created.getCreatedAt());
+        assertThat(updated.getUpdatedAt()).isAfterOrEqualTo(created.getUpdatedAt());
+        assertThat(postService.getPostById(created.getId()).getContent()).isEqualTo("final");
+        
+        postService.deletePost(created.getId());
+        assertThatThrownBy(() -> postService.getPostById(created.getId())).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> postService.deletePost(created.getId())).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> postService.updatePost(created.getId(), new UpdatePostRequest("alice", "again")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+    
+    @Test
+    void feedPagesWalkEveryPostNewestFirst() {
+        List<String> created = IntStream.range(0, 7)
+                .mapToObj(i -> postService.createPost(new NewPostRequest("paged", "post " + i)).getId())
+                .collect(Collectors.toList());
+        
+        List<PostDto> walked = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<PostDto> page = postService.getPosts(3, after);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(3);
+            walked.addAll(page.getItems());
+            after = page.getNextCursor();
+        } while (after != null);
+        
+        assertThat(walked).extracting(PostDto::getId).doesNotHaveDuplicates().containsAll(created);
+        for (int i = 1; i < walked.size(); i++) {
+            PostDto newer = walked.get(i - 1);
+            PostDto older = walked.get(i);
+            assertThat(newer.getCreatedAt().compareTo(older.getCreatedAt()) > 0
+                    || newer.getCreatedAt().equals(older.getCreatedAt()) && newer.getId().compareTo(older.getId()) > 0)
+                    .isTrue();
+        }
+    }
+    
+    @Test
+    void feedPagesBreakTimestampTiesById() {
+        // A bulk create stamps every post with the same time
+        List<String> tied = postService.createPosts(IntStream.range(0, 120)
+                        .mapToObj(i -> new NewPostRequest("tied", "tied " + i))
+                        .toList())
+                .getResults().stream()
+                .map(BulkItemResult::getId)
+                .collect(Collectors.toList());
+        
+        assertThat(postService.getPosts(10_000, null).getItems()).hasSize(100);
+        
+        List<String> walked = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<PostDto> page = postService.getPosts(7, after);
+            page.getItems().stream().map(PostDto::getId).filter(tied::contains).forEach(walked::add);
+            after = page.getNextCursor();
+        } while (after != null);
+        
+        assertThat(walked).containsExactlyElementsOf(tied.stream().sorted(Comparator.reverseOrder()).toList());
+    }
+    
+    @Test
+    void feedRejectsMalformedCursorsAndLimits() {
+        assertThatThrownBy(() -> postService.getPosts(10, "not a cursor"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Malformed cursor");
+        assertThatThrownBy(() -> postService.getPosts(0, null))
+                .isInstanceOf(InvalidRequestException.class);
+        // A cursor past the oldest post is simply the end of the feed
+        CursorPage<PostDto> end = postService.getPosts(10, new Cursor(Long.MIN_VALUE + 1, "0").encode());
+        assertThat(end.getItems()).isEmpty();
+        assertThat(end.getNextCursor()).isNull();
+    }
+    
+    @Test
+    void firstFeedPageFollowsCreatesLikesAndDeletes() {
+        // Warms the hot feed, which serves the first page from here on
+        postService.getPosts(5, null);
+        
+        PostDto post = postService.createPost(new NewPostRequest("alice", "hot"));
+        assertThat(postService.getPosts(5, null).getItems().get(0).getId()).isEqualTo(post.getId());
+        
+        likeService.likePost(post.getId(), new LikeRequest("bob"));
+        assertThat(postService.getPosts(5, null).getItems().get(0).getLikesCount()).isEqualTo(1);
+        
+        postService.deletePost(post.getId());
+        assertThat(postService.getPosts(5, null).getItems()).extracting(PostDto::getId).doesNotContain(post.getId());
+    }
+    
+    @Test
+    void batchGetReportsMissingIds() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "batch"));
+        
+        List<PostLookupResult> results = postService.getPostsByIds(List.of(post.getId(), "missing", post.getId())).getResults();
+        
+        assertThat(results).extracting(PostLookupResult::getId).containsExactly(post.getId(), "missing", post.getId());
+        assertThat(results).extracting(PostLookupResult::isFound).containsExactly(true, false, true);
+        assertThat(results.get(0).getPost().getContent()).isEqualTo("batch");
+    }
+    
+    @Test
+    void mostLikedOrdersByStoredLikesCount() {
+        PostDto popular = postService.createPost(new NewPostRequest("alice", "popular"));
+        PostDto quiet = postService.createPost(new NewPostRequest("alice", "quiet"));
+        for (int i = 0; i < 50; i++) {
+            likeService.likePost(popular.getId(), new LikeRequest("ranker" + i));
+        }
+        likeService.likePost(quiet.getId(), new LikeRequest("ranker0"));
+        likeCounters.checkpoint();
+        
+        List<PostDto> top = postService.getMostLikedPosts(100);
+        
+        assertThat(top.get(0).getId()).isEqualTo(popular.getId());
+        assertThat(top.get(0).getLikesCount()).isEqualTo(50);
+        assertThat(top).extracting(PostDto::getId).contains(quiet.getId());
+        assertThat(top).extracting(PostDto::getLikesCount).isSortedAccordingTo((a, b) -> Integer.compare(b, a));
+    }
+    
+    @Test
+    void commentLifecycle() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "discussed"));
+        List<CommentDto> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(commentService.createComment(post.getId(), new NewCommentRequest("bob", "comment " + i)));
+        }
+        assertThat(commentService.countCommentsByPostId(post.getId())).isEqualTo(5);
+        assertThat(postService.getPostById(post.getId()).getCommentsCount()).isEqualTo(5);
+        
+        CursorPage<CommentDto> first = commentService.getCommentsByPostId(post.getId(), 3, null);
+        CursorPage<CommentDto> second = commentService.getCommentsByPostId(post.getId(), 3, first.getNextCursor());
+        assertThat(first.getItems()).extracting(CommentDto::getId)
+                .containsExactlyElementsOf(created.subList(0, 3).stream().map(CommentDto::getId).toList());
+        assertThat(second.getItems()).extracting(CommentDto::getId)
+                .containsExactlyElementsOf(created.subList(3, 5).stream().map(CommentDto::getId).toList());
+        assertThat(second.getNextCursor()).isNull();
+        
+        CommentDto edited = commentService.updateComment(post.getId(), created.get(0).getId(),
+                new UpdateCommentRequest("carol", "edited"));
+        assertThat(edited.getUsername()).isEqualTo("carol");
+        assertThat(commentService.getCommentById(post.getId(), created.get(0).getId()).getContent()).isEqualTo("edited");
+        assertThatThrownBy(() -> commentService.getCommentById("other-post", created.get(0).getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        
+        commentService.deleteComment(post.getId(), created.get(1).getId());
+        assertThat(commentService.countCommentsByPostId(post.getId())).isEqualTo(4);
+        assertThat(postService.getPostById(post.getId()).getCommentsCount()).isEqualTo(4);
+        assertThatThrownBy(() -> commentService.deleteComment(post.getId(), created.get(1).getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+    
+    @Test
+    void commentPagesBreakTimestampTiesById() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "busy thread"));
+        PostDto other = postService.createPost(new NewPostRequest("alice", "quiet thread"));
+        commentService.createComment(other.getId(), new NewCommentRequest("bob", "elsewhere"));
+        // A bulk create stamps every comment with the same time
+        List<String> tied = commentService.createComments(post.getId(), IntStream.range(0, 250)
+                        .mapToObj(i -> new NewCommentRequest("bob", "tied " + i))
+                        .toList())
+                .getResults().stream()
+                .map(BulkItemResult::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        String last = commentService.createComment(post.getId(), new NewCommentRequest("carol", "last")).getId();
+        
+        assertThat(commentService.getCommentsByPostId(post.getId(), null, null).getItems()).hasSize(50);
+        assertThat(commentService.getCommentsByPostId(post.getId(), 10_000, null).getItems()).hasSize(200);
+        
+        List<String> walked = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<CommentDto> page = commentService.getCommentsByPostId(post.getId(), 7, after);
+            page.getItems().forEach(comment -> walked.add(comment.getId()));
+            after = page.getNextCursor();
+        } while (after != null);
+        
+        List<String> expected = new ArrayList<>(tied);
+        expected.add(last);
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+    
+    @Test
+    void commentPagesRejectMalformedCursorsAndLimits() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "strict"));
+        commentService.createComment(post.getId(), new NewCommentRequest("bob", "first"));
+        
+        assertThatThrownBy(() -> commentService.getCommentsByPostId(post.getId(), 10, "%%%"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Malformed cursor");
+        assertThatThrownBy(() -> commentService.getCommentsByPostId(post.getId(), 0, null))
+                .isInstanceOf(InvalidRequestException.class);
+        // A position past the newest comment is simply the end of the thread
+        CursorPage<CommentDto> end = commentService.getCommentsByPostId(post.getId(), 10,
+                new Cursor(Long.MAX_VALUE, "~").encode());
+        assertThat(end.getItems()).isEmpty();
+        assertThat(end.getNextCursor()).isNull();
+    }
+    
+    @Test
+    void searchFollowsPostAndCommentChanges() {
+        String word = "kayak" + System.nanoTime();
+        PostDto inText = postService.createPost(new NewPostRequest("alice", "Paddling my " + word + " #" + word));
+        PostDto inComment = postService.createPost(new NewPostRequest("alice", "Lake day"));
+        CommentDto comment = commentService.createComment(inComment.getId(),
+                new NewCommentRequest("bob", "Nice " + word.toUpperCase()));
+        
+        CursorPage<PostDto> first = postService.searchPosts(word, 1, null);
+        CursorPage<PostDto> second = postService.searchPosts(word, 1, first.getNextCursor());
+        assertThat(first.getItems()).extracting(PostDto::getId).containsExactly(inText.getId());
+        assertThat(second.getItems()).extracting(PostDto::getId).containsExactly(inComment.getId());
+        assertThat(second.getNextCursor()).isNull();
+        
+        commentService.updateComment(inComment.getId(), comment.getId(), new UpdateCommentRequest("bob", "Nice lake"));
+        assertThat(postService.searchPosts(word, 10, null).getItems()).extracting(PostDto::getId)
+                .containsExactly(inText.getId());
+        postService.updatePost(inText.getId(), new UpdatePostRequest("alice", "Paddling"));
+        assertThat(postService.searchPosts(word, 10, null).getItems()).isEmpty();
+        
+        commentService.createComment(inComment.getId(), new NewCommentRequest("bob", word));
+        assertThat(postService.searchPosts(word, 10, null).getItems()).hasSize(1);
+        postService.deletePost(inComment.getId());
+        assertThat(postService.searchPosts(word, 10, null).getItems()).isEmpty();
+        
+        assertThatThrownBy(() -> postService.searchPosts(" #! ", 10, null))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+    
+    @Test
+    void likeLifecycle() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "likeable"));
+        
+        likeService.likePost(post.getId(), new LikeRequest("bob"));
+        assertThatThrownBy(() -> likeService.likePost(post.getId(), new LikeRequest("bob")))
+                .isInstanceOf(AlreadyLikedException.class);
+        likeService.likePost(post.getId(), new LikeRequest("carol"));
+        assertThat(postService.getPostById(post.getId()).getLikesCount()).isEqualTo(2);
+        assertThat(likeService.findLikers(post.getId(), List.of("bob", "carol", "dave", "never-seen")).getLikedBy())
+                .containsExactly("bob", "carol");
+        
+        likeService.unlikePost(post.getId(), "bob");
+        likeService.unlikePost(post.getId(), "bob");
+        likeService.unlikePost(post.getId(), "never-seen");
+        assertThat(postService.getPostById(post.getId()).getLikesCount()).isEqualTo(1);
+        assertThat(likeService.findLikers(post.getId(), List.of("bob", "carol")).getLikedBy()).containsExactly("carol");
+    }
+    
+    @Test
+    void deletingPostRemovesItsCommentsAndLikes() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "doomed"));
+        CommentDto comment = commentService.createComment(post.getId(), new NewCommentRequest("bob", "bye"));
+        likeService.likePost(post.getId(), new LikeRequest("bob"));
+        
+        postService.deletePost(post.getId());
+        
+        assertThat(commentService.countCommentsByPostId(post.getId())).isZero();
+        assertThat(commentService.getCommentsByPostId(post.getId(), 10, null).getItems()).isEmpty();
+        assertThatThrownBy(() -> commentService.getCommentById(post.getId(), comment.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(likeService.findLikers(post.getId(), List.of("bob")).getLikedBy()).isEmpty();
+    }
+    
+    @Test
+    void bulkCreatesValidItemsOnly() {
+        var posts = postService.createPosts(List.of(
+                new NewPostRequest("alice", "bulk one"),
+                new NewPostRequest("", ""),
+                new NewPostRequest("alice", "bulk two")));
+        assertThat(posts.getCreatedCount()).isEqualTo(2);
+        assertThat(posts.getFailedCount()).isEqualTo(1);
+        String postId = posts.getResults().get(0).getId();
+        assertThat(postService.getPostById(postId).getContent()).isEqualTo("bulk one");
+        
+        var comments = commentService.createComments(postId, List.of(
+                new NewCommentRequest("bob", "bulk comment"),
+                new NewCommentRequest("carol", "another")));
+        assertThat(comments.getCreatedCount()).isEqualTo(2);
+        assertThat(commentService.getCommentsByPostId(postId, 10, null).getItems())
+                .extracting(CommentDto::getContent)
+                .containsExactlyInAnyOrder("bulk comment", "another");
+        assertThat(postService.getPostById(postId).getCommentsCount()).isEqualTo(2);
+        assertThatThrownBy(() -> commentService.createComments("missing", List.of(new NewCommentRequest("bob", "x"))))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+    
+    @Test
+    void exportStreamsEveryPostNewestFirst() throws Exception {
+        PostDto older = postService.createPost(new NewPostRequest("alice", "exported older"));
+        PostDto newer = postService.createPost(new NewPostRequest("alice", "exported newer"));
+        likeService.likePost(newer.getId(), new LikeRequest("bob"));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        postExportService.exportPosts(out);
+        
+        List<String> ids = new ArrayList<>();
+        JsonNode exported = objectMapper.readTree(out.toByteArray());
+        exported.forEach(post -> ids.add(post.get("id").asText()));
+        assertThat(ids).containsSubsequence(newer.getId(), older.getId());
+        exported.forEach(post -> {
+            if (post.get("id").asText().equals(newer.getId())) {
+                assertThat(post.get("likesCount").asInt()).isEqualTo(1);
+            }
+        });
+    }
+    
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:sqlite:build/service-jpa-test.db",
+            "app.storage.engine=jpa"
+    })
+    static class Jpa extends ServiceTests {
+    }
+    
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:sqlite:build/service-memory-test.db",
+            "app.storage.engine=memory"
+    })
+    static class Memory extends ServiceTests {
+    }
+    
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:sqlite:build/service-journal-test.db",
+            "app.storage.engine=journal",
+            "app.storage.journal.directory=build/service-journal-test/${random.uuid}"
+    })
+    static class Journal extends ServiceTests {
+    }
+}
@@ -0,0 +1,274 @@
+package com.contoso.socialapp.store.journal;
+
+import com.contoso.socialapp.entity.Comment;
+import com.contoso.socialapp.entity.Post;
+import com.contoso.socialapp.store.memory.MemoryCommentStore;
+import com.contoso.socialapp.store.memory.MemoryLikeStore;
+import com.contoso.socialapp.store.memory.MemoryPostStore;
+import com.contoso.socialapp.store.memory.MemoryUserStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalTests {
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void replaysRecordsInOrderAcrossSegments() throws IOException {
+        String padding = "x".repeat(10_000);
+        try (Journal journal = Journal.open(dir, Journal.MIN_SEGMENT, FsyncPolicy.GROUP, 0, (type, body) -> { })) {
+            for (int i = 0; i < 300; i++) {
+                append(journal, i + ":" + padding);
+            }
+        }
+        
+        assertThat(segments()).hasSizeGreaterThanOrEqualTo(3);
+        assertThat(replay()).hasSize(300).allMatch(value -> value.endsWith(padding))
+                .extracting(value -> value.substring(0, value.indexOf(':')))
+                .containsExactlyElementsOf(Stream.iterate(0, i -> i + 1).limit(300).map(String::valueOf).toList());
+    }
+    
+    @Test
+    void dropsTornTailAndKeepsAppending() throws IOException {
+        try (Journal journal = Journal.open(dir, Journal.MIN_SEGMENT, FsyncPolicy.EVERY_WRITE, 0, (type, body) -> { })) {
+            append(journal, "one");
+            append(journal, "two");
+            append(journal, "three");
+        }
+        // Records are 8 header bytes, a type byte and a 4-byte length before the string
+        corrupt(segments().get(0), 16 + 16 + 10);
+        
+        try (Journal journal = Journal.open(dir, Journal.MIN_SEGMENT, FsyncPolicy.EVERY_WRITE, 0, (type, body) -> { })) {
+            append(journal, "four");
+        }
+        
+        assertThat(replay()).containsExactly("one", "two", "four");
+    }
+    
+    @Test
+    void refusesCorruptionBeforeTheTail() throws IOException {
+        String padding = "x".repeat(10_000);
+        try (Journal journal = Journal.open(dir, Journal.MIN_SEGMENT, FsyncPolicy.INTERVAL, 0, (type, body) -> { })) {
+            for (int i = 0; i < 150; i++) {
+                append(journal, padding);
+            }
+        }
+        corrupt(segments().get(0), 100);
+        
+        assertThatThrownBy(this::replay).isInstanceOf(IllegalStateException.class);
+    }
+    
+    @Test
+    void encodesStringsAsUtf8() {
+        String value = "héllo ☃ 👋 \ud800 end";
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        
+        Journal.putString(buffer, value);
+        buffer.flip();
+        
+        byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+        assertThat(buffer.getInt(0)).isEqualTo(expected.length);
+        assertThat(buffer.slice(4, expected.length)).isEqualTo(ByteBuffer.wrap(expected));
+        assertThat(Journal.getString(buffer)).isEqualTo(new String(expected, StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void storesComeBackFromReplay() throws IOException {
+        Stores stores = new Stores();
+        StoreJournal journal = stores.openJournal();
+        JournalPostStore posts = new JournalPostStore(stores.posts, stores.comments, journal);
+        JournalCommentStore comments = new JournalCommentStore(stores.comments, journal);
+        JournalLikeStore likes = new JournalLikeStore(stores.likes, journal);
+        JournalUserStore users = new JournalUserStore(stores.users, journal);
+        
+        int bob = writeHistory(posts, comments, likes, users);
+        journal.close();
+        
+        Stores restored = new Stores();
+        restored.openJournal().close();
+        
+        assertThat(restored.users.findUsernameById(bob)).contains("bob");
+        assertThat(restored.posts.findById("p2")).isEmpty();
+        assertThat(restored.posts.findSummaryById("p1").orElseThrow().getContent()).isEqualTo("edited");
+        assertThat(restored.comments.findPageByPostId("p1", 10)).extracting(Comment::getId).containsExactly("c1");
+        assertThat(restored.likes.exists("p1", bob)).isTrue();
+        assertThat(restored).isEqualTo(stores);
+        // New users continue after the replayed IDs
+        restored.users.insertIfAbsent("carol");
+        assertThat(restored.users.findIdByUsername("carol")).isEqualTo(Optional.of(bob + 1));
+    }
+    
+    @Test
+    void snapshotReplacesTheJournalBeforeIt() throws IOException {
+        Stores stores = new Stores();
+        StoreJournal journal = stores.openJournal();
+        JournalPostStore posts = new JournalPostStore(stores.posts, stores.comments, journal);
+        JournalCommentStore comments = new JournalCommentStore(stores.comments, journal);
+        JournalLikeStore likes = new JournalLikeStore(stores.likes, journal);
+        JournalUserStore users = new JournalUserStore(stores.users, journal);
+        String padding = "x".repeat(1000);
+        for (int i = 0; i < 3000; i++) {
+            posts.insert(post("padding-" + i, padding));
+        }
+        
+        int bob = writeHistory(posts, comments, likes, users);
+        journal.snapshot();
+        List<Path> afterSnapshot = segments();
+        Post edited = posts.findById("p1").orElseThrow();
+        edited.setContent("after the snapshot");
+        posts.update(edited);
+        posts.adjustLikesCount("p1", 5);
+        likes.delete("p1", bob);
+        posts.deleteById("padding-0");
+        journal.close();
+        
+        assertThat(afterSnapshot).hasSize(2).contains(dir.resolve("store.snapshot"));
+        Stores restored = new Stores();
+        restored.openJournal().close();
+        assertThat(restored).isEqualTo(stores);
+        assertThat(restored.posts.findSummaryById("p1").orElseThrow().getLikesCount()).isEqualTo(6);
+    }
+    
+    @Test
+    void replayingRecordsTheSnapshotAlreadyHoldsChangesNothing() throws IOException {
+        Stores stores = new Stores();
+        StoreJournal journal = stores.openJournal();
+        JournalPostStore posts = new JournalPostStore(stores.posts, stores.comments, journal);
+        JournalCommentStore comments = new JournalCommentStore(stores.comments, journal);
+        JournalLikeStore likes = new JournalLikeStore(stores.likes, journal);
+        JournalUserStore users = new JournalUserStore(stores.users, journal);
+        writeHistory(posts, comments, likes, users);
+        journal.snapshot();
+        journal.close();
+        
+        // As if every record had been logged after the snapshot's position
+        Path empty = Files.createDirectories(dir.resolve("empty"));
+        Stores restored = new Stores();
+        StoreJournal replayer = new StoreJournal(empty.toString(), DataSize.ofMegabytes(1), FsyncPolicy.GROUP, false,
+                restored.posts, restored.comments, restored.likes, restored.users);
+        StoreSnapshot.read(dir.resolve("store.snapshot"), replayer::replay);
+        Journal.open(dir, Journal.MIN_SEGMENT, FsyncPolicy.GROUP, 0, replayer::replay).close();
+        
+        assertThat(restored).isEqualTo(stores);
+    }
+    
+    private static int writeHistory(JournalPostStore posts, JournalCommentStore comments, JournalLikeStore likes,
+                                     JournalUserStore users) {
+        users.insertIfAbsent("alice");
+        users.insertIfAbsent("bob");
+        users.insertIfAbsent("alice");
+        int bob = users.findIdByUsername("bob").orElseThrow();
+        posts.insert(post("p1", "first"));
+        posts.insert(post("p2", "doomed"));
+        Post edited = posts.findById("p1").orElseThrow();
+        edited.setContent("edited");
+        posts.update(edited);
+        comments.insert(new Comment("c1", "p1", bob, "nice", 0, 0, null));
+        comments.insert(new Comment("c2", "p1", bob, "gone soon", 0, 0, null));
+        comments.delete(comments.findByIdAndPostId("c2", "p1").orElseThrow());
+        posts.adjustCommentsCount("p1", 1);
+        likes.insert("p1", bob, 42);
+        likes.insert("p2", bob, 43);
+        posts.adjustLikesCount("p1", 1);
+        posts.deleteById("p2");
+        return bob;
+    }
+    
+    private static Post post(String id, String content) {
+        Post post = new Post();
+        post.setId(id);
+        post.setUsername("alice");
+        post.setContent(content);
+        return post;
+    }
+    
+    private static void append(Journal journal, String value) {
+        ByteBuffer out = journal.begin((byte) 1);
+        try {
+            Journal.putString(out, value);
+            journal.sync(journal.commit());
+        } finally {
+            journal.abort();
+        }
+    }
+    
+    private List<String> replay() throws IOException {
+        List<String> values = new ArrayList<>();
+        Journal.open(dir, Journal.MIN_SEGMENT, FsyncPolicy.GROUP, 0, (type, body) -> values.add(Journal.getString(body))).close();
+        return values;
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+    
+    private static void corrupt(Path segment, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), offset);
+        }
+    }
+    
+    private final class Stores {
+        
+        private final MemoryLikeStore likes = new MemoryLikeStore();
+        private final MemoryCommentStore comments = new MemoryCommentStore();
+        private final MemoryPostStore posts = new MemoryPostStore(comments, likes);
+        private final MemoryUserStore users = new MemoryUserStore();
+        
+        private StoreJournal openJournal() throws IOException {
+            return new StoreJournal(dir.toString(), DataSize.ofMegabytes(1), FsyncPolicy.GROUP, false,
+                    posts, comments, likes, users);
+        }
+        
+        // Everything the stores hold, comparable between two sets of stores
+        private List<Object> contents() {
+            List<Object> contents = new ArrayList<>();
+            posts.forEachNewestFirst(contents::add);
+            List<Comment> allComments = new ArrayList<>();
+            comments.forEach(allComments::add);
+            allComments.stream().sorted(Comparator.comparing(Comment::getId)).forEach(contents::add);
+            List<String> allLikes = new ArrayList<>();
+            likes.forEachLike((postId, userId, createdAt) -> allLikes.add(postId + "/" + userId + "@" + createdAt));
+            allLikes.stream().sorted().forEach(contents::add);
+            List<String> allUsers = new ArrayList<>();
+            users.forEach((username, id) -> allUsers.add(id + "=" + username));
+            allUsers.stream().sorted().forEach(contents::add);
+            return contents;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Stores stores && contents().equals(stores.contents());
+        }
+        
+        @Override
+        public int hashCode() {
+            return contents().hashCode();
+        }
+        
+        @Override
+        public String toString() {
+            return contents().toString();
+        }
+    }
+}
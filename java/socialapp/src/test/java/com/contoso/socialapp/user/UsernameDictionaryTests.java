@@ -0,0 +1,76 @@
+package com.contoso.socialapp.user;
+
+import com.contoso.socialapp.store.UserStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:build/username-dictionary-test.db")
+class UsernameDictionaryTests {
+    
+    @Autowired
+    private UsernameDictionary usernameDictionary;
+    
+    @Autowired
+    private UserStore userStore;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void usernamesAndIdsMapBothWays() {
+        int id = usernameDictionary.idFor("alice");
+        
+        assertThat(usernameDictionary.idFor("alice")).isEqualTo(id);
+        assertThat(usernameDictionary.find("alice")).isEqualTo(OptionalInt.of(id));
+        assertThat(usernameDictionary.username(id)).isEqualTo("alice");
+        assertThat(usernameDictionary.find("never-registered")).isEmpty();
+        assertThatThrownBy(() -> usernameDictionary.username(-1)).isInstanceOf(IllegalStateException.class);
+    }
+    
+    @Test
+    void registrationIsCachedOnlyOnceCommitted() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int rolledBack = transaction.execute(status -> {
+            int id = usernameDictionary.idFor("ghost");
+            // Read back inside the registering transaction, which must not cache it either
+            assertThat(usernameDictionary.username(id)).isEqualTo("ghost");
+            status.setRollbackOnly();
+            return id;
+        });
+        
+        assertThat(usernameDictionary.find("ghost")).isEmpty();
+        // SQLite hands the rolled-back ID out again; the dictionary must follow the new owner
+        int reused = transaction.execute(status -> usernameDictionary.idFor("successor"));
+        assertThat(reused).isEqualTo(rolledBack);
+        assertThat(usernameDictionary.username(reused)).isEqualTo("successor");
+        
+        // Committed registrations are served from memory: a rename behind the cache goes unseen
+        jdbcTemplate.update("UPDATE users SET username = 'renamed' WHERE id = ?", reused);
+        assertThat(usernameDictionary.find("successor")).isEqualTo(OptionalInt.of(reused));
+        assertThat(usernameDictionary.username(reused)).isEqualTo("successor");
+    }
+    
+    @Test
+    void knownUsersAreLoadedAtStartup() {
+        int id = usernameDictionary.idFor("preloaded");
+        UsernameDictionary restarted = new UsernameDictionary(userStore);
+        restarted.load();
+        
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+        
+        assertThat(restarted.find("preloaded")).isEqualTo(OptionalInt.of(id));
+        assertThat(restarted.username(id)).isEqualTo("preloaded");
+    }
+}
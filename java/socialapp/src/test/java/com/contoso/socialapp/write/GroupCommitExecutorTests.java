@@ -0,0 +1,280 @@
+package com.contoso.socialapp.write;
+
+import com.contoso.socialapp.dto.LikeRequest;
+import com.contoso.socialapp.dto.NewCommentRequest;
+import com.contoso.socialapp.dto.NewPostRequest;
+import com.contoso.socialapp.dto.PostDto;
+import com.contoso.socialapp.dto.UpdatePostRequest;
+import com.contoso.socialapp.exception.ResourceNotFoundException;
+import com.contoso.socialapp.repository.LikeRepository;
+import com.contoso.socialapp.repository.PostRepository;
+import com.contoso.socialapp.service.CommentService;
+import com.contoso.socialapp.service.LikeService;
+import com.contoso.socialapp.service.PostService;
+import com.contoso.socialapp.user.UsernameDictionary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:build/group-commit-test.db",
+        "app.writes.group-commit.enabled=true",
+        "app.writes.group-commit.max-batch=64",
+        "app.writes.group-commit.max-batch-time=PT10S"
+})
+class GroupCommitExecutorTests {
+    
+    @Autowired
+    private GroupCommitExecutor executor;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private CommentService commentService;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private LikeRepository likeRepository;
+    
+    @Autowired
+    private UsernameDictionary usernameDictionary;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+    
+    @Test
+    void concurrentWritesShareOneCommit() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "hello"));
+        long batchesBefore = batches();
+        
+        CountDownLatch release = blockWriter();
+        List<CompletableFuture<Object>> writes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String username = "fan" + i;
+            writes.add(submit(() -> commentService.createComment(post.getId(), new NewCommentRequest(username, "hi"))));
+            writes.add(submit(() -> likeService.likePost(post.getId(), new LikeRequest(username))));
+        }
+        awaitQueued(20);
+        release.countDown();
+        writes.forEach(CompletableFuture::join);
+        
+        // The blocking operation's batch took every queued write with it
+        assertThat(batches() - batchesBefore).isEqualTo(1);
+        PostDto stored = postService.getPostById(post.getId());
+        assertThat(stored.getCommentsCount()).isEqualTo(10);
+        assertThat(stored.getLikesCount()).isEqualTo(10);
+    }
+    
+    @Test
+    void failedOperationIsRolledBackToItsSavepoint() {
+        double replaysBefore = replays();
+        
+        CountDownLatch release = blockWriter();
+        CompletableFuture<Object> before = submit(() -> postService.createPost(new NewPostRequest("alice", "before")));
+        CompletableFuture<Object> failing = submit(() -> {
+            PostDto orphan = postService.createPost(new NewPostRequest("alice", "orphan"));
+            postService.updatePost("missing", new UpdatePostRequest("bob", "nope"));
+            return orphan;
+        });
+        CompletableFuture<Object> after = submit(() -> postService.createPost(new NewPostRequest("alice", "after")));
+        awaitQueued(3);
+        release.countDown();
+        
+        assertThat(failing).failsWithin(10, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withRootCauseInstanceOf(ResourceNotFoundException.class);
+        PostDto first = (PostDto) before.join();
+        PostDto last = (PostDto) after.join();
+        assertThat(postRepository.existsById(first.getId())).isTrue();
+        assertThat(postRepository.existsById(last.getId())).isTrue();
+        // Neither the orphan row nor its after-commit event survived
+        assertThat(postService.getPosts(100, null).getItems())
+                .extracting(PostDto::getContent)
+                .contains("before", "after")
+                .doesNotContain("orphan");
+        assertThat(postRepository.findAll()).noneMatch(post -> post.getContent().equals("orphan"));
+        assertThat(replays()).isEqualTo(replaysBefore);
+    }
+    
+    @Test
+    void databaseErrorReplaysTheRestOfTheBatch() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "liked"));
+        int poison = usernameDictionary.idFor("poison");
+        jdbcTemplate.execute("CREATE TRIGGER reject_poison BEFORE INSERT ON likes WHEN NEW.userId = " + poison
+                + " BEGIN SELECT RAISE(ABORT, 'poison'); END");
+        double replaysBefore = replays();
+        
+        try {
+            CountDownLatch release = blockWriter();
+            CompletableFuture<Object> good = submit(() -> postService.createPost(new NewPostRequest("alice", "kept")));
+            CompletableFuture<Object> failing = submit(() ->
+                    likeRepository.insertLike(post.getId(), poison, System.currentTimeMillis()));
+            CompletableFuture<Object> later = submit(() -> likeService.likePost(post.getId(), new LikeRequest("dave")));
+            awaitQueued(3);
+            release.countDown();
+            
+            assertThat(failing).failsWithin(10, TimeUnit.SECONDS)
+                    .withThrowableOfType(Exception.class)
+                    .withCauseInstanceOf(DataAccessException.class);
+            PostDto kept = (PostDto) good.join();
+            later.join();
+            assertThat(postRepository.existsById(kept.getId())).isTrue();
+            assertThat(postService.getPostById(post.getId()).getLikesCount()).isEqualTo(1);
+            assertThat(replays()).isEqualTo(replaysBefore + 1);
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER reject_poison");
+        }
+    }
+    
+    @Test
+    void duplicateLikeDoesNotRollBackTheBatch() {
+        PostDto post = postService.createPost(new NewPostRequest("alice", "liked twice"));
+        likeService.likePost(post.getId(), new LikeRequest("carol"));
+        int carol = usernameDictionary.find("carol").getAsInt();
+        double replaysBefore = replays();
+        
+        CountDownLatch release = blockWriter();
+        CompletableFuture<Object> good = submit(() -> postService.createPost(new NewPostRequest("alice", "kept")));
+        CompletableFuture<Object> duplicate = submit(() ->
+                likeRepository.insertLike(post.getId(), carol, System.currentTimeMillis()));
+        awaitQueued(2);
+        release.countDown();
+        
+        assertThat(duplicate.join()).isEqualTo(0);
+        assertThat(postRepository.existsById(((PostDto) good.join()).getId())).isTrue();
+        assertThat(replays()).isEqualTo(replaysBefore);
+    }
+    
+    @Test
+    void otherStorageEnginesRunWritesInline() throws Throwable {
+        GroupCommitExecutor memory = new GroupCommitExecutor(true, 64, Duration.ofMillis(50), "memory",
+                transactionManager, new SimpleMeterRegistry());
+        try {
+            assertThat(memory.isEnabled()).isFalse();
+            assertThat(memory.execute(() -> Thread.currentThread().getName()))
+                    .isEqualTo(Thread.currentThread().getName());
+        } finally {
+            memory.drain();
+        }
+    }
+    
+    // Occupies the writer thread until released, so the operations submitted meanwhile queue up
+    private CountDownLatch blockWriter() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        submit(() -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        try {
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return release;
+    }
+    
+    private CompletableFuture<Object> submit(GroupCommitExecutor.Operation operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return executor.execute(operation);
+            } catch (Throwable e) {
+                throw new CompletionException(e);
+            }
+        }, callers);
+    }
+    
+    private void awaitQueued(int count) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.get("writes.group-commit.queued").gauge().value() < count) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+    
+    private long batches() {
+        return meterRegistry.get("writes.group-commit.batch.size").summary().count();
+    }
+    
+    private double replays() {
+        return meterRegistry.get("writes.group-commit.replays").counter().count();
+    }
+    
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:sqlite:build/group-commit-write-behind-test.db",
+            "app.writes.group-commit.enabled=true",
+            "app.likes.write-behind.enabled=true",
+            "app.likes.write-behind.flush-interval=PT1H",
+            "app.likes.likers.snapshot-path=build/group-commit-write-behind-test.likers"
+    })
+    static class WriteBehind {
+        
+        @Autowired
+        private ConfigurableApplicationContext context;
+        
+        @Autowired
+        private PostService postService;
+        
+        @Autowired
+        private LikeService likeService;
+        
+        @Test
+        void bufferedLikesRunOnTheCallingThread() {
+            Map<String, String> threads = new ConcurrentHashMap<>();
+            context.addApplicationListener(ApplicationListener.forPayload(payload ->
+                    threads.put(payload.getClass().getSimpleName(), Thread.currentThread().getName())));
+            
+            PostDto post = postService.createPost(new NewPostRequest("alice", "buffered"));
+            likeService.likePost(post.getId(), new LikeRequest("bob"));
+            
+            assertThat(threads).containsEntry("PostSavedEvent", "group-commit");
+            assertThat(threads).containsEntry("PostCountersChangedEvent", Thread.currentThread().getName());
+            assertThat(postService.getPostById(post.getId()).getLikesCount()).isEqualTo(1);
+        }
+    }
+}